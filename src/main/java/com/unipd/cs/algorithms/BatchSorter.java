@@ -0,0 +1,271 @@
+package com.unipd.cs.algorithms;
+
+import com.unipd.cs.algorithms.CutoffCalibration.Soglia;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Servizio di ordinamento a lotti per molti array piccoli e medi.
+ *
+ * Un lotto viene suddiviso tra i thread del pool comune: gli array sotto la soglia di
+ * MergeSort vengono ordinati direttamente dal thread che li riceve con IntroSort, che non
+ * richiede memoria aggiuntiva, mentre quelli più grandi vengono ordinati con MergeSort
+ * parallelo e suddivisi a loro volta tra i thread. I buffer di appoggio di MergeSort non
+ * vengono allocati a ogni chiamata ma presi in prestito da una riserva dell'istanza e
+ * restituiti al termine: a regime un lotto non alloca nuovi buffer.
+ *
+ * Un'istanza può essere usata da più thread contemporaneamente.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class BatchSorter {
+    
+    // Numero di gruppi di array per thread in cui viene suddiviso un lotto
+    private static final int GRUPPI_PER_THREAD = 8;
+    
+    private final ForkJoinPool pool;
+    private final AtomicReferenceArray<int[]> riserva;
+    
+    public BatchSorter() {
+        this.pool = ForkJoinPool.commonPool();
+        this.riserva = new AtomicReferenceArray<>(2 * pool.getParallelism() + 1);
+    }
+    
+    public static void main(String[] args) {
+        int[] numeroArray = {100_000, 10_000, 100};
+        int[] dimensioni = {100, 1_000, 100_000};
+        BatchSorter sorter = new BatchSorter();
+        Random random = new Random(42);
+        
+        for (int t = 0; t < dimensioni.length; t++) {
+            int m = numeroArray[t];
+            int dimensione = dimensioni[t];
+            System.out.printf("%nLotto di %d array da %d elementi:%n", m, dimensione);
+            
+            int[][] dati = new int[m][dimensione];
+            for (int[] array : dati) {
+                for (int i = 0; i < dimensione; i++) {
+                    array[i] = random.nextInt(1_000_000);
+                }
+            }
+            
+            // Test MergeSort Parallelo su un array alla volta
+            int[][] datiSingoli = copiaLotto(dati);
+            long tempoInizio = System.currentTimeMillis();
+            for (int[] array : datiSingoli) {
+                ParallelSortingAlgorithms.mergeSortParallelo(array);
+            }
+            long tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo MergeSort Parallelo per array: %d ms, Ordinato: %s%n",
+                    (tempoFine - tempoInizio), tuttiOrdinati(datiSingoli));
+            
+            // Test a lotti: il primo lotto riempie la riserva, il secondo misura il regime
+            sorter.ordinaBatch(copiaLotto(dati));
+            int[][] datiLotto = copiaLotto(dati);
+            tempoInizio = System.currentTimeMillis();
+            sorter.ordinaBatch(datiLotto);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo BatchSorter: %d ms, Ordinato: %s%n",
+                    (tempoFine - tempoInizio), tuttiOrdinati(datiLotto));
+            
+            // Test a lotti su intervalli di un unico array
+            int[] contiguo = new int[m * dimensione];
+            int[] offsets = new int[m + 1];
+            for (int i = 0; i < m; i++) {
+                System.arraycopy(dati[i], 0, contiguo, i * dimensione, dimensione);
+                offsets[i + 1] = (i + 1) * dimensione;
+            }
+            tempoInizio = System.currentTimeMillis();
+            sorter.ordinaBatch(contiguo, offsets);
+            tempoFine = System.currentTimeMillis();
+            boolean ordinato = true;
+            for (int i = 0; i < m && ordinato; i++) {
+                ordinato = SortingAlgorithms.èOrdinato(Arrays.copyOfRange(contiguo, offsets[i], offsets[i + 1]));
+            }
+            System.out.printf("Tempo BatchSorter su intervalli: %d ms, Ordinato: %s%n",
+                    (tempoFine - tempoInizio), ordinato);
+        }
+    }
+    
+    /**
+     * Ordina in parallelo tutti gli array del lotto
+     */
+    public void ordinaBatch(int[][] array) {
+        for (int[] a : array) {
+            if (a == null) {
+                throw new IllegalArgumentException("Il lotto non può contenere array nulli");
+            }
+        }
+        
+        if (array.length > 0) {
+            pool.invoke(new TaskOrdinaLotto(this, array, null, null, null, 0, array.length, dimensioneGruppo(array.length)));
+        }
+    }
+    
+    /**
+     * Ordina in parallelo gli intervalli [offsets[i], offsets[i + 1]) di dati.
+     *
+     * Gli offset devono essere non decrescenti e compresi tra 0 e dati.length, così gli
+     * intervalli sono disgiunti e condividono un unico buffer di appoggio.
+     */
+    public void ordinaBatch(int[] dati, int[] offsets) {
+        if (offsets.length == 0 || offsets[0] < 0 || offsets[offsets.length - 1] > dati.length) {
+            throw new IllegalArgumentException("Gli offset devono essere compresi tra 0 e " + dati.length);
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IllegalArgumentException("Gli offset devono essere non decrescenti");
+            }
+        }
+        
+        int m = offsets.length - 1;
+        if (m == 0) {
+            return;
+        }
+        
+        int[] appoggio = prendiBuffer(offsets[m]);
+        try {
+            pool.invoke(new TaskOrdinaLotto(this, null, dati, offsets, appoggio, 0, m, dimensioneGruppo(m)));
+        } finally {
+            restituisciBuffer(appoggio);
+        }
+    }
+    
+    /**
+     * Numero massimo di array ordinati in sequenza da un singolo task
+     */
+    private int dimensioneGruppo(int m) {
+        return Math.max(1, m / (GRUPPI_PER_THREAD * pool.getParallelism()));
+    }
+    
+    /**
+     * Ordina l'intervallo [inizio, fine] di array usando appoggio, che deve avere almeno
+     * fine + 1 elementi, come buffer per MergeSort
+     */
+    private static void ordina(int[] array, int[] appoggio, int inizio, int fine) {
+        if (fine - inizio < CutoffCalibration.soglia(Soglia.MERGESORT_INT)) {
+            SortingAlgorithms.introSort(array, inizio, fine, SortingAlgorithms.limiteProfondita(fine - inizio + 1));
+            return;
+        }
+        
+        System.arraycopy(array, inizio, appoggio, inizio, fine - inizio + 1);
+        new ParallelSortingAlgorithms.TaskMergeSortParallelo(appoggio, array, inizio, fine).invoke();
+    }
+    
+    /**
+     * Prende dalla riserva un buffer di almeno n elementi. Se non ne trova, scarta un buffer
+     * troppo piccolo e ne alloca uno nuovo, che alla restituzione prenderà il suo posto.
+     */
+    private int[] prendiBuffer(int n) {
+        for (int i = 0; i < riserva.length(); i++) {
+            int[] buffer = riserva.get(i);
+            if (buffer != null && buffer.length >= n && riserva.compareAndSet(i, buffer, null)) {
+                return buffer;
+            }
+        }
+        
+        for (int i = 0; i < riserva.length(); i++) {
+            int[] buffer = riserva.get(i);
+            if (buffer != null && riserva.compareAndSet(i, buffer, null)) {
+                break;
+            }
+        }
+        return new int[n];
+    }
+    
+    /**
+     * Restituisce un buffer alla riserva; se la riserva è piena il buffer viene scartato
+     */
+    private void restituisciBuffer(int[] buffer) {
+        for (int i = 0; i < riserva.length(); i++) {
+            if (riserva.get(i) == null && riserva.compareAndSet(i, null, buffer)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Implementazione RecursiveAction per l'ordinamento di un gruppo [primo, ultimo) del lotto.
+     *
+     * Il lotto è dato come array di array oppure come intervalli di dati delimitati da offsets;
+     * nel secondo caso tutti gli intervalli usano il buffer di appoggio condiviso.
+     */
+    static class TaskOrdinaLotto extends RecursiveAction {
+        private final BatchSorter sorter;
+        private final int[][] array;
+        private final int[] dati;
+        private final int[] offsets;
+        private final int[] appoggio;
+        private final int primo;
+        private final int ultimo;
+        private final int dimensioneGruppo;
+        
+        TaskOrdinaLotto(BatchSorter sorter, int[][] array, int[] dati, int[] offsets, int[] appoggio,
+                int primo, int ultimo, int dimensioneGruppo) {
+            this.sorter = sorter;
+            this.array = array;
+            this.dati = dati;
+            this.offsets = offsets;
+            this.appoggio = appoggio;
+            this.primo = primo;
+            this.ultimo = ultimo;
+            this.dimensioneGruppo = dimensioneGruppo;
+        }
+        
+        @Override
+        protected void compute() {
+            if (ultimo - primo > dimensioneGruppo) {
+                int medio = (primo + ultimo) >>> 1;
+                invokeAll(new TaskOrdinaLotto(sorter, array, dati, offsets, appoggio, primo, medio, dimensioneGruppo),
+                        new TaskOrdinaLotto(sorter, array, dati, offsets, appoggio, medio, ultimo, dimensioneGruppo));
+                return;
+            }
+            
+            for (int i = primo; i < ultimo; i++) {
+                if (array == null) {
+                    ordina(dati, appoggio, offsets[i], offsets[i + 1] - 1);
+                } else {
+                    ordinaArray(array[i]);
+                }
+            }
+        }
+        
+        private void ordinaArray(int[] a) {
+            // Gli array piccoli non usano il buffer: evita di prenderlo in prestito
+            if (a.length <= CutoffCalibration.soglia(Soglia.MERGESORT_INT)) {
+                ordina(a, null, 0, a.length - 1);
+                return;
+            }
+            
+            int[] buffer = sorter.prendiBuffer(a.length);
+            try {
+                ordina(a, buffer, 0, a.length - 1);
+            } finally {
+                sorter.restituisciBuffer(buffer);
+            }
+        }
+    }
+    
+    private static int[][] copiaLotto(int[][] dati) {
+        int[][] copia = new int[dati.length][];
+        for (int i = 0; i < dati.length; i++) {
+            copia[i] = Arrays.copyOf(dati[i], dati[i].length);
+        }
+        return copia;
+    }
+    
+    private static boolean tuttiOrdinati(int[][] dati) {
+        for (int[] array : dati) {
+            if (!SortingAlgorithms.èOrdinato(array)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,342 @@
+package com.unipd.cs.algorithms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calibrazione delle soglie sequenziali degli algoritmi di ordinamento paralleli.
+ *
+ * Sotto la soglia un task Fork/Join smette di suddividere il lavoro e procede in modo
+ * sequenziale. La calibrazione misura il costo di un task e il costo per elemento di ogni
+ * algoritmo su questa macchina, e sceglie la soglia più piccola per cui il lavoro di una
+ * foglia supera di RAPPORTO_LAVORO_OVERHEAD volte il costo del task che la esegue.
+ *
+ * Ogni soglia viene risolta in quest'ordine:
+ * <ol>
+ *   <li>valore esplicito, da {@link #imposta} o dalla proprietà di sistema
+ *       {@code algoritmi.soglia.<chiave>} (ad esempio {@code -Dalgoritmi.soglia.quicksort.int=5000});</li>
+ *   <li>valore calibrato e salvato su file da un'esecuzione precedente sullo stesso numero di core;</li>
+ *   <li>valore predefinito.</li>
+ * </ol>
+ * Ogni soglia ha un minimo sotto il quale l'algoritmo non termina o non è corretto: i valori
+ * espliciti o salvati più piccoli vengono portati al minimo. Il quicksort parallelo, ad esempio,
+ * partiziona con il doppio pivot solo intervalli di almeno
+ * {@code SortingAlgorithms.SOGLIA_INSERTION_SORT} elementi.
+ *
+ * Con {@code -Dalgoritmi.calibrazione.automatica=true} la calibrazione viene eseguita al primo
+ * utilizzo se non esiste ancora un file salvato. Il file predefinito è
+ * {@code ~/.algoritmi-struttura-dati/soglie.properties}, modificabile con {@code -Dalgoritmi.soglie.file}.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class CutoffCalibration {
+    
+    /**
+     * Soglie calibrabili, per algoritmo e tipo di elemento
+     */
+    public enum Soglia {
+        QUICKSORT_INT("quicksort.int", 1000, SortingAlgorithms.SOGLIA_INSERTION_SORT),
+        MERGESORT_INT("mergesort.int", 1000, 2),
+        FUSIONE_INT("fusione.int", 4096, 2),
+        MERGESORT_LONG("mergesort.long", 1000, 2),
+        FUSIONE_LONG("fusione.long", 4096, 2);
+        
+        private final String chiave;
+        private final int predefinito;
+        private final int minimo;
+        
+        Soglia(String chiave, int predefinito, int minimo) {
+            this.chiave = chiave;
+            this.predefinito = predefinito;
+            this.minimo = minimo;
+        }
+        
+        public String getChiave() {
+            return chiave;
+        }
+        
+        public int getPredefinito() {
+            return predefinito;
+        }
+        
+        public int getMinimo() {
+            return minimo;
+        }
+    }
+    
+    private static final String PREFISSO_PROPRIETA = "algoritmi.soglia.";
+    private static final String PROPRIETA_FILE = "algoritmi.soglie.file";
+    private static final String PROPRIETA_CALIBRAZIONE_AUTOMATICA = "algoritmi.calibrazione.automatica";
+    private static final String CHIAVE_PROCESSORI = "processori";
+    
+    private static final int RAPPORTO_LAVORO_OVERHEAD = 100;
+    private static final int SOGLIA_MINIMA = 256;
+    private static final int SOGLIA_MASSIMA = 1 << 20;
+    private static final int DIMENSIONE_MISURA = 1 << 15;
+    private static final int RIPETIZIONI = 7;
+    
+    // Sostituiti per intero a ogni modifica, così i task leggono sempre uno stato coerente
+    private static volatile int[] valori;
+    private static volatile boolean[] esplicite;
+    
+    static {
+        inizializza();
+    }
+    
+    /**
+     * Calibra le soglie su questa macchina, le salva su file e le stampa
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println("Calibrazione delle Soglie Sequenziali");
+        System.out.println("=====================================");
+        
+        long tempoInizio = System.currentTimeMillis();
+        calibra();
+        long tempoFine = System.currentTimeMillis();
+        
+        System.out.printf("Calibrazione completata in %d ms, salvata in %s%n", (tempoFine - tempoInizio), fileSoglie());
+        for (Soglia soglia : Soglia.values()) {
+            System.out.printf("  %-16s %8d%s%n", soglia.getChiave(), soglia(soglia),
+                    esplicite[soglia.ordinal()] ? " (esplicita)" : "");
+        }
+    }
+    
+    /**
+     * Restituisce la soglia sequenziale in uso
+     */
+    public static int soglia(Soglia soglia) {
+        return valori[soglia.ordinal()];
+    }
+    
+    /**
+     * Imposta esplicitamente una soglia: la calibrazione non la modificherà più
+     */
+    public static synchronized void imposta(Soglia soglia, int valore) {
+        if (valore < soglia.getMinimo()) {
+            throw new IllegalArgumentException("La soglia " + soglia.getChiave() + " deve essere almeno " + soglia.getMinimo());
+        }
+        aggiorna(soglia, valore, true);
+    }
+    
+    /**
+     * Misura le soglie su questa macchina, le applica (tranne quelle esplicite) e le salva su file
+     */
+    public static synchronized void calibra() throws IOException {
+        double costoTask = misuraCostoTask();
+        Properties calibrate = new Properties();
+        calibrate.setProperty(CHIAVE_PROCESSORI, String.valueOf(Runtime.getRuntime().availableProcessors()));
+        
+        for (Soglia soglia : Soglia.values()) {
+            double costoElemento = misuraCostoPerElemento(soglia);
+            long valore = Math.round(RAPPORTO_LAVORO_OVERHEAD * costoTask / Math.max(costoElemento, 1e-3));
+            int calibrata = (int) Math.max(SOGLIA_MINIMA, Math.min(SOGLIA_MASSIMA, valore));
+            
+            calibrate.setProperty(soglia.getChiave(), String.valueOf(calibrata));
+            if (!esplicite[soglia.ordinal()]) {
+                aggiorna(soglia, calibrata, false);
+            }
+        }
+        
+        Path file = fileSoglie();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream uscita = Files.newOutputStream(file)) {
+            calibrate.store(uscita, "Soglie sequenziali calibrate");
+        }
+    }
+    
+    /**
+     * File in cui vengono salvate le soglie calibrate
+     */
+    public static Path fileSoglie() {
+        String percorso = System.getProperty(PROPRIETA_FILE);
+        if (percorso != null) {
+            return Paths.get(percorso);
+        }
+        return Paths.get(System.getProperty("user.home"), ".algoritmi-struttura-dati", "soglie.properties");
+    }
+    
+    /**
+     * Carica i valori predefiniti, poi quelli salvati e infine quelli espliciti
+     */
+    private static void inizializza() {
+        Soglia[] soglie = Soglia.values();
+        int[] iniziali = new int[soglie.length];
+        boolean[] forzate = new boolean[soglie.length];
+        for (Soglia soglia : soglie) {
+            iniziali[soglia.ordinal()] = soglia.getPredefinito();
+        }
+        
+        boolean salvate = caricaSalvate(iniziali);
+        
+        for (Soglia soglia : soglie) {
+            String esplicita = System.getProperty(PREFISSO_PROPRIETA + soglia.getChiave());
+            if (esplicita != null) {
+                try {
+                    iniziali[soglia.ordinal()] = Math.max(soglia.getMinimo(), Integer.parseInt(esplicita.trim()));
+                    forzate[soglia.ordinal()] = true;
+                } catch (NumberFormatException e) {
+                    // Valore non valido: resta quello calibrato o predefinito
+                }
+            }
+        }
+        
+        valori = iniziali;
+        esplicite = forzate;
+        
+        if (!salvate && Boolean.getBoolean(PROPRIETA_CALIBRAZIONE_AUTOMATICA)) {
+            try {
+                calibra();
+            } catch (IOException e) {
+                // Le soglie calibrate restano comunque in uso per questa esecuzione
+            }
+        }
+    }
+    
+    /**
+     * Legge le soglie salvate, se il file esiste ed è stato prodotto con lo stesso numero di core
+     */
+    private static boolean caricaSalvate(int[] destinazione) {
+        Path file = fileSoglie();
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        
+        Properties salvate = new Properties();
+        try (InputStream ingresso = Files.newInputStream(file)) {
+            salvate.load(ingresso);
+        } catch (IOException e) {
+            return false;
+        }
+        
+        String processori = salvate.getProperty(CHIAVE_PROCESSORI);
+        if (!String.valueOf(Runtime.getRuntime().availableProcessors()).equals(processori)) {
+            return false;
+        }
+        
+        for (Soglia soglia : Soglia.values()) {
+            String valore = salvate.getProperty(soglia.getChiave());
+            if (valore != null) {
+                try {
+                    destinazione[soglia.ordinal()] = Math.max(soglia.getMinimo(), Integer.parseInt(valore.trim()));
+                } catch (NumberFormatException e) {
+                    // Voce corrotta: resta il valore predefinito
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static void aggiorna(Soglia soglia, int valore, boolean esplicita) {
+        int[] nuoviValori = Arrays.copyOf(valori, valori.length);
+        boolean[] nuoveEsplicite = Arrays.copyOf(esplicite, esplicite.length);
+        nuoviValori[soglia.ordinal()] = valore;
+        nuoveEsplicite[soglia.ordinal()] = nuoveEsplicite[soglia.ordinal()] || esplicita;
+        valori = nuoviValori;
+        esplicite = nuoveEsplicite;
+    }
+    
+    /**
+     * Costo medio, in nanosecondi, di creare ed eseguire un task vuoto nel pool comune
+     */
+    private static double misuraCostoTask() {
+        int foglie = 1 << 12;
+        long migliore = Long.MAX_VALUE;
+        for (int r = 0; r < RIPETIZIONI; r++) {
+            long inizio = System.nanoTime();
+            ForkJoinPool.commonPool().invoke(new TaskVuoto(0, foglie));
+            migliore = Math.min(migliore, System.nanoTime() - inizio);
+        }
+        return (double) migliore / (2 * foglie - 1);
+    }
+    
+    /**
+     * Costo medio, in nanosecondi, per elemento della parte sequenziale dell'algoritmo
+     */
+    private static double misuraCostoPerElemento(Soglia soglia) {
+        Random generatore = new Random(42);
+        int n = DIMENSIONE_MISURA;
+        int[] datiInt = new int[n];
+        long[] datiLong = new long[n];
+        for (int i = 0; i < n; i++) {
+            datiInt[i] = generatore.nextInt();
+            datiLong[i] = generatore.nextLong();
+        }
+        
+        // Le fusioni partono da due metà già ordinate
+        if (soglia == Soglia.FUSIONE_INT) {
+            Arrays.sort(datiInt, 0, n / 2);
+            Arrays.sort(datiInt, n / 2, n);
+        } else if (soglia == Soglia.FUSIONE_LONG) {
+            Arrays.sort(datiLong, 0, n / 2);
+            Arrays.sort(datiLong, n / 2, n);
+        }
+        
+        int[] copiaInt = new int[n];
+        int[] appoggioInt = new int[n];
+        long[] copiaLong = new long[n];
+        long[] appoggioLong = new long[n];
+        long migliore = Long.MAX_VALUE;
+        
+        for (int r = 0; r < RIPETIZIONI; r++) {
+            System.arraycopy(datiInt, 0, copiaInt, 0, n);
+            System.arraycopy(datiInt, 0, appoggioInt, 0, n);
+            System.arraycopy(datiLong, 0, copiaLong, 0, n);
+            System.arraycopy(datiLong, 0, appoggioLong, 0, n);
+            
+            long inizio = System.nanoTime();
+            switch (soglia) {
+                case QUICKSORT_INT:
+                    SortingAlgorithms.introSort(copiaInt, 0, n - 1, SortingAlgorithms.limiteProfondita(n));
+                    break;
+                case MERGESORT_INT:
+                    ParallelSortingAlgorithms.mergeSort(appoggioInt, copiaInt, 0, n - 1);
+                    break;
+                case FUSIONE_INT:
+                    ParallelSortingAlgorithms.fondi(copiaInt, 0, n / 2 - 1, n / 2, n - 1, appoggioInt, 0);
+                    break;
+                case MERGESORT_LONG:
+                    ParallelSortingAlgorithms.mergeSort(appoggioLong, null, copiaLong, null, 0, n - 1);
+                    break;
+                default:
+                    ParallelSortingAlgorithms.fondi(copiaLong, null, 0, n / 2 - 1, n / 2, n - 1, appoggioLong, null, 0);
+                    break;
+            }
+            migliore = Math.min(migliore, System.nanoTime() - inizio);
+        }
+        return (double) migliore / n;
+    }
+    
+    /**
+     * Albero binario di task senza lavoro, per misurare il costo del framework Fork/Join
+     */
+    static class TaskVuoto extends RecursiveAction {
+        private final int inizio;
+        private final int fine;
+        
+        TaskVuoto(int inizio, int fine) {
+            this.inizio = inizio;
+            this.fine = fine;
+        }
+        
+        @Override
+        protected void compute() {
+            if (fine - inizio > 1) {
+                int medio = (inizio + fine) >>> 1;
+                invokeAll(new TaskVuoto(inizio, medio), new TaskVuoto(medio, fine));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,405 @@
+package com.unipd.cs.algorithms;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Implementazione di un ordinamento esterno (out-of-core) per file binari di interi.
+ *
+ * Il file viene letto a blocchi grandi quanto il budget di memoria: ogni blocco è ordinato
+ * in parallelo e salvato su disco come run ordinata attraverso FileChannel e un unico buffer
+ * diretto riutilizzato per tutti i trasferimenti.
+ * Le run vengono poi fuse a k vie con un heap di interi e buffer sequenziali, su più passate
+ * se il budget non basta a tenere aperte tutte le run insieme. La memoria usata dipende
+ * quindi solo dal budget e non dalla dimensione del file.
+ *
+ * I file contengono interi a 32 bit in ordine big-endian, senza intestazione.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class ExternalSort {
+    /** Budget di memoria predefinito, in byte */
+    public static final long BUDGET_PREDEFINITO = 64L * 1024 * 1024;
+    
+    /** Dimensione minima di un buffer di fusione, in interi */
+    private static final int INTERI_MINIMI_PER_BUFFER = 16 * 1024;
+    
+    /** Limite di un singolo blocco in memoria */
+    private static final int INTERI_MASSIMI_PER_BLOCCO = 1 << 28;
+    
+    /** Dimensione del buffer diretto usato per leggere e scrivere i file, in byte */
+    private static final int BYTE_PER_TRASFERIMENTO = 1 << 20;
+    
+    private static final Random random = new Random();
+    
+    /**
+     * Metodo principale per dimostrare l'ordinamento esterno
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println("Ordinamento Esterno di File Binari");
+        System.out.println("==================================");
+        
+        long numInteri = 20_000_000L;
+        long budget = 16L * 1024 * 1024;
+        
+        Path sorgente = Files.createTempFile("dati-", ".bin");
+        Path destinazione = Files.createTempFile("ordinati-", ".bin");
+        try {
+            generaFileCasuale(sorgente, numInteri);
+            System.out.printf("File di %d interi (%d MB), budget di memoria %d MB%n",
+                    numInteri, numInteri * Integer.BYTES >> 20, budget >> 20);
+            
+            long tempoInizio = System.currentTimeMillis();
+            ordinaFile(sorgente, destinazione, budget);
+            long tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo Ordinamento Esterno: %d ms, Ordinato: %s%n",
+                    (tempoFine - tempoInizio), èOrdinato(destinazione));
+        } finally {
+            Files.deleteIfExists(sorgente);
+            Files.deleteIfExists(destinazione);
+        }
+    }
+    
+    /**
+     * Ordina il file sorgente nel file destinazione con il budget di memoria predefinito
+     */
+    public static void ordinaFile(Path sorgente, Path destinazione) throws IOException {
+        ordinaFile(sorgente, destinazione, BUDGET_PREDEFINITO);
+    }
+    
+    /**
+     * Ordina il file sorgente nel file destinazione usando al più budgetMemoria byte di heap
+     * per i dati. Le run temporanee vengono create nella cartella del file destinazione.
+     * Sorgente e destinazione possono essere lo stesso file: il risultato viene allora scritto
+     * in un file temporaneo che sostituisce la sorgente solo a ordinamento completato.
+     */
+    public static void ordinaFile(Path sorgente, Path destinazione, long budgetMemoria) throws IOException {
+        long interiBudget = budgetMemoria / Integer.BYTES;
+        if (interiBudget < 2L * INTERI_MINIMI_PER_BUFFER) {
+            throw new IllegalArgumentException("Il budget di memoria deve essere di almeno "
+                    + 2L * INTERI_MINIMI_PER_BUFFER * Integer.BYTES + " byte");
+        }
+        
+        Path cartellaTemporanea = destinazione.toAbsolutePath().getParent();
+        
+        // Aprire la destinazione la troncherebbe prima di leggere la sorgente
+        if (Files.exists(destinazione) && Files.isSameFile(sorgente, destinazione)) {
+            Path temporaneo = Files.createTempFile(cartellaTemporanea, "ordinati-", ".bin");
+            try {
+                ordinaFile(sorgente, temporaneo, budgetMemoria);
+                Files.move(temporaneo, destinazione, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaneo);
+            }
+            return;
+        }
+        
+        ByteBuffer appoggio = ByteBuffer.allocateDirect(BYTE_PER_TRASFERIMENTO);
+        try (FileChannel ingresso = FileChannel.open(sorgente, StandardOpenOption.READ);
+             FileChannel uscita = FileChannel.open(destinazione, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (ingresso.size() % Integer.BYTES != 0) {
+                throw new IllegalArgumentException("La dimensione del file deve essere un multiplo di "
+                        + Integer.BYTES + " byte");
+            }
+            
+            long numInteri = ingresso.size() / Integer.BYTES;
+            int interiPerRun = (int) Math.min(interiBudget, INTERI_MASSIMI_PER_BLOCCO);
+            
+            // Se il file sta nel budget basta un ordinamento in memoria
+            if (numInteri <= interiPerRun) {
+                int[] dati = new int[(int) numInteri];
+                leggi(ingresso, 0, dati, dati.length, appoggio);
+                ParallelSortingAlgorithms.quickSortParallelo(dati);
+                scrivi(uscita, 0, dati, dati.length, appoggio);
+                return;
+            }
+            
+            Path fileRun = Files.createTempFile(cartellaTemporanea, "run-", ".bin");
+            try {
+                long[] inizioRun = creaRun(ingresso, fileRun, numInteri, interiPerRun, appoggio);
+                fondiRun(fileRun, inizioRun, uscita, interiBudget, cartellaTemporanea, appoggio);
+            } finally {
+                Files.deleteIfExists(fileRun);
+            }
+        }
+    }
+    
+    /**
+     * Prima fase: legge il file a blocchi, li ordina in parallelo e li salva come run ordinate.
+     * Restituisce la posizione (in interi) di inizio di ogni run, più la fine dell'ultima.
+     */
+    private static long[] creaRun(FileChannel ingresso, Path fileRun, long numInteri, int interiPerRun,
+            ByteBuffer appoggio) throws IOException {
+        int numRun = (int) ((numInteri + interiPerRun - 1) / interiPerRun);
+        long[] inizioRun = new long[numRun + 1];
+        int[] blocco = new int[interiPerRun];
+        
+        try (FileChannel run = FileChannel.open(fileRun, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int r = 0; r < numRun; r++) {
+                long inizio = (long) r * interiPerRun;
+                int lunghezza = (int) Math.min(interiPerRun, numInteri - inizio);
+                
+                leggi(ingresso, inizio, blocco, lunghezza, appoggio);
+                // L'ultima run può essere più corta: ordina solo il prefisso, senza copiarlo
+                ForkJoinPool.commonPool().invoke(new ParallelSortingAlgorithms.TaskQuickSortParallelo(blocco, 0,
+                        lunghezza - 1, SortingAlgorithms.limiteProfondita(lunghezza)));
+                scrivi(run, inizio, blocco, lunghezza, appoggio);
+                
+                inizioRun[r] = inizio;
+            }
+        }
+        inizioRun[numRun] = numInteri;
+        return inizioRun;
+    }
+    
+    /**
+     * Seconda fase: fonde le run a k vie. Se il budget non consente di fondere tutte le run
+     * in una volta, le fonde a gruppi in nuovi file temporanei finché ne restano abbastanza poche.
+     */
+    private static void fondiRun(Path fileRun, long[] inizioRun, FileChannel uscita, long interiBudget,
+            Path cartellaTemporanea, ByteBuffer appoggio) throws IOException {
+        // Un buffer per ogni run in ingresso più uno per l'uscita
+        int maxVie = (int) Math.max(2, interiBudget / INTERI_MINIMI_PER_BUFFER - 1);
+        Path fileCorrente = fileRun;
+        
+        try {
+            while (inizioRun.length - 1 > maxVie) {
+                int numRun = inizioRun.length - 1;
+                int numGruppi = (numRun + maxVie - 1) / maxVie;
+                long[] nuovoInizioRun = new long[numGruppi + 1];
+                Path nuovoFile = Files.createTempFile(cartellaTemporanea, "run-", ".bin");
+                
+                try (FileChannel ingresso = FileChannel.open(fileCorrente, StandardOpenOption.READ);
+                     FileChannel destinazione = FileChannel.open(nuovoFile, StandardOpenOption.READ,
+                             StandardOpenOption.WRITE)) {
+                    for (int g = 0; g < numGruppi; g++) {
+                        int primo = g * maxVie;
+                        int ultimo = Math.min(primo + maxVie, numRun);
+                        nuovoInizioRun[g] = inizioRun[primo];
+                        fondiGruppo(ingresso, inizioRun, primo, ultimo, destinazione, inizioRun[primo], interiBudget,
+                                appoggio);
+                    }
+                }
+                nuovoInizioRun[numGruppi] = inizioRun[numRun];
+                
+                if (fileCorrente != fileRun) {
+                    Files.deleteIfExists(fileCorrente);
+                }
+                fileCorrente = nuovoFile;
+                inizioRun = nuovoInizioRun;
+            }
+            
+            try (FileChannel ingresso = FileChannel.open(fileCorrente, StandardOpenOption.READ)) {
+                fondiGruppo(ingresso, inizioRun, 0, inizioRun.length - 1, uscita, 0, interiBudget, appoggio);
+            }
+        } finally {
+            if (fileCorrente != fileRun) {
+                Files.deleteIfExists(fileCorrente);
+            }
+        }
+    }
+    
+    /**
+     * Fonde le run [primo, ultimo) scrivendo il risultato a partire da posizioneDestinazione
+     */
+    private static void fondiGruppo(FileChannel ingresso, long[] inizioRun, int primo, int ultimo,
+            FileChannel uscita, long posizioneDestinazione, long interiBudget, ByteBuffer appoggio) throws IOException {
+        int numRun = ultimo - primo;
+        int interiPerBuffer = (int) Math.min(interiBudget / (numRun + 1), INTERI_MASSIMI_PER_BLOCCO);
+        
+        LettoreRun[] lettori = new LettoreRun[numRun];
+        int[] heap = new int[numRun];
+        int dimensione = 0;
+        for (int r = 0; r < numRun; r++) {
+            lettori[r] = new LettoreRun(ingresso, inizioRun[primo + r], inizioRun[primo + r + 1], interiPerBuffer,
+                    appoggio);
+            if (lettori[r].riempi()) {
+                heap[dimensione++] = r;
+            }
+        }
+        for (int i = dimensione / 2 - 1; i >= 0; i--) {
+            setacciaGiu(heap, dimensione, i, lettori);
+        }
+        
+        int[] bufferUscita = new int[interiPerBuffer];
+        int riempimento = 0;
+        long posizione = posizioneDestinazione;
+        
+        while (dimensione > 0) {
+            LettoreRun lettore = lettori[heap[0]];
+            bufferUscita[riempimento++] = lettore.buffer[lettore.posizione++];
+            
+            if (riempimento == bufferUscita.length) {
+                scrivi(uscita, posizione, bufferUscita, riempimento, appoggio);
+                posizione += riempimento;
+                riempimento = 0;
+            }
+            
+            // Run esaurita: esce dall'heap
+            if (lettore.posizione == lettore.limite && !lettore.riempi()) {
+                heap[0] = heap[--dimensione];
+            }
+            if (dimensione > 0) {
+                setacciaGiu(heap, dimensione, 0, lettori);
+            }
+        }
+        
+        scrivi(uscita, posizione, bufferUscita, riempimento, appoggio);
+    }
+    
+    /**
+     * Ripristina la proprietà di min-heap (sul valore corrente di ogni run) a partire dal nodo indicato
+     */
+    private static void setacciaGiu(int[] heap, int dimensione, int nodo, LettoreRun[] lettori) {
+        int r = heap[nodo];
+        int valore = lettori[r].corrente();
+        int figlio;
+        while ((figlio = 2 * nodo + 1) < dimensione) {
+            if (figlio + 1 < dimensione && lettori[heap[figlio + 1]].corrente() < lettori[heap[figlio]].corrente()) {
+                figlio++;
+            }
+            if (lettori[heap[figlio]].corrente() >= valore) {
+                break;
+            }
+            heap[nodo] = heap[figlio];
+            nodo = figlio;
+        }
+        heap[nodo] = r;
+    }
+    
+    /**
+     * Lettura sequenziale di una run attraverso un buffer di interi ricaricato a finestre.
+     * Il buffer diretto di appoggio è condiviso da tutti i lettori della fusione.
+     */
+    private static final class LettoreRun {
+        private final FileChannel canale;
+        private final long fine;
+        private final int[] buffer;
+        private final ByteBuffer appoggio;
+        private long prossimo;
+        private int posizione;
+        private int limite;
+        
+        LettoreRun(FileChannel canale, long inizio, long fine, int interiPerBuffer, ByteBuffer appoggio) {
+            this.canale = canale;
+            this.fine = fine;
+            this.prossimo = inizio;
+            this.buffer = new int[(int) Math.min(interiPerBuffer, fine - inizio)];
+            this.appoggio = appoggio;
+        }
+        
+        int corrente() {
+            return buffer[posizione];
+        }
+        
+        /**
+         * Carica la prossima finestra della run; restituisce false se la run è esaurita
+         */
+        boolean riempi() throws IOException {
+            if (prossimo >= fine) {
+                return false;
+            }
+            int quanti = (int) Math.min(buffer.length, fine - prossimo);
+            leggi(canale, prossimo, buffer, quanti, appoggio);
+            prossimo += quanti;
+            posizione = 0;
+            limite = quanti;
+            return true;
+        }
+    }
+    
+    /**
+     * Legge quanti interi a partire dalla posizione (in interi) indicata del file, a blocchi
+     * grandi quanto il buffer diretto di appoggio
+     */
+    private static void leggi(FileChannel canale, long posizione, int[] destinazione, int quanti,
+            ByteBuffer appoggio) throws IOException {
+        int interiPerBlocco = appoggio.capacity() / Integer.BYTES;
+        for (int letti = 0; letti < quanti; ) {
+            int numero = Math.min(interiPerBlocco, quanti - letti);
+            long inizio = (posizione + letti) * Integer.BYTES;
+            appoggio.clear();
+            appoggio.limit(numero * Integer.BYTES);
+            while (appoggio.hasRemaining()) {
+                if (canale.read(appoggio, inizio + appoggio.position()) < 0) {
+                    throw new EOFException("Fine del file inattesa alla posizione " + (inizio + appoggio.position()));
+                }
+            }
+            appoggio.flip();
+            appoggio.asIntBuffer().get(destinazione, letti, numero);
+            letti += numero;
+        }
+    }
+    
+    /**
+     * Scrive quanti interi a partire dalla posizione (in interi) indicata del file, estendendolo
+     * se necessario, a blocchi grandi quanto il buffer diretto di appoggio
+     */
+    private static void scrivi(FileChannel canale, long posizione, int[] sorgente, int quanti,
+            ByteBuffer appoggio) throws IOException {
+        int interiPerBlocco = appoggio.capacity() / Integer.BYTES;
+        for (int scritti = 0; scritti < quanti; ) {
+            int numero = Math.min(interiPerBlocco, quanti - scritti);
+            long inizio = (posizione + scritti) * Integer.BYTES;
+            appoggio.clear();
+            appoggio.limit(numero * Integer.BYTES);
+            appoggio.asIntBuffer().put(sorgente, scritti, numero);
+            while (appoggio.hasRemaining()) {
+                canale.write(appoggio, inizio + appoggio.position());
+            }
+            scritti += numero;
+        }
+    }
+    
+    /**
+     * Genera un file binario con interi casuali
+     */
+    public static void generaFileCasuale(Path file, long numInteri) throws IOException {
+        int[] blocco = new int[(int) Math.min(numInteri, 1 << 20)];
+        ByteBuffer appoggio = ByteBuffer.allocateDirect(BYTE_PER_TRASFERIMENTO);
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (long inizio = 0; inizio < numInteri; inizio += blocco.length) {
+                int lunghezza = (int) Math.min(blocco.length, numInteri - inizio);
+                for (int i = 0; i < lunghezza; i++) {
+                    blocco[i] = random.nextInt();
+                }
+                scrivi(canale, inizio, blocco, lunghezza, appoggio);
+            }
+        }
+    }
+    
+    /**
+     * Verifica se un file binario di interi è ordinato
+     */
+    public static boolean èOrdinato(Path file) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+            long numInteri = canale.size() / Integer.BYTES;
+            int[] blocco = new int[(int) Math.min(numInteri, 1 << 20)];
+            ByteBuffer appoggio = ByteBuffer.allocateDirect(BYTE_PER_TRASFERIMENTO);
+            int precedente = Integer.MIN_VALUE;
+            for (long inizio = 0; inizio < numInteri; inizio += blocco.length) {
+                int lunghezza = (int) Math.min(blocco.length, numInteri - inizio);
+                leggi(canale, inizio, blocco, lunghezza, appoggio);
+                for (int i = 0; i < lunghezza; i++) {
+                    if (blocco[i] < precedente) {
+                        return false;
+                    }
+                    precedente = blocco[i];
+                }
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.unipd.cs.algorithms;
 
+import com.unipd.cs.algorithms.CutoffCalibration.Soglia;
 import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.ForkJoinPool;
@@ -38,6 +39,9 @@ public class ParallelSortingAlgorithms {
             int[] datiQuickSortSequenziale = Arrays.copyOf(dati, dati.length);
             int[] datiQuickSortParallelo = Arrays.copyOf(dati, dati.length);
             int[] datiMergeSortParallelo = Arrays.copyOf(dati, dati.length);
+            int[] datiRadixSortParallelo = Arrays.copyOf(dati, dati.length);
+            int[] datiSampleSortParallelo = Arrays.copyOf(dati, dati.length);
+            int[] datiMergeSortAdattivo = Arrays.copyOf(dati, dati.length);
             
             // Esegui e misura il tempo di ciascun algoritmo
             long tempoInizio, tempoFine;
@@ -62,6 +66,27 @@ public class ParallelSortingAlgorithms {
             tempoFine = System.currentTimeMillis();
             System.out.printf("Tempo MergeSort Parallelo: %d ms, Ordinato: %s%n", 
                     (tempoFine - tempoInizio), SortingAlgorithms.èOrdinato(datiMergeSortParallelo));
+            
+            // Test RadixSort Parallelo
+            tempoInizio = System.currentTimeMillis();
+            radixSortParallelo(datiRadixSortParallelo);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo RadixSort Parallelo: %d ms, Ordinato: %s%n", 
+                    (tempoFine - tempoInizio), SortingAlgorithms.èOrdinato(datiRadixSortParallelo));
+            
+            // Test SampleSort Parallelo
+            tempoInizio = System.currentTimeMillis();
+            sampleSortParallelo(datiSampleSortParallelo);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo SampleSort Parallelo: %d ms, Ordinato: %s%n", 
+                    (tempoFine - tempoInizio), SortingAlgorithms.èOrdinato(datiSampleSortParallelo));
+            
+            // Test MergeSort Adattivo Parallelo
+            tempoInizio = System.currentTimeMillis();
+            mergeSortAdattivoParallelo(datiMergeSortAdattivo);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo MergeSort Adattivo Parallelo: %d ms, Ordinato: %s%n", 
+                    (tempoFine - tempoInizio), SortingAlgorithms.èOrdinato(datiMergeSortAdattivo));
         }
     }
     
@@ -70,85 +95,290 @@ public class ParallelSortingAlgorithms {
      */
     public static void quickSortParallelo(int[] array) {
         ForkJoinPool pool = ForkJoinPool.commonPool();
-        pool.invoke(new TaskQuickSortParallelo(array, 0, array.length - 1));
+        pool.invoke(new TaskQuickSortParallelo(array, 0, array.length - 1,
+                SortingAlgorithms.limiteProfondita(array.length)));
     }
     
     /**
-     * Implementazione RecursiveAction per QuickSort parallelo
+     * Implementazione RecursiveAction per QuickSort parallelo.
+     *
+     * Usa lo stesso introsort a doppio pivot della versione sequenziale: le tre parti prodotte
+     * da ogni partizionamento vengono ordinate in parallelo e oltre il limite di profondità
+     * l'intervallo viene ordinato con HeapSort.
      */
     static class TaskQuickSortParallelo extends RecursiveAction {
-        private static final int SOGLIA_SEQUENZIALE = 1000;
         private final int[] array;
         private final int inizio;
         private final int fine;
+        private final int profondita;
         
-        TaskQuickSortParallelo(int[] array, int inizio, int fine) {
+        TaskQuickSortParallelo(int[] array, int inizio, int fine, int profondita) {
             this.array = array;
             this.inizio = inizio;
             this.fine = fine;
+            this.profondita = profondita;
         }
         
         @Override
         protected void compute() {
             // Se la dimensione dell'array è abbastanza piccola, usa QuickSort sequenziale
-            if (fine - inizio < SOGLIA_SEQUENZIALE) {
-                SortingAlgorithms.quickSort(array, inizio, fine);
+            if (fine - inizio < CutoffCalibration.soglia(Soglia.QUICKSORT_INT)) {
+                SortingAlgorithms.introSort(array, inizio, fine, profondita);
+                return;
+            }
+            
+            // Partizionamento degenere: garantisce comunque O(n log n)
+            if (profondita == 0) {
+                SortingAlgorithms.heapSort(array, inizio, fine);
                 return;
             }
             
             // Altrimenti, partiziona l'array e ordina in parallelo
-            if (inizio < fine) {
-                int indicePivot = partiziona(array, inizio, fine);
-                
-                // Crea task per i sottoarray
-                TaskQuickSortParallelo taskSinistra = new TaskQuickSortParallelo(array, inizio, indicePivot - 1);
-                TaskQuickSortParallelo taskDestra = new TaskQuickSortParallelo(array, indicePivot + 1, fine);
-                
-                // Esegui entrambi i task in parallelo
-                invokeAll(taskSinistra, taskDestra);
+            int[] limiti = new int[4];
+            SortingAlgorithms.partizionaDoppioPivot(array, inizio, fine, limiti);
+            
+            // Crea task per i sottoarray
+            TaskQuickSortParallelo taskSinistra = new TaskQuickSortParallelo(array, inizio, limiti[0], profondita - 1);
+            TaskQuickSortParallelo taskCentro = new TaskQuickSortParallelo(array, limiti[1], limiti[2], profondita - 1);
+            TaskQuickSortParallelo taskDestra = new TaskQuickSortParallelo(array, limiti[3], fine, profondita - 1);
+            
+            // Esegui i task in parallelo
+            invokeAll(taskSinistra, taskCentro, taskDestra);
+        }
+    }
+    
+    /**
+     * Selezione parallela del k-esimo elemento più piccolo, con lo stesso contratto di
+     * SortingAlgorithms.select.
+     *
+     * Finché l'intervallo è grande, due pivot vengono scelti da un campione casuale in modo
+     * da racchiudere con alta probabilità la posizione k (come in Floyd-Rivest) e l'intervallo
+     * viene partizionato in parallelo a blocchi, con lo stesso schema di RadixSort: conteggi
+     * per blocco, somma prefissa e distribuzione nel buffer di appoggio. Si prosegue poi solo
+     * nella parte che contiene k, di norma molto più piccola.
+     */
+    public static int selectParallelo(int[] array, int k) {
+        if (k < 0 || k >= array.length) {
+            throw new IllegalArgumentException("La posizione k deve essere tra 0 e " + (array.length - 1));
+        }
+        selezionaParallelo(array, 0, array.length - 1, k);
+        return array[k];
+    }
+    
+    /**
+     * Versione parallela di SortingAlgorithms.topK
+     */
+    public static int[] topKParallelo(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Il numero di elementi k deve essere tra 0 e " + array.length);
+        }
+        if (k == 0) {
+            return new int[0];
+        }
+        
+        int[] copia = Arrays.copyOf(array, array.length);
+        selezionaParallelo(copia, 0, copia.length - 1, k - 1);
+        int[] risultato = Arrays.copyOf(copia, k);
+        quickSortParallelo(risultato);
+        return risultato;
+    }
+    
+    /**
+     * Versione parallela di SortingAlgorithms.partialSort
+     */
+    public static void partialSortParallelo(int[] array, int inizio, int fine) {
+        if (inizio < 0 || fine >= array.length || inizio > fine) {
+            throw new IllegalArgumentException("Intervallo non valido: [" + inizio + ", " + fine + "]");
+        }
+        
+        int ultimo = array.length - 1;
+        selezionaParallelo(array, 0, ultimo, inizio);
+        if (fine > inizio) {
+            selezionaParallelo(array, inizio + 1, ultimo, fine);
+            ForkJoinPool.commonPool().invoke(new TaskQuickSortParallelo(array, inizio + 1, fine - 1,
+                    SortingAlgorithms.limiteProfondita(fine - inizio - 1)));
+        }
+    }
+    
+    /**
+     * Selezione parallela sull'intervallo [inizio, fine]: porta nella posizione k il valore che le spetta
+     */
+    private static void selezionaParallelo(int[] array, int inizio, int fine, int k) {
+        Random generatore = new Random();
+        int[] temp = null;
+        
+        while (fine - inizio + 1 > TaskPartizioneParallela.SOGLIA_SELEZIONE_PARALLELA) {
+            int lunghezza = fine - inizio + 1;
+            
+            // Campione casuale ordinato e pivot attorno al rango atteso di k
+            int[] campione = new int[TaskPartizioneParallela.DIMENSIONE_CAMPIONE];
+            for (int i = 0; i < campione.length; i++) {
+                campione[i] = array[inizio + generatore.nextInt(lunghezza)];
+            }
+            SortingAlgorithms.quickSort(campione, 0, campione.length - 1);
+            
+            int rango = (int) ((long) (k - inizio) * campione.length / lunghezza);
+            int margine = 2 * (int) Math.sqrt(campione.length);
+            int pivot1 = campione[Math.max(0, rango - margine)];
+            int pivot2 = campione[Math.min(campione.length - 1, rango + margine)];
+            
+            if (temp == null) {
+                temp = new int[array.length];
+            }
+            int[] dimensioni = partizionaParallelo(array, temp, inizio, fine, pivot1, pivot2);
+            int fineMinori = inizio + dimensioni[0] - 1;
+            int inizioMaggiori = fine - dimensioni[2] + 1;
+            
+            if (k <= fineMinori) {
+                fine = fineMinori;
+            } else if (k >= inizioMaggiori) {
+                inizio = inizioMaggiori;
+            } else if (pivot1 == pivot2) {
+                // La parte centrale contiene solo chiavi uguali: k è già al suo posto
+                return;
+            } else if (dimensioni[1] == lunghezza) {
+                // Il campione non separa l'intervallo: si conclude in modo sequenziale
+                break;
+            } else {
+                inizio = fineMinori + 1;
+                fine = inizioMaggiori - 1;
+            }
+        }
+        
+        SortingAlgorithms.introSelect(array, inizio, fine, k, SortingAlgorithms.limiteProfondita(fine - inizio + 1));
+    }
+    
+    /**
+     * Partiziona in parallelo [inizio, fine] in minori di pivot1, compresi tra i pivot e
+     * maggiori di pivot2. Restituisce le dimensioni delle tre parti.
+     */
+    private static int[] partizionaParallelo(int[] array, int[] temp, int inizio, int fine, int pivot1, int pivot2) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int lunghezza = fine - inizio + 1;
+        int numBlocchi = Math.max(1, Math.min(pool.getParallelism() * 4,
+                lunghezza / TaskPartizioneParallela.DIMENSIONE_MINIMA_BLOCCO));
+        int[][] conteggi = new int[numBlocchi][TaskPartizioneParallela.NUM_CLASSI];
+        
+        pool.invoke(new TaskPartizioneParallela(array, temp, inizio, fine, pivot1, pivot2, conteggi,
+                TaskPartizioneParallela.FASE_CONTEGGIO, 0, numBlocchi));
+        
+        // Somma prefissa: prima tutti i minori, poi i compresi, poi i maggiori, blocco per blocco
+        int[] dimensioni = new int[TaskPartizioneParallela.NUM_CLASSI];
+        int posizione = inizio;
+        for (int classe = 0; classe < TaskPartizioneParallela.NUM_CLASSI; classe++) {
+            for (int[] conteggiBlocco : conteggi) {
+                int conteggio = conteggiBlocco[classe];
+                conteggiBlocco[classe] = posizione;
+                posizione += conteggio;
+                dimensioni[classe] += conteggio;
             }
         }
         
-        private int partiziona(int[] array, int inizio, int fine) {
-            int pivot = array[fine];
-            int i = inizio - 1;
+        pool.invoke(new TaskPartizioneParallela(array, temp, inizio, fine, pivot1, pivot2, conteggi,
+                TaskPartizioneParallela.FASE_DISTRIBUZIONE, 0, numBlocchi));
+        
+        cicloParallelo(lunghezza, (da, a) -> System.arraycopy(temp, inizio + da, array, inizio + da, a - da));
+        return dimensioni;
+    }
+    
+    /**
+     * Implementazione RecursiveAction per il partizionamento parallelo a blocchi attorno a due pivot
+     */
+    static class TaskPartizioneParallela extends RecursiveAction {
+        static final int SOGLIA_SELEZIONE_PARALLELA = 1 << 16;
+        static final int DIMENSIONE_CAMPIONE = 4096;
+        static final int DIMENSIONE_MINIMA_BLOCCO = 1 << 14;
+        static final int NUM_CLASSI = 3;
+        static final int FASE_CONTEGGIO = 0;
+        static final int FASE_DISTRIBUZIONE = 1;
+        
+        private final int[] sorgente;
+        private final int[] destinazione;
+        private final int inizio;
+        private final int fine;
+        private final int pivot1;
+        private final int pivot2;
+        private final int[][] conteggi;
+        private final int fase;
+        private final int primoBlocco;
+        private final int ultimoBlocco;
+        
+        TaskPartizioneParallela(int[] sorgente, int[] destinazione, int inizio, int fine, int pivot1, int pivot2,
+                int[][] conteggi, int fase, int primoBlocco, int ultimoBlocco) {
+            this.sorgente = sorgente;
+            this.destinazione = destinazione;
+            this.inizio = inizio;
+            this.fine = fine;
+            this.pivot1 = pivot1;
+            this.pivot2 = pivot2;
+            this.conteggi = conteggi;
+            this.fase = fase;
+            this.primoBlocco = primoBlocco;
+            this.ultimoBlocco = ultimoBlocco;
+        }
+        
+        @Override
+        protected void compute() {
+            if (ultimoBlocco - primoBlocco > 1) {
+                int medio = (primoBlocco + ultimoBlocco) >>> 1;
+                invokeAll(new TaskPartizioneParallela(sorgente, destinazione, inizio, fine, pivot1, pivot2,
+                                conteggi, fase, primoBlocco, medio),
+                        new TaskPartizioneParallela(sorgente, destinazione, inizio, fine, pivot1, pivot2,
+                                conteggi, fase, medio, ultimoBlocco));
+                return;
+            }
+            
+            long lunghezza = fine - inizio + 1;
+            int numBlocchi = conteggi.length;
+            int da = inizio + (int) (primoBlocco * lunghezza / numBlocchi);
+            int a = inizio + (int) ((primoBlocco + 1) * lunghezza / numBlocchi);
+            int[] conteggiBlocco = conteggi[primoBlocco];
             
-            for (int j = inizio; j < fine; j++) {
-                if (array[j] <= pivot) {
-                    i++;
-                    // Scambia array[i] e array[j]
-                    SortingAlgorithms.scambia(array, i, j);
+            if (fase == FASE_CONTEGGIO) {
+                for (int i = da; i < a; i++) {
+                    conteggiBlocco[classe(sorgente[i])]++;
+                }
+            } else {
+                for (int i = da; i < a; i++) {
+                    int valore = sorgente[i];
+                    destinazione[conteggiBlocco[classe(valore)]++] = valore;
                 }
             }
-            
-            // Scambia array[i+1] e array[fine]
-            SortingAlgorithms.scambia(array, i + 1, fine);
-            return i + 1;
+        }
+        
+        private int classe(int valore) {
+            return valore < pivot1 ? 0 : (valore > pivot2 ? 2 : 1);
         }
     }
     
     /**
-     * Avvia il processo di MergeSort parallelo
+     * Avvia il processo di MergeSort parallelo.
+     *
+     * L'array viene copiato una sola volta nel buffer di appoggio: da lì in poi i due buffer
+     * si scambiano i ruoli di sorgente e destinazione a ogni livello della ricorsione, così
+     * nessuna fusione deve ricopiare i dati prima di fondere.
      */
     public static void mergeSortParallelo(int[] array) {
-        int[] temp = new int[array.length];
+        int[] temp = Arrays.copyOf(array, array.length);
         ForkJoinPool pool = ForkJoinPool.commonPool();
-        pool.invoke(new TaskMergeSortParallelo(array, temp, 0, array.length - 1));
+        pool.invoke(new TaskMergeSortParallelo(temp, array, 0, array.length - 1));
     }
     
     /**
-     * Implementazione RecursiveAction per MergeSort parallelo
+     * Implementazione RecursiveAction per MergeSort parallelo.
+     *
+     * All'avvio sorgente e destinazione contengono gli stessi dati nell'intervallo; al termine
+     * l'intervallo ordinato si trova in destinazione e sorgente è stata usata come appoggio.
      */
     static class TaskMergeSortParallelo extends RecursiveAction {
-        private static final int SOGLIA_SEQUENZIALE = 1000;
-        private final int[] array;
-        private final int[] temp;
+        private final int[] sorgente;
+        private final int[] destinazione;
         private final int inizio;
         private final int fine;
         
-        TaskMergeSortParallelo(int[] array, int[] temp, int inizio, int fine) {
-            this.array = array;
-            this.temp = temp;
+        TaskMergeSortParallelo(int[] sorgente, int[] destinazione, int inizio, int fine) {
+            this.sorgente = sorgente;
+            this.destinazione = destinazione;
             this.inizio = inizio;
             this.fine = fine;
         }
@@ -156,66 +386,1279 @@ public class ParallelSortingAlgorithms {
         @Override
         protected void compute() {
             // Se la dimensione dell'array è abbastanza piccola, usa MergeSort sequenziale
-            if (fine - inizio < SOGLIA_SEQUENZIALE) {
-                mergeSort(array, temp, inizio, fine);
+            if (fine - inizio < CutoffCalibration.soglia(Soglia.MERGESORT_INT)) {
+                mergeSort(sorgente, destinazione, inizio, fine);
                 return;
             }
             
             // Calcola il punto medio
             int medio = inizio + (fine - inizio) / 2;
             
-            // Crea task per i sottoarray
-            TaskMergeSortParallelo taskSinistra = new TaskMergeSortParallelo(array, temp, inizio, medio);
-            TaskMergeSortParallelo taskDestra = new TaskMergeSortParallelo(array, temp, medio + 1, fine);
+            // Le due metà vengono ordinate in sorgente scambiando i ruoli dei buffer
+            TaskMergeSortParallelo taskSinistra = new TaskMergeSortParallelo(destinazione, sorgente, inizio, medio);
+            TaskMergeSortParallelo taskDestra = new TaskMergeSortParallelo(destinazione, sorgente, medio + 1, fine);
             
             // Esegui entrambi i task in parallelo
             invokeAll(taskSinistra, taskDestra);
             
-            // Fondi i sottoarray ordinati
-            fondi(array, temp, inizio, medio, fine);
+            // Fondi in parallelo i sottoarray ordinati
+            if (sorgente[medio] <= sorgente[medio + 1]) {
+                System.arraycopy(sorgente, inizio, destinazione, inizio, fine - inizio + 1);
+            } else {
+                new TaskFondiParallelo(sorgente, destinazione, inizio, medio, medio + 1, fine, inizio).invoke();
+            }
         }
     }
     
     /**
-     * Implementazione sequenziale dell'algoritmo MergeSort
+     * Implementazione RecursiveAction per la fusione parallela di due sottoarray ordinati.
+     *
+     * L'elemento centrale del sottoarray più lungo viene cercato per ricerca binaria
+     * nell'altro: la sua posizione finale è così nota e le parti a sinistra e a destra
+     * diventano fusioni indipendenti.
      */
-    private static void mergeSort(int[] array, int[] temp, int inizio, int fine) {
-        if (inizio < fine) {
-            int medio = inizio + (fine - inizio) / 2;
-            mergeSort(array, temp, inizio, medio);
-            mergeSort(array, temp, medio + 1, fine);
-            fondi(array, temp, inizio, medio, fine);
+    static class TaskFondiParallelo extends RecursiveAction {
+        private final int[] sorgente;
+        private final int[] destinazione;
+        private final int inizio1;
+        private final int fine1;
+        private final int inizio2;
+        private final int fine2;
+        private final int inizioDestinazione;
+        
+        TaskFondiParallelo(int[] sorgente, int[] destinazione, int inizio1, int fine1,
+                int inizio2, int fine2, int inizioDestinazione) {
+            this.sorgente = sorgente;
+            this.destinazione = destinazione;
+            this.inizio1 = inizio1;
+            this.fine1 = fine1;
+            this.inizio2 = inizio2;
+            this.fine2 = fine2;
+            this.inizioDestinazione = inizioDestinazione;
+        }
+        
+        @Override
+        protected void compute() {
+            int lunghezza1 = fine1 - inizio1 + 1;
+            int lunghezza2 = fine2 - inizio2 + 1;
+            
+            if (lunghezza1 + lunghezza2 <= CutoffCalibration.soglia(Soglia.FUSIONE_INT)) {
+                fondi(sorgente, inizio1, fine1, inizio2, fine2, destinazione, inizioDestinazione);
+                return;
+            }
+            
+            // A parità di valore gli elementi del primo sottoarray precedono quelli del secondo
+            int medio1;
+            int medio2;
+            if (lunghezza1 >= lunghezza2) {
+                medio1 = (inizio1 + fine1 + 1) >>> 1;
+                medio2 = primoMaggioreOUguale(sorgente, inizio2, fine2, sorgente[medio1]);
+            } else {
+                medio2 = (inizio2 + fine2 + 1) >>> 1;
+                medio1 = primoMaggiore(sorgente, inizio1, fine1, sorgente[medio2]);
+            }
+            
+            int medioDestinazione = inizioDestinazione + (medio1 - inizio1) + (medio2 - inizio2);
+            
+            invokeAll(new TaskFondiParallelo(sorgente, destinazione, inizio1, medio1 - 1,
+                            inizio2, medio2 - 1, inizioDestinazione),
+                    new TaskFondiParallelo(sorgente, destinazione, medio1, fine1,
+                            medio2, fine2, medioDestinazione));
         }
     }
     
     /**
-     * Fonde due sottoarray ordinati
+     * Implementazione sequenziale dell'algoritmo MergeSort con buffer alternati
      */
-    private static void fondi(int[] array, int[] temp, int inizio, int medio, int fine) {
-        // Copia i dati nell'array temporaneo
-        for (int i = inizio; i <= fine; i++) {
-            temp[i] = array[i];
+    static void mergeSort(int[] sorgente, int[] destinazione, int inizio, int fine) {
+        if (fine - inizio < SortingAlgorithms.SOGLIA_INSERTION_SORT) {
+            SortingAlgorithms.insertionSort(destinazione, inizio, fine);
+            return;
         }
         
-        int i = inizio;     // Indice iniziale del primo sottoarray
-        int j = medio + 1;  // Indice iniziale del secondo sottoarray
-        int k = inizio;     // Indice iniziale del sottoarray fuso
+        int medio = inizio + (fine - inizio) / 2;
+        mergeSort(destinazione, sorgente, inizio, medio);
+        mergeSort(destinazione, sorgente, medio + 1, fine);
+        
+        // Le due metà sono già in ordine tra loro: basta copiarle
+        if (sorgente[medio] <= sorgente[medio + 1]) {
+            System.arraycopy(sorgente, inizio, destinazione, inizio, fine - inizio + 1);
+        } else {
+            fondi(sorgente, inizio, medio, medio + 1, fine, destinazione, inizio);
+        }
+    }
+    
+    /**
+     * Fonde due sottoarray ordinati di sorgente in destinazione a partire da inizioDestinazione
+     */
+    static void fondi(int[] sorgente, int inizio1, int fine1, int inizio2, int fine2,
+            int[] destinazione, int inizioDestinazione) {
+        int i = inizio1;                // Indice corrente del primo sottoarray
+        int j = inizio2;                // Indice corrente del secondo sottoarray
+        int k = inizioDestinazione;     // Indice corrente del sottoarray fuso
         
         // Fondi i due sottoarray
-        while (i <= medio && j <= fine) {
-            if (temp[i] <= temp[j]) {
-                array[k++] = temp[i++];
+        while (i <= fine1 && j <= fine2) {
+            if (sorgente[i] <= sorgente[j]) {
+                destinazione[k++] = sorgente[i++];
+            } else {
+                destinazione[k++] = sorgente[j++];
+            }
+        }
+        
+        // Copia gli elementi rimanenti di uno dei due sottoarray
+        if (i <= fine1) {
+            System.arraycopy(sorgente, i, destinazione, k, fine1 - i + 1);
+        } else if (j <= fine2) {
+            System.arraycopy(sorgente, j, destinazione, k, fine2 - j + 1);
+        }
+    }
+    
+    /**
+     * Primo indice in [inizio, fine] con valore maggiore o uguale a quello cercato (fine + 1 se non esiste)
+     */
+    private static int primoMaggioreOUguale(int[] array, int inizio, int fine, int valore) {
+        int basso = inizio;
+        int alto = fine + 1;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (array[medio] < valore) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return basso;
+    }
+    
+    /**
+     * Primo indice in [inizio, fine] con valore strettamente maggiore di quello cercato (fine + 1 se non esiste)
+     */
+    private static int primoMaggiore(int[] array, int inizio, int fine, int valore) {
+        int basso = inizio;
+        int alto = fine + 1;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (array[medio] <= valore) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return basso;
+    }
+    
+    /**
+     * Avvia il processo di MergeSort adattivo parallelo, pensato per dati quasi ordinati.
+     *
+     * Come TimSort e powersort sfrutta le sequenze già ordinate (run) presenti nei dati: i
+     * segmenti dell'array vengono scanditi in parallelo, le run decrescenti vengono invertite
+     * e quelle troppo corte estese con InsertionSort. Le run vengono poi fuse dividendo
+     * ricorsivamente la sequenza di run al confine più vicino al centro degli elementi, così
+     * l'albero delle fusioni resta bilanciato anche con run di lunghezze molto diverse.
+     * Un array già ordinato richiede una sola scansione O(n).
+     */
+    public static void mergeSortAdattivoParallelo(int[] array) {
+        int n = array.length;
+        if (n < 2) {
+            return;
+        }
+        
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int numSegmenti = Math.max(1, Math.min(pool.getParallelism() * 4,
+                n / TaskRilevaRun.DIMENSIONE_MINIMA_SEGMENTO));
+        int[][] runSegmenti = new int[numSegmenti][];
+        pool.invoke(new TaskRilevaRun(array, runSegmenti, 0, numSegmenti));
+        
+        int[] confini = unisciRun(array, runSegmenti);
+        
+        // Una sola run: l'array è già ordinato
+        if (confini.length == 2) {
+            return;
+        }
+        
+        int[] temp = Arrays.copyOf(array, n);
+        pool.invoke(new TaskFondiRun(temp, array, confini, 0, confini.length - 1));
+    }
+    
+    /**
+     * Unisce i confini delle run dei segmenti; due run ai lati del confine tra segmenti
+     * diventano una sola se sono già in ordine tra loro.
+     * Restituisce gli inizi di tutte le run seguiti dalla fine dell'array.
+     */
+    private static int[] unisciRun(int[] array, int[][] runSegmenti) {
+        int totale = 1;
+        for (int[] run : runSegmenti) {
+            totale += run.length - 1;
+        }
+        
+        int[] confini = new int[totale];
+        int numero = 0;
+        for (int s = 0; s < runSegmenti.length; s++) {
+            int[] run = runSegmenti[s];
+            for (int r = 0; r < run.length - 1; r++) {
+                int inizio = run[r];
+                boolean continuaPrecedente = r == 0 && s > 0 && array[inizio - 1] <= array[inizio];
+                if (!continuaPrecedente) {
+                    confini[numero++] = inizio;
+                }
+            }
+        }
+        confini[numero++] = array.length;
+        return Arrays.copyOf(confini, numero);
+    }
+    
+    /**
+     * Implementazione RecursiveAction per la ricerca delle run nei segmenti dell'array
+     */
+    static class TaskRilevaRun extends RecursiveAction {
+        static final int DIMENSIONE_MINIMA_SEGMENTO = 1 << 14;
+        static final int LUNGHEZZA_MINIMA_RUN = 32;
+        
+        private final int[] array;
+        private final int[][] runSegmenti;
+        private final int primoSegmento;
+        private final int ultimoSegmento;
+        
+        TaskRilevaRun(int[] array, int[][] runSegmenti, int primoSegmento, int ultimoSegmento) {
+            this.array = array;
+            this.runSegmenti = runSegmenti;
+            this.primoSegmento = primoSegmento;
+            this.ultimoSegmento = ultimoSegmento;
+        }
+        
+        @Override
+        protected void compute() {
+            if (ultimoSegmento - primoSegmento > 1) {
+                int medio = (primoSegmento + ultimoSegmento) >>> 1;
+                invokeAll(new TaskRilevaRun(array, runSegmenti, primoSegmento, medio),
+                        new TaskRilevaRun(array, runSegmenti, medio, ultimoSegmento));
+                return;
+            }
+            
+            int numSegmenti = runSegmenti.length;
+            int inizio = (int) ((long) primoSegmento * array.length / numSegmenti);
+            int fine = (int) ((long) (primoSegmento + 1) * array.length / numSegmenti);
+            runSegmenti[primoSegmento] = rilevaRun(inizio, fine);
+        }
+        
+        /**
+         * Scandisce [inizio, fine) e restituisce gli inizi delle run trovate seguiti da fine
+         */
+        private int[] rilevaRun(int inizio, int fine) {
+            int[] confini = new int[(fine - inizio) / LUNGHEZZA_MINIMA_RUN + 2];
+            int numero = 0;
+            int i = inizio;
+            
+            while (i < fine) {
+                confini[numero++] = i;
+                int j = i + 1;
+                
+                if (j < fine) {
+                    if (array[j] < array[i]) {
+                        // Run strettamente decrescente: viene invertita (la stretta disuguaglianza mantiene la stabilità)
+                        while (j + 1 < fine && array[j + 1] < array[j]) {
+                            j++;
+                        }
+                        inverti(i, j);
+                    } else {
+                        while (j + 1 < fine && array[j + 1] >= array[j]) {
+                            j++;
+                        }
+                    }
+                    j++;
+                }
+                
+                // Le run troppo corte vengono estese e ordinate con InsertionSort
+                if (j - i < LUNGHEZZA_MINIMA_RUN) {
+                    j = Math.min(i + LUNGHEZZA_MINIMA_RUN, fine);
+                    SortingAlgorithms.insertionSort(array, i, j - 1);
+                }
+                i = j;
+            }
+            
+            confini[numero++] = fine;
+            return Arrays.copyOf(confini, numero);
+        }
+        
+        private void inverti(int inizio, int fine) {
+            while (inizio < fine) {
+                SortingAlgorithms.scambia(array, inizio++, fine--);
+            }
+        }
+    }
+    
+    /**
+     * Implementazione RecursiveAction per la fusione bilanciata delle run [primo, ultimo).
+     *
+     * Come TaskMergeSortParallelo alterna i due buffer, che all'avvio contengono gli stessi
+     * dati: una singola run è quindi già ordinata in entrambi e non richiede lavoro.
+     */
+    static class TaskFondiRun extends RecursiveAction {
+        private final int[] sorgente;
+        private final int[] destinazione;
+        private final int[] confini;
+        private final int primo;
+        private final int ultimo;
+        
+        TaskFondiRun(int[] sorgente, int[] destinazione, int[] confini, int primo, int ultimo) {
+            this.sorgente = sorgente;
+            this.destinazione = destinazione;
+            this.confini = confini;
+            this.primo = primo;
+            this.ultimo = ultimo;
+        }
+        
+        @Override
+        protected void compute() {
+            if (ultimo - primo < 2) {
+                return;
+            }
+            
+            // Se la dimensione dell'intervallo è abbastanza piccola, fonde in modo sequenziale
+            if (confini[ultimo] - confini[primo] <= CutoffCalibration.soglia(Soglia.MERGESORT_INT)) {
+                fondiRun(sorgente, destinazione, confini, primo, ultimo);
+                return;
+            }
+            
+            int medio = runCentrale(confini, primo, ultimo);
+            invokeAll(new TaskFondiRun(destinazione, sorgente, confini, primo, medio),
+                    new TaskFondiRun(destinazione, sorgente, confini, medio, ultimo));
+            
+            int inizio = confini[primo];
+            int centro = confini[medio];
+            int fine = confini[ultimo];
+            if (sorgente[centro - 1] <= sorgente[centro]) {
+                System.arraycopy(sorgente, inizio, destinazione, inizio, fine - inizio);
+            } else {
+                new TaskFondiParallelo(sorgente, destinazione, inizio, centro - 1, centro, fine - 1, inizio).invoke();
+            }
+        }
+    }
+    
+    /**
+     * Versione sequenziale della fusione bilanciata delle run [primo, ultimo)
+     */
+    private static void fondiRun(int[] sorgente, int[] destinazione, int[] confini, int primo, int ultimo) {
+        if (ultimo - primo < 2) {
+            return;
+        }
+        
+        int medio = runCentrale(confini, primo, ultimo);
+        fondiRun(destinazione, sorgente, confini, primo, medio);
+        fondiRun(destinazione, sorgente, confini, medio, ultimo);
+        
+        int inizio = confini[primo];
+        int centro = confini[medio];
+        int fine = confini[ultimo];
+        if (sorgente[centro - 1] <= sorgente[centro]) {
+            System.arraycopy(sorgente, inizio, destinazione, inizio, fine - inizio);
+        } else {
+            fondi(sorgente, inizio, centro - 1, centro, fine - 1, destinazione, inizio);
+        }
+    }
+    
+    /**
+     * Indice della run, in (primo, ultimo), il cui inizio è più vicino al centro degli elementi
+     */
+    private static int runCentrale(int[] confini, int primo, int ultimo) {
+        int centro = (confini[primo] + confini[ultimo]) >>> 1;
+        int basso = primo + 1;
+        int alto = ultimo - 1;
+        
+        // Primo confine maggiore o uguale al centro
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (confini[medio] < centro) {
+                basso = medio + 1;
             } else {
-                array[k++] = temp[j++];
+                alto = medio;
+            }
+        }
+        
+        if (basso > primo + 1 && centro - confini[basso - 1] < confini[basso] - centro) {
+            basso--;
+        }
+        return basso;
+    }
+    
+    /**
+     * Avvia il processo di SampleSort parallelo (Parallel Sorting by Regular Sampling).
+     *
+     * Pensato per array molto grandi: il numero di task e di passaggi sulla memoria dipende
+     * dal numero di core e non dalla dimensione dell'array. Ogni blocco contiguo viene
+     * ordinato localmente, i separatori vengono scelti da campioni regolari dei blocchi
+     * ordinati, i segmenti vengono spostati nei rispettivi bucket con offset calcolati per
+     * somma prefissa e infine ogni bucket fonde indipendentemente i propri segmenti.
+     */
+    public static void sampleSortParallelo(int[] array) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int numBlocchi = pool.getParallelism();
+        int n = array.length;
+        
+        // Con un solo core o pochi elementi la suddivisione in blocchi non conviene
+        if (numBlocchi < 2 || n < numBlocchi * TaskSampleSortParallelo.DIMENSIONE_MINIMA_BLOCCO) {
+            quickSortParallelo(array);
+            return;
+        }
+        
+        int[] inizioBlocco = new int[numBlocchi + 1];
+        for (int b = 0; b <= numBlocchi; b++) {
+            inizioBlocco[b] = (int) ((long) b * n / numBlocchi);
+        }
+        
+        // Fase 1: ordinamento locale di ogni blocco
+        TaskSampleSortParallelo stato = new TaskSampleSortParallelo(array, new int[n], inizioBlocco);
+        stato.esegui(pool, TaskSampleSortParallelo.FASE_ORDINAMENTO_LOCALE);
+        
+        // Fase 2: campioni regolari (numBlocchi per blocco) e scelta dei separatori
+        int[] campioni = new int[numBlocchi * numBlocchi];
+        for (int b = 0; b < numBlocchi; b++) {
+            int lunghezza = inizioBlocco[b + 1] - inizioBlocco[b];
+            for (int c = 0; c < numBlocchi; c++) {
+                campioni[b * numBlocchi + c] = array[inizioBlocco[b] + (int) ((long) c * lunghezza / numBlocchi)];
             }
         }
+        SortingAlgorithms.quickSort(campioni, 0, campioni.length - 1);
         
-        // Copia gli elementi rimanenti del sottoarray sinistro
-        while (i <= medio) {
-            array[k++] = temp[i++];
+        int[] separatori = new int[numBlocchi - 1];
+        for (int s = 0; s < separatori.length; s++) {
+            separatori[s] = campioni[(s + 1) * numBlocchi + numBlocchi / 2 - 1];
         }
+        stato.separatori = separatori;
         
-        // Nota: Non è necessario copiare gli elementi rimanenti dal sottoarray destro
-        // perché sono già nelle loro posizioni corrette
+        // Fase 3: ogni blocco individua i confini dei propri segmenti
+        stato.esegui(pool, TaskSampleSortParallelo.FASE_CONFINI);
+        
+        // Fase 4: somma prefissa delle dimensioni dei segmenti, per bucket e poi per blocco
+        int[][] confini = stato.confini;
+        int[][] offset = new int[numBlocchi][numBlocchi];
+        int[] inizioBucket = new int[numBlocchi + 1];
+        int somma = 0;
+        for (int bucket = 0; bucket < numBlocchi; bucket++) {
+            inizioBucket[bucket] = somma;
+            for (int b = 0; b < numBlocchi; b++) {
+                offset[b][bucket] = somma;
+                somma += confini[b][bucket + 1] - confini[b][bucket];
+            }
+        }
+        inizioBucket[numBlocchi] = somma;
+        stato.offset = offset;
+        stato.inizioBucket = inizioBucket;
+        
+        // Fase 5: scambio dei segmenti nel buffer di appoggio e fusione indipendente dei bucket
+        stato.esegui(pool, TaskSampleSortParallelo.FASE_SCAMBIO);
+        stato.esegui(pool, TaskSampleSortParallelo.FASE_FUSIONE);
+    }
+    
+    /**
+     * Implementazione RecursiveAction per le fasi di SampleSort parallelo.
+     *
+     * Ogni fase crea un task foglia per blocco (o per bucket, che sono altrettanti): lo stato
+     * condiviso tra le fasi vive nell'istanza radice creata da sampleSortParallelo.
+     */
+    static class TaskSampleSortParallelo extends RecursiveAction {
+        static final int DIMENSIONE_MINIMA_BLOCCO = 1 << 16;
+        static final int FASE_ORDINAMENTO_LOCALE = 0;
+        static final int FASE_CONFINI = 1;
+        static final int FASE_SCAMBIO = 2;
+        static final int FASE_FUSIONE = 3;
+        
+        private final int[] array;
+        private final int[] temp;
+        private final int[] inizioBlocco;
+        private final TaskSampleSortParallelo radice;
+        private final int fase;
+        private final int primo;
+        private final int ultimo;
+        
+        // Stato condiviso, valorizzato solo nell'istanza radice
+        int[] separatori;
+        int[][] confini;
+        int[][] offset;
+        int[] inizioBucket;
+        
+        TaskSampleSortParallelo(int[] array, int[] temp, int[] inizioBlocco) {
+            this(array, temp, inizioBlocco, null, -1, 0, inizioBlocco.length - 1);
+            this.confini = new int[inizioBlocco.length - 1][];
+        }
+        
+        private TaskSampleSortParallelo(int[] array, int[] temp, int[] inizioBlocco, TaskSampleSortParallelo radice,
+                int fase, int primo, int ultimo) {
+            this.array = array;
+            this.temp = temp;
+            this.inizioBlocco = inizioBlocco;
+            this.radice = radice;
+            this.fase = fase;
+            this.primo = primo;
+            this.ultimo = ultimo;
+        }
+        
+        /**
+         * Esegue una fase su tutti i blocchi e attende il completamento
+         */
+        void esegui(ForkJoinPool pool, int fase) {
+            pool.invoke(new TaskSampleSortParallelo(array, temp, inizioBlocco, this, fase, primo, ultimo));
+        }
+        
+        @Override
+        protected void compute() {
+            if (ultimo - primo > 1) {
+                int medio = (primo + ultimo) >>> 1;
+                invokeAll(new TaskSampleSortParallelo(array, temp, inizioBlocco, radice, fase, primo, medio),
+                        new TaskSampleSortParallelo(array, temp, inizioBlocco, radice, fase, medio, ultimo));
+                return;
+            }
+            
+            switch (fase) {
+                case FASE_ORDINAMENTO_LOCALE:
+                    SortingAlgorithms.quickSort(array, inizioBlocco[primo], inizioBlocco[primo + 1] - 1);
+                    break;
+                case FASE_CONFINI:
+                    calcolaConfini(primo);
+                    break;
+                case FASE_SCAMBIO:
+                    scambiaSegmenti(primo);
+                    break;
+                default:
+                    fondiBucket(primo);
+                    break;
+            }
+        }
+        
+        /**
+         * Posizioni in cui il blocco ordinato va tagliato per ciascun bucket.
+         *
+         * Quando più separatori consecutivi coincidono, le chiavi uguali finiscono tutte in un
+         * unico bucket che non richiede fusione: così i duplicati massicci non sbilanciano il lavoro.
+         */
+        private void calcolaConfini(int blocco) {
+            int[] separatori = radice.separatori;
+            int numBucket = separatori.length + 1;
+            int inizio = inizioBlocco[blocco];
+            int fine = inizioBlocco[blocco + 1] - 1;
+            
+            int[] confiniBlocco = new int[numBucket + 1];
+            confiniBlocco[0] = inizio;
+            for (int s = 0; s < separatori.length; s++) {
+                boolean seguitoDaUguale = s + 1 < separatori.length && separatori[s + 1] == separatori[s];
+                confiniBlocco[s + 1] = seguitoDaUguale
+                        ? primoMaggioreOUguale(array, inizio, fine, separatori[s])
+                        : primoMaggiore(array, inizio, fine, separatori[s]);
+            }
+            confiniBlocco[numBucket] = fine + 1;
+            radice.confini[blocco] = confiniBlocco;
+        }
+        
+        private void scambiaSegmenti(int blocco) {
+            int[] confiniBlocco = radice.confini[blocco];
+            int[] offsetBlocco = radice.offset[blocco];
+            for (int bucket = 0; bucket < offsetBlocco.length; bucket++) {
+                System.arraycopy(array, confiniBlocco[bucket], temp, offsetBlocco[bucket],
+                        confiniBlocco[bucket + 1] - confiniBlocco[bucket]);
+            }
+        }
+        
+        private void fondiBucket(int bucket) {
+            int[][] offset = radice.offset;
+            int[] separatori = radice.separatori;
+            int numBlocchi = offset.length;
+            int inizio = radice.inizioBucket[bucket];
+            int fine = radice.inizioBucket[bucket + 1];
+            
+            // Bucket di sole chiavi uguali: i segmenti sono già in ordine
+            if (bucket > 0 && bucket < separatori.length && separatori[bucket - 1] == separatori[bucket]) {
+                System.arraycopy(temp, inizio, array, inizio, fine - inizio);
+                return;
+            }
+            
+            int[] inizi = new int[numBlocchi];
+            int[] fini = new int[numBlocchi];
+            for (int b = 0; b < numBlocchi; b++) {
+                inizi[b] = offset[b][bucket];
+                fini[b] = b + 1 < numBlocchi ? offset[b + 1][bucket] : fine;
+            }
+            fondiKVie(temp, inizi, fini, array, inizio);
+        }
+    }
+    
+    /**
+     * Fonde k sottoarray ordinati [inizi[r], fini[r]) di sorgente in destinazione a partire da
+     * inizioDestinazione, usando un min-heap di indici di sottoarray. Modifica inizi.
+     */
+    private static void fondiKVie(int[] sorgente, int[] inizi, int[] fini, int[] destinazione, int inizioDestinazione) {
+        int[] heap = new int[inizi.length];
+        int dimensione = 0;
+        for (int r = 0; r < inizi.length; r++) {
+            if (inizi[r] < fini[r]) {
+                heap[dimensione++] = r;
+            }
+        }
+        for (int i = dimensione / 2 - 1; i >= 0; i--) {
+            setacciaGiu(heap, dimensione, i, sorgente, inizi);
+        }
+        
+        int k = inizioDestinazione;
+        while (dimensione > 1) {
+            int r = heap[0];
+            destinazione[k++] = sorgente[inizi[r]++];
+            if (inizi[r] == fini[r]) {
+                heap[0] = heap[--dimensione];
+            }
+            setacciaGiu(heap, dimensione, 0, sorgente, inizi);
+        }
+        
+        // L'ultimo sottoarray rimasto si copia direttamente
+        if (dimensione == 1) {
+            int r = heap[0];
+            System.arraycopy(sorgente, inizi[r], destinazione, k, fini[r] - inizi[r]);
+        }
+    }
+    
+    /**
+     * Ripristina la proprietà di min-heap (sul valore in testa a ogni sottoarray) a partire dal nodo indicato
+     */
+    private static void setacciaGiu(int[] heap, int dimensione, int nodo, int[] sorgente, int[] inizi) {
+        int r = heap[nodo];
+        int valore = sorgente[inizi[r]];
+        int figlio;
+        while ((figlio = 2 * nodo + 1) < dimensione) {
+            if (figlio + 1 < dimensione && sorgente[inizi[heap[figlio + 1]]] < sorgente[inizi[heap[figlio]]]) {
+                figlio++;
+            }
+            if (sorgente[inizi[heap[figlio]]] >= valore) {
+                break;
+            }
+            heap[nodo] = heap[figlio];
+            nodo = figlio;
+        }
+        heap[nodo] = r;
+    }
+    
+    /**
+     * Avvia il processo di RadixSort LSD parallelo.
+     *
+     * L'array viene suddiviso in blocchi: ogni blocco calcola il proprio istogramma delle cifre,
+     * le somme prefisse degli istogrammi danno a ogni blocco la sua zona di scrittura e la
+     * distribuzione avviene alternando l'array originale e un unico buffer di appoggio.
+     * Le cifre costanti su tutto l'array vengono saltate.
+     */
+    public static void radixSortParallelo(int[] array) {
+        int n = array.length;
+        if (n < 2) {
+            return;
+        }
+        
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int numBlocchi = Math.max(1, Math.min(pool.getParallelism() * 4,
+                n / TaskRadixSortParallelo.DIMENSIONE_MINIMA_BLOCCO));
+        int[][] conteggi = new int[numBlocchi][];
+        
+        // Primo passaggio: istogrammi di tutte le cifre, per scoprire quali sono costanti
+        pool.invoke(new TaskRadixSortParallelo(array, null, conteggi, TaskRadixSortParallelo.TUTTE_LE_CIFRE,
+                TaskRadixSortParallelo.FASE_ISTOGRAMMA, 0, numBlocchi));
+        
+        int[] sorgente = array;
+        int[] destinazione = null;
+        boolean primoPassaggio = true;
+        
+        for (int cifra = 0; cifra < TaskRadixSortParallelo.NUM_CIFRE; cifra++) {
+            if (èCifraCostante(conteggi, cifra, n)) {
+                continue;
+            }
+            
+            if (destinazione == null) {
+                destinazione = new int[n];
+            }
+            
+            // Al primo passaggio l'array è ancora nell'ordine originale e gli istogrammi sono già pronti
+            if (!primoPassaggio) {
+                pool.invoke(new TaskRadixSortParallelo(sorgente, null, conteggi, cifra,
+                        TaskRadixSortParallelo.FASE_ISTOGRAMMA, 0, numBlocchi));
+            }
+            
+            calcolaOffset(conteggi, cifra);
+            pool.invoke(new TaskRadixSortParallelo(sorgente, destinazione, conteggi, cifra,
+                    TaskRadixSortParallelo.FASE_DISTRIBUZIONE, 0, numBlocchi));
+            
+            // Scambia sorgente e destinazione per il passaggio successivo
+            int[] temp = sorgente;
+            sorgente = destinazione;
+            destinazione = temp;
+            primoPassaggio = false;
+        }
+        
+        // Dopo un numero dispari di passaggi il risultato si trova nel buffer di appoggio
+        if (sorgente != array) {
+            System.arraycopy(sorgente, 0, array, 0, n);
+        }
+    }
+    
+    /**
+     * Verifica se tutti gli elementi hanno lo stesso valore per la cifra indicata
+     */
+    private static boolean èCifraCostante(int[][] conteggi, int cifra, int n) {
+        int base = TaskRadixSortParallelo.offsetIstogramma(cifra);
+        for (int bucket = 0; bucket < TaskRadixSortParallelo.NUM_BUCKET; bucket++) {
+            long totale = 0;
+            for (int[] conteggiBlocco : conteggi) {
+                totale += conteggiBlocco[base + bucket];
+            }
+            if (totale != 0) {
+                return totale == n;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Trasforma gli istogrammi dei blocchi per la cifra indicata nelle posizioni di scrittura
+     * (somma prefissa in ordine di bucket e, a parità di bucket, in ordine di blocco)
+     */
+    private static void calcolaOffset(int[][] conteggi, int cifra) {
+        int base = TaskRadixSortParallelo.offsetIstogramma(cifra);
+        int somma = 0;
+        for (int bucket = 0; bucket < TaskRadixSortParallelo.NUM_BUCKET; bucket++) {
+            for (int[] conteggiBlocco : conteggi) {
+                int conteggio = conteggiBlocco[base + bucket];
+                conteggiBlocco[base + bucket] = somma;
+                somma += conteggio;
+            }
+        }
+    }
+    
+    /**
+     * Implementazione RecursiveAction per le fasi di RadixSort parallelo.
+     *
+     * Ogni task foglia elabora un blocco contiguo dell'array: nella fase di istogramma conta
+     * le cifre del blocco, nella fase di distribuzione sposta gli elementi nelle posizioni
+     * calcolate dalla somma prefissa.
+     */
+    static class TaskRadixSortParallelo extends RecursiveAction {
+        static final int BIT_CIFRA = 8;
+        static final int NUM_BUCKET = 1 << BIT_CIFRA;
+        static final int NUM_CIFRE = Integer.SIZE / BIT_CIFRA;
+        static final int DIMENSIONE_MINIMA_BLOCCO = 1 << 14;
+        static final int TUTTE_LE_CIFRE = -1;
+        static final int FASE_ISTOGRAMMA = 0;
+        static final int FASE_DISTRIBUZIONE = 1;
+        
+        private final int[] sorgente;
+        private final int[] destinazione;
+        private final int[][] conteggi;
+        private final int cifra;
+        private final int fase;
+        private final int primoBlocco;
+        private final int ultimoBlocco;
+        
+        TaskRadixSortParallelo(int[] sorgente, int[] destinazione, int[][] conteggi, int cifra,
+                int fase, int primoBlocco, int ultimoBlocco) {
+            this.sorgente = sorgente;
+            this.destinazione = destinazione;
+            this.conteggi = conteggi;
+            this.cifra = cifra;
+            this.fase = fase;
+            this.primoBlocco = primoBlocco;
+            this.ultimoBlocco = ultimoBlocco;
+        }
+        
+        /**
+         * Posizione dell'istogramma di una cifra all'interno dell'array dei conteggi di un blocco
+         */
+        static int offsetIstogramma(int cifra) {
+            return cifra * NUM_BUCKET;
+        }
+        
+        /**
+         * Estrae la cifra indicata; il bit di segno viene invertito così che i negativi precedano i positivi
+         */
+        static int estraiCifra(int valore, int cifra) {
+            return ((valore ^ Integer.MIN_VALUE) >>> (cifra * BIT_CIFRA)) & (NUM_BUCKET - 1);
+        }
+        
+        @Override
+        protected void compute() {
+            // Divide l'intervallo di blocchi finché non resta un solo blocco
+            if (ultimoBlocco - primoBlocco > 1) {
+                int medio = (primoBlocco + ultimoBlocco) >>> 1;
+                invokeAll(new TaskRadixSortParallelo(sorgente, destinazione, conteggi, cifra, fase, primoBlocco, medio),
+                        new TaskRadixSortParallelo(sorgente, destinazione, conteggi, cifra, fase, medio, ultimoBlocco));
+                return;
+            }
+            
+            int n = sorgente.length;
+            int numBlocchi = conteggi.length;
+            int inizio = (int) ((long) primoBlocco * n / numBlocchi);
+            int fine = (int) ((long) (primoBlocco + 1) * n / numBlocchi);
+            
+            if (fase == FASE_ISTOGRAMMA) {
+                contaCifre(inizio, fine);
+            } else {
+                distribuisci(inizio, fine);
+            }
+        }
+        
+        private void contaCifre(int inizio, int fine) {
+            if (cifra == TUTTE_LE_CIFRE) {
+                int[] istogramma = new int[NUM_CIFRE * NUM_BUCKET];
+                for (int i = inizio; i < fine; i++) {
+                    int chiave = sorgente[i] ^ Integer.MIN_VALUE;
+                    for (int c = 0; c < NUM_CIFRE; c++) {
+                        istogramma[c * NUM_BUCKET + ((chiave >>> (c * BIT_CIFRA)) & (NUM_BUCKET - 1))]++;
+                    }
+                }
+                conteggi[primoBlocco] = istogramma;
+            } else {
+                int[] istogramma = conteggi[primoBlocco];
+                int base = offsetIstogramma(cifra);
+                Arrays.fill(istogramma, base, base + NUM_BUCKET, 0);
+                for (int i = inizio; i < fine; i++) {
+                    istogramma[base + estraiCifra(sorgente[i], cifra)]++;
+                }
+            }
+        }
+        
+        private void distribuisci(int inizio, int fine) {
+            int[] offset = conteggi[primoBlocco];
+            int base = offsetIstogramma(cifra);
+            for (int i = inizio; i < fine; i++) {
+                int valore = sorgente[i];
+                destinazione[offset[base + estraiCifra(valore, cifra)]++] = valore;
+            }
+        }
+    }
+    
+    /**
+     * Avvia il processo di MergeSort parallelo su un array di long
+     */
+    public static void mergeSortParallelo(long[] array) {
+        ordinaChiaviLong(array, null);
+    }
+    
+    /**
+     * Avvia il processo di MergeSort parallelo su un array di double.
+     *
+     * L'ordine è quello di Double.compare: -0.0 precede 0.0 e i NaN, normalizzati, vanno in fondo.
+     */
+    public static void mergeSortParallelo(double[] array) {
+        long[] chiavi = new long[array.length];
+        cicloParallelo(array.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                chiavi[i] = chiaveOrdinabile(array[i]);
+            }
+        });
+        
+        ordinaChiaviLong(chiavi, null);
+        
+        cicloParallelo(array.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                array[i] = valoreDaChiave(chiavi[i]);
+            }
+        });
+    }
+    
+    /**
+     * Ordina le chiavi portando con sé il payload: payload[i] segue chiavi[i].
+     * L'ordinamento è stabile: a parità di chiave i payload mantengono l'ordine originale.
+     */
+    public static void mergeSortParallelo(int[] chiavi, int[] payload) {
+        verificaLunghezze(chiavi.length, payload.length);
+        
+        // Chiave e indice originale in un unico long: l'ordine dei long è quello delle chiavi,
+        // a parità di chiave quello degli indici
+        long[] coppie = new long[chiavi.length];
+        cicloParallelo(chiavi.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                coppie[i] = ((long) chiavi[i] << 32) | i;
+            }
+        });
+        
+        ordinaChiaviLong(coppie, null);
+        
+        int[] payloadOriginale = Arrays.copyOf(payload, payload.length);
+        cicloParallelo(chiavi.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                chiavi[i] = (int) (coppie[i] >> 32);
+                payload[i] = payloadOriginale[(int) coppie[i]];
+            }
+        });
+    }
+    
+    /**
+     * Ordina le chiavi portando con sé il payload: payload[i] segue chiavi[i].
+     * L'ordinamento è stabile: a parità di chiave i payload mantengono l'ordine originale.
+     */
+    public static void mergeSortParallelo(long[] chiavi, int[] payload) {
+        verificaLunghezze(chiavi.length, payload.length);
+        ordinaChiaviLong(chiavi, payload);
+    }
+    
+    /**
+     * Ordina le chiavi portando con sé il payload, con lo stesso ordine di mergeSortParallelo(double[]).
+     * L'ordinamento è stabile.
+     */
+    public static void mergeSortParallelo(double[] chiavi, int[] payload) {
+        verificaLunghezze(chiavi.length, payload.length);
+        long[] chiaviLong = new long[chiavi.length];
+        cicloParallelo(chiavi.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                chiaviLong[i] = chiaveOrdinabile(chiavi[i]);
+            }
+        });
+        
+        ordinaChiaviLong(chiaviLong, payload);
+        
+        cicloParallelo(chiavi.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                chiavi[i] = valoreDaChiave(chiaviLong[i]);
+            }
+        });
+    }
+    
+    /**
+     * Restituisce la permutazione che ordina l'array (stabile), senza modificarlo:
+     * array[permutazione[0]] è il minimo.
+     */
+    public static int[] argSortParallelo(int[] array) {
+        int[] permutazione = new int[array.length];
+        mergeSortParallelo(Arrays.copyOf(array, array.length), identita(permutazione));
+        return permutazione;
+    }
+    
+    /**
+     * Restituisce la permutazione che ordina l'array (stabile), senza modificarlo
+     */
+    public static int[] argSortParallelo(long[] array) {
+        int[] permutazione = new int[array.length];
+        ordinaChiaviLong(Arrays.copyOf(array, array.length), identita(permutazione));
+        return permutazione;
+    }
+    
+    /**
+     * Restituisce la permutazione che ordina l'array (stabile), senza modificarlo
+     */
+    public static int[] argSortParallelo(double[] array) {
+        long[] chiavi = new long[array.length];
+        cicloParallelo(array.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                chiavi[i] = chiaveOrdinabile(array[i]);
+            }
+        });
+        
+        int[] permutazione = new int[array.length];
+        ordinaChiaviLong(chiavi, identita(permutazione));
+        return permutazione;
+    }
+    
+    /**
+     * Trasforma un double in un long il cui ordine con segno coincide con quello di Double.compare
+     */
+    static long chiaveOrdinabile(double valore) {
+        long bit = Double.doubleToLongBits(valore);
+        return bit ^ ((bit >> 63) & Long.MAX_VALUE);
+    }
+    
+    /**
+     * Inversa di chiaveOrdinabile
+     */
+    static double valoreDaChiave(long chiave) {
+        return Double.longBitsToDouble(chiave ^ ((chiave >> 63) & Long.MAX_VALUE));
+    }
+    
+    private static void verificaLunghezze(int lunghezzaChiavi, int lunghezzaPayload) {
+        if (lunghezzaChiavi != lunghezzaPayload) {
+            throw new IllegalArgumentException("Chiavi e payload devono avere la stessa lunghezza");
+        }
+    }
+    
+    /**
+     * Riempie l'array con la permutazione identità e lo restituisce
+     */
+    private static int[] identita(int[] array) {
+        cicloParallelo(array.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                array[i] = i;
+            }
+        });
+        return array;
+    }
+    
+    /**
+     * MergeSort parallelo stabile su chiavi long con payload opzionale (può essere null)
+     */
+    private static void ordinaChiaviLong(long[] chiavi, int[] payload) {
+        long[] tempChiavi = Arrays.copyOf(chiavi, chiavi.length);
+        int[] tempPayload = payload == null ? null : Arrays.copyOf(payload, payload.length);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        pool.invoke(new TaskMergeSortParalleloLong(tempChiavi, tempPayload, chiavi, payload, 0, chiavi.length - 1));
+    }
+    
+    /**
+     * Implementazione RecursiveAction per MergeSort parallelo su chiavi long.
+     *
+     * Stessa struttura di TaskMergeSortParallelo (buffer alternati e fusione parallela);
+     * il payload, se presente, viene spostato insieme alle chiavi.
+     */
+    static class TaskMergeSortParalleloLong extends RecursiveAction {
+        private final long[] sorgente;
+        private final int[] payloadSorgente;
+        private final long[] destinazione;
+        private final int[] payloadDestinazione;
+        private final int inizio;
+        private final int fine;
+        
+        TaskMergeSortParalleloLong(long[] sorgente, int[] payloadSorgente, long[] destinazione,
+                int[] payloadDestinazione, int inizio, int fine) {
+            this.sorgente = sorgente;
+            this.payloadSorgente = payloadSorgente;
+            this.destinazione = destinazione;
+            this.payloadDestinazione = payloadDestinazione;
+            this.inizio = inizio;
+            this.fine = fine;
+        }
+        
+        @Override
+        protected void compute() {
+            if (fine - inizio < CutoffCalibration.soglia(Soglia.MERGESORT_LONG)) {
+                mergeSort(sorgente, payloadSorgente, destinazione, payloadDestinazione, inizio, fine);
+                return;
+            }
+            
+            int medio = inizio + (fine - inizio) / 2;
+            invokeAll(new TaskMergeSortParalleloLong(destinazione, payloadDestinazione, sorgente, payloadSorgente,
+                            inizio, medio),
+                    new TaskMergeSortParalleloLong(destinazione, payloadDestinazione, sorgente, payloadSorgente,
+                            medio + 1, fine));
+            
+            if (sorgente[medio] <= sorgente[medio + 1]) {
+                copia(sorgente, payloadSorgente, inizio, destinazione, payloadDestinazione, inizio, fine - inizio + 1);
+            } else {
+                new TaskFondiParalleloLong(sorgente, payloadSorgente, destinazione, payloadDestinazione,
+                        inizio, medio, medio + 1, fine, inizio).invoke();
+            }
+        }
+    }
+    
+    /**
+     * Implementazione RecursiveAction per la fusione parallela di due sottoarray ordinati di long
+     */
+    static class TaskFondiParalleloLong extends RecursiveAction {
+        private final long[] sorgente;
+        private final int[] payloadSorgente;
+        private final long[] destinazione;
+        private final int[] payloadDestinazione;
+        private final int inizio1;
+        private final int fine1;
+        private final int inizio2;
+        private final int fine2;
+        private final int inizioDestinazione;
+        
+        TaskFondiParalleloLong(long[] sorgente, int[] payloadSorgente, long[] destinazione, int[] payloadDestinazione,
+                int inizio1, int fine1, int inizio2, int fine2, int inizioDestinazione) {
+            this.sorgente = sorgente;
+            this.payloadSorgente = payloadSorgente;
+            this.destinazione = destinazione;
+            this.payloadDestinazione = payloadDestinazione;
+            this.inizio1 = inizio1;
+            this.fine1 = fine1;
+            this.inizio2 = inizio2;
+            this.fine2 = fine2;
+            this.inizioDestinazione = inizioDestinazione;
+        }
+        
+        @Override
+        protected void compute() {
+            int lunghezza1 = fine1 - inizio1 + 1;
+            int lunghezza2 = fine2 - inizio2 + 1;
+            
+            if (lunghezza1 + lunghezza2 <= CutoffCalibration.soglia(Soglia.FUSIONE_LONG)) {
+                fondi(sorgente, payloadSorgente, inizio1, fine1, inizio2, fine2,
+                        destinazione, payloadDestinazione, inizioDestinazione);
+                return;
+            }
+            
+            int medio1;
+            int medio2;
+            if (lunghezza1 >= lunghezza2) {
+                medio1 = (inizio1 + fine1 + 1) >>> 1;
+                medio2 = primoMaggioreOUguale(sorgente, inizio2, fine2, sorgente[medio1]);
+            } else {
+                medio2 = (inizio2 + fine2 + 1) >>> 1;
+                medio1 = primoMaggiore(sorgente, inizio1, fine1, sorgente[medio2]);
+            }
+            
+            int medioDestinazione = inizioDestinazione + (medio1 - inizio1) + (medio2 - inizio2);
+            
+            invokeAll(new TaskFondiParalleloLong(sorgente, payloadSorgente, destinazione, payloadDestinazione,
+                            inizio1, medio1 - 1, inizio2, medio2 - 1, inizioDestinazione),
+                    new TaskFondiParalleloLong(sorgente, payloadSorgente, destinazione, payloadDestinazione,
+                            medio1, fine1, medio2, fine2, medioDestinazione));
+        }
+    }
+    
+    /**
+     * Implementazione sequenziale di MergeSort su chiavi long con buffer alternati
+     */
+    static void mergeSort(long[] sorgente, int[] payloadSorgente, long[] destinazione,
+            int[] payloadDestinazione, int inizio, int fine) {
+        if (fine - inizio < SortingAlgorithms.SOGLIA_INSERTION_SORT) {
+            insertionSort(destinazione, payloadDestinazione, inizio, fine);
+            return;
+        }
+        
+        int medio = inizio + (fine - inizio) / 2;
+        mergeSort(destinazione, payloadDestinazione, sorgente, payloadSorgente, inizio, medio);
+        mergeSort(destinazione, payloadDestinazione, sorgente, payloadSorgente, medio + 1, fine);
+        
+        if (sorgente[medio] <= sorgente[medio + 1]) {
+            copia(sorgente, payloadSorgente, inizio, destinazione, payloadDestinazione, inizio, fine - inizio + 1);
+        } else {
+            fondi(sorgente, payloadSorgente, inizio, medio, medio + 1, fine, destinazione, payloadDestinazione, inizio);
+        }
+    }
+    
+    /**
+     * InsertionSort stabile su chiavi long, con payload opzionale
+     */
+    private static void insertionSort(long[] chiavi, int[] payload, int inizio, int fine) {
+        for (int i = inizio + 1; i <= fine; i++) {
+            long chiave = chiavi[i];
+            int j = i - 1;
+            if (payload == null) {
+                while (j >= inizio && chiavi[j] > chiave) {
+                    chiavi[j + 1] = chiavi[j];
+                    j--;
+                }
+            } else {
+                int valorePayload = payload[i];
+                while (j >= inizio && chiavi[j] > chiave) {
+                    chiavi[j + 1] = chiavi[j];
+                    payload[j + 1] = payload[j];
+                    j--;
+                }
+                payload[j + 1] = valorePayload;
+            }
+            chiavi[j + 1] = chiave;
+        }
+    }
+    
+    /**
+     * Fonde due sottoarray ordinati di chiavi long (e dei rispettivi payload, se presenti)
+     */
+    static void fondi(long[] sorgente, int[] payloadSorgente, int inizio1, int fine1, int inizio2, int fine2,
+            long[] destinazione, int[] payloadDestinazione, int inizioDestinazione) {
+        int i = inizio1;
+        int j = inizio2;
+        int k = inizioDestinazione;
+        
+        // Il controllo sul payload è fatto una volta sola, fuori dal ciclo
+        if (payloadSorgente == null) {
+            while (i <= fine1 && j <= fine2) {
+                destinazione[k++] = sorgente[i] <= sorgente[j] ? sorgente[i++] : sorgente[j++];
+            }
+        } else {
+            while (i <= fine1 && j <= fine2) {
+                if (sorgente[i] <= sorgente[j]) {
+                    payloadDestinazione[k] = payloadSorgente[i];
+                    destinazione[k++] = sorgente[i++];
+                } else {
+                    payloadDestinazione[k] = payloadSorgente[j];
+                    destinazione[k++] = sorgente[j++];
+                }
+            }
+        }
+        
+        if (i <= fine1) {
+            copia(sorgente, payloadSorgente, i, destinazione, payloadDestinazione, k, fine1 - i + 1);
+        } else if (j <= fine2) {
+            copia(sorgente, payloadSorgente, j, destinazione, payloadDestinazione, k, fine2 - j + 1);
+        }
+    }
+    
+    private static void copia(long[] sorgente, int[] payloadSorgente, int inizioSorgente,
+            long[] destinazione, int[] payloadDestinazione, int inizioDestinazione, int lunghezza) {
+        System.arraycopy(sorgente, inizioSorgente, destinazione, inizioDestinazione, lunghezza);
+        if (payloadSorgente != null) {
+            System.arraycopy(payloadSorgente, inizioSorgente, payloadDestinazione, inizioDestinazione, lunghezza);
+        }
+    }
+    
+    private static int primoMaggioreOUguale(long[] array, int inizio, int fine, long valore) {
+        int basso = inizio;
+        int alto = fine + 1;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (array[medio] < valore) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return basso;
+    }
+    
+    private static int primoMaggiore(long[] array, int inizio, int fine, long valore) {
+        int basso = inizio;
+        int alto = fine + 1;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (array[medio] <= valore) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return basso;
+    }
+    
+    /**
+     * Corpo di un ciclo parallelo, eseguito su un intervallo [inizio, fine) di indici
+     */
+    public interface CorpoCiclo {
+        void esegui(int inizio, int fine);
+    }
+    
+    /**
+     * Esegue il corpo sugli indici [0, n) suddividendoli tra i thread del pool comune
+     */
+    public static void cicloParallelo(int n, CorpoCiclo corpo) {
+        cicloParallelo(n, TaskCicloParallelo.SOGLIA_SEQUENZIALE, corpo);
+    }
+    
+    /**
+     * Come {@link #cicloParallelo(int, CorpoCiclo)}, con intervalli sequenziali di al più grana indici
+     */
+    public static void cicloParallelo(int n, int grana, CorpoCiclo corpo) {
+        ForkJoinPool.commonPool().invoke(new TaskCicloParallelo(corpo, 0, n, Math.max(1, grana)));
+    }
+    
+    /**
+     * Implementazione RecursiveAction per un ciclo parallelo a intervalli
+     */
+    static class TaskCicloParallelo extends RecursiveAction {
+        private static final int SOGLIA_SEQUENZIALE = 1 << 14;
+        private final CorpoCiclo corpo;
+        private final int inizio;
+        private final int fine;
+        private final int grana;
+        
+        TaskCicloParallelo(CorpoCiclo corpo, int inizio, int fine, int grana) {
+            this.corpo = corpo;
+            this.inizio = inizio;
+            this.fine = fine;
+            this.grana = grana;
+        }
+        
+        @Override
+        protected void compute() {
+            if (fine - inizio <= grana) {
+                corpo.esegui(inizio, fine);
+                return;
+            }
+            
+            int medio = (inizio + fine) >>> 1;
+            invokeAll(new TaskCicloParallelo(corpo, inizio, medio, grana),
+                    new TaskCicloParallelo(corpo, medio, fine, grana));
+        }
     }
 }
\ No newline at end of file
@@ -16,6 +16,9 @@ import java.util.Random;
 public class SortingAlgorithms {
     private static final Random random = new Random();
     
+    /** Sotto questa dimensione gli intervalli vengono ordinati con InsertionSort */
+    static final int SOGLIA_INSERTION_SORT = 32;
+    
     public static void main(String[] args) {
         System.out.println("Dimostrazione Algoritmi di Ordinamento");
         
@@ -56,39 +59,378 @@ public class SortingAlgorithms {
     }
     
     /**
-     * Implementazione sequenziale dell'algoritmo QuickSort
+     * Implementazione sequenziale dell'algoritmo QuickSort.
+     *
+     * Si tratta di un introsort: partizionamento a doppio pivot con gestione a tre vie delle
+     * chiavi uguali, HeapSort quando la ricorsione supera il limite di profondità e
+     * InsertionSort sugli intervalli piccoli. Il caso peggiore è quindi O(n log n).
      */
     public static void quickSort(int[] array, int inizio, int fine) {
         if (inizio < fine) {
-            // Partiziona l'array e ottieni l'indice del pivot
-            int indicePivot = partiziona(array, inizio, fine);
+            introSort(array, inizio, fine, limiteProfondita(fine - inizio + 1));
+        }
+    }
+    
+    /**
+     * Limite di profondità della ricorsione oltre il quale l'introsort passa a HeapSort
+     */
+    static int limiteProfondita(int dimensione) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, dimensione)));
+    }
+    
+    /**
+     * Introsort sull'intervallo [inizio, fine] con il limite di profondità indicato
+     */
+    static void introSort(int[] array, int inizio, int fine, int profondita) {
+        int[] limiti = new int[4];
+        
+        // Ricorre sulla parte sinistra e centrale, itera sulla parte destra
+        while (fine - inizio >= SOGLIA_INSERTION_SORT) {
+            if (profondita-- == 0) {
+                heapSort(array, inizio, fine);
+                return;
+            }
+            
+            partizionaDoppioPivot(array, inizio, fine, limiti);
+            int fineSinistra = limiti[0];
+            int inizioCentro = limiti[1];
+            int fineCentro = limiti[2];
+            int inizioDestra = limiti[3];
+            
+            introSort(array, inizio, fineSinistra, profondita);
+            introSort(array, inizioCentro, fineCentro, profondita);
+            inizio = inizioDestra;
+        }
+        
+        insertionSort(array, inizio, fine);
+    }
+    
+    /**
+     * Selezione del k-esimo elemento più piccolo (k parte da 0).
+     *
+     * Riordina l'array in modo che array[k] sia l'elemento che occuperebbe quella posizione
+     * nell'array ordinato, gli elementi a sinistra non siano maggiori e quelli a destra non
+     * siano minori. Usa un introselect (partizionamento a doppio pivot) che oltre il limite
+     * di profondità passa alla mediana delle mediane: il costo è O(n) anche nel caso peggiore.
+     */
+    public static int select(int[] array, int k) {
+        if (k < 0 || k >= array.length) {
+            throw new IllegalArgumentException("La posizione k deve essere tra 0 e " + (array.length - 1));
+        }
+        introSelect(array, 0, array.length - 1, k, limiteProfondita(array.length));
+        return array[k];
+    }
+    
+    /**
+     * Restituisce i k elementi più piccoli in ordine crescente, senza modificare l'array
+     */
+    public static int[] topK(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Il numero di elementi k deve essere tra 0 e " + array.length);
+        }
+        if (k == 0) {
+            return new int[0];
+        }
+        
+        int[] copia = Arrays.copyOf(array, array.length);
+        select(copia, k - 1);
+        int[] risultato = Arrays.copyOf(copia, k);
+        quickSort(risultato, 0, k - 1);
+        return risultato;
+    }
+    
+    /**
+     * Ordinamento parziale: porta in [inizio, fine], ordinati, gli stessi elementi che vi
+     * si troverebbero ordinando l'intero array. Il resto dell'array resta partizionato.
+     */
+    public static void partialSort(int[] array, int inizio, int fine) {
+        if (inizio < 0 || fine >= array.length || inizio > fine) {
+            throw new IllegalArgumentException("Intervallo non valido: [" + inizio + ", " + fine + "]");
+        }
+        
+        int ultimo = array.length - 1;
+        introSelect(array, 0, ultimo, inizio, limiteProfondita(array.length));
+        if (fine > inizio) {
+            introSelect(array, inizio + 1, ultimo, fine, limiteProfondita(ultimo - inizio));
+            quickSort(array, inizio + 1, fine - 1);
+        }
+    }
+    
+    /**
+     * Introselect sull'intervallo [inizio, fine]: porta nella posizione k il valore che le spetta
+     */
+    static void introSelect(int[] array, int inizio, int fine, int k, int profondita) {
+        int[] limiti = new int[4];
+        
+        while (fine - inizio >= SOGLIA_INSERTION_SORT) {
+            if (profondita-- == 0) {
+                selezioneDeterministica(array, inizio, fine, k);
+                return;
+            }
             
-            // Ordina ricorsivamente i sottoarray
-            quickSort(array, inizio, indicePivot - 1);
-            quickSort(array, indicePivot + 1, fine);
+            partizionaDoppioPivot(array, inizio, fine, limiti);
+            
+            // Prosegue solo nella parte che contiene k; i pivot e le chiavi uguali sono già al loro posto
+            if (k <= limiti[0]) {
+                fine = limiti[0];
+            } else if (k >= limiti[3]) {
+                inizio = limiti[3];
+            } else if (k >= limiti[1] && k <= limiti[2]) {
+                inizio = limiti[1];
+                fine = limiti[2];
+            } else {
+                return;
+            }
         }
+        
+        insertionSort(array, inizio, fine);
     }
     
     /**
-     * Metodo di partizionamento per QuickSort
+     * Selezione deterministica in tempo lineare con il pivot scelto come mediana delle mediane di gruppi da 5
      */
-    private static int partiziona(int[] array, int inizio, int fine) {
-        // Usa l'elemento più a destra come pivot
-        int pivot = array[fine];
-        int i = inizio - 1; // Indice dell'elemento più piccolo
+    private static void selezioneDeterministica(int[] array, int inizio, int fine, int k) {
+        int[] limiti = new int[4];
         
-        for (int j = inizio; j <= fine - 1; j++) {
-            // Se l'elemento corrente è minore o uguale al pivot
-            if (array[j] <= pivot) {
-                i++;
-                // Scambia array[i] e array[j]
-                scambia(array, i, j);
+        while (fine - inizio >= SOGLIA_INSERTION_SORT) {
+            int pivot = medianaDelleMediane(array, inizio, fine);
+            partizionaATreVie(array, inizio, fine, pivot, limiti);
+            
+            if (k <= limiti[0]) {
+                fine = limiti[0];
+            } else if (k >= limiti[3]) {
+                inizio = limiti[3];
+            } else {
+                return;
             }
         }
         
-        // Scambia array[i+1] e array[fine] (metti il pivot nella sua posizione corretta)
-        scambia(array, i + 1, fine);
-        return i + 1; // Restituisci la posizione del pivot
+        insertionSort(array, inizio, fine);
+    }
+    
+    /**
+     * Ordina ogni gruppo di 5 elementi, raccoglie le mediane all'inizio dell'intervallo
+     * e ne restituisce la mediana
+     */
+    private static int medianaDelleMediane(int[] array, int inizio, int fine) {
+        int numGruppi = 0;
+        for (int gruppo = inizio; gruppo <= fine; gruppo += 5) {
+            int fineGruppo = Math.min(gruppo + 4, fine);
+            insertionSort(array, gruppo, fineGruppo);
+            scambia(array, inizio + numGruppi, (gruppo + fineGruppo) >>> 1);
+            numGruppi++;
+        }
+        
+        int posizioneMediana = inizio + (numGruppi - 1) / 2;
+        selezioneDeterministica(array, inizio, inizio + numGruppi - 1, posizioneMediana);
+        return array[posizioneMediana];
+    }
+    
+    /**
+     * Partizionamento a doppio pivot dell'intervallo [inizio, fine] (richiede almeno
+     * SOGLIA_INSERTION_SORT elementi).
+     *
+     * I pivot sono il secondo e il quarto di cinque campioni equidistanti. Al termine
+     * limiti contiene, nell'ordine, la fine della parte sinistra, l'inizio e la fine della
+     * parte centrale e l'inizio della parte destra: solo queste tre parti vanno ancora ordinate
+     * (la parte centrale può essere vuota). Se i due pivot coincidono il partizionamento
+     * diventa a tre vie e tutte le chiavi uguali al pivot restano fuori dalle parti da ordinare.
+     */
+    static void partizionaDoppioPivot(int[] array, int inizio, int fine, int[] limiti) {
+        int lunghezza = fine - inizio + 1;
+        int settimo = (lunghezza >> 3) + (lunghezza >> 6) + 1;
+        
+        // Cinque campioni equidistanti attorno al centro, ordinati tra loro
+        int e3 = (inizio + fine) >>> 1;
+        int e2 = e3 - settimo;
+        int e1 = e2 - settimo;
+        int e4 = e3 + settimo;
+        int e5 = e4 + settimo;
+        ordinaCampioni(array, e1, e2, e3, e4, e5);
+        
+        if (array[e2] != array[e4]) {
+            partizionaConDuePivot(array, inizio, fine, e1, e2, e4, e5, limiti);
+        } else {
+            partizionaATreVie(array, inizio, fine, array[e3], limiti);
+        }
+    }
+    
+    private static void partizionaConDuePivot(int[] array, int inizio, int fine,
+            int e1, int e2, int e4, int e5, int[] limiti) {
+        int pivot1 = array[e2];
+        int pivot2 = array[e4];
+        
+        // I pivot vengono tolti dall'intervallo e rimessi al loro posto alla fine
+        array[e2] = array[inizio];
+        array[e4] = array[fine];
+        
+        // I campioni centrali fanno da sentinella per queste due scansioni
+        int minori = inizio;
+        int maggiori = fine;
+        while (array[++minori] < pivot1);
+        while (array[--maggiori] > pivot2);
+        
+        // Invariante: [inizio+1, minori) < pivot1, (maggiori, fine-1] > pivot2
+        esterno:
+        for (int k = minori - 1; ++k <= maggiori; ) {
+            int valore = array[k];
+            if (valore < pivot1) {
+                array[k] = array[minori];
+                array[minori] = valore;
+                minori++;
+            } else if (valore > pivot2) {
+                while (array[maggiori] > pivot2) {
+                    if (maggiori-- == k) {
+                        break esterno;
+                    }
+                }
+                if (array[maggiori] < pivot1) {
+                    array[k] = array[minori];
+                    array[minori] = array[maggiori];
+                    minori++;
+                } else {
+                    array[k] = array[maggiori];
+                }
+                array[maggiori] = valore;
+                maggiori--;
+            }
+        }
+        
+        // Rimette i pivot nelle loro posizioni definitive
+        array[inizio] = array[minori - 1];
+        array[minori - 1] = pivot1;
+        array[fine] = array[maggiori + 1];
+        array[maggiori + 1] = pivot2;
+        
+        limiti[0] = minori - 2;
+        limiti[3] = maggiori + 2;
+        
+        // Se la parte centrale è troppo grande contiene molti duplicati dei pivot:
+        // li sposta ai bordi così che non vengano ordinati di nuovo
+        if (minori < e1 && e5 < maggiori) {
+            while (array[minori] == pivot1) {
+                minori++;
+            }
+            while (array[maggiori] == pivot2) {
+                maggiori--;
+            }
+            
+            esterno:
+            for (int k = minori - 1; ++k <= maggiori; ) {
+                int valore = array[k];
+                if (valore == pivot1) {
+                    array[k] = array[minori];
+                    array[minori] = valore;
+                    minori++;
+                } else if (valore == pivot2) {
+                    while (array[maggiori] == pivot2) {
+                        if (maggiori-- == k) {
+                            break esterno;
+                        }
+                    }
+                    if (array[maggiori] == pivot1) {
+                        array[k] = array[minori];
+                        array[minori] = pivot1;
+                        minori++;
+                    } else {
+                        array[k] = array[maggiori];
+                    }
+                    array[maggiori] = valore;
+                    maggiori--;
+                }
+            }
+        }
+        
+        limiti[1] = minori;
+        limiti[2] = maggiori;
+    }
+    
+    /**
+     * Partizionamento a tre vie (bandiera olandese) attorno a un unico pivot
+     */
+    private static void partizionaATreVie(int[] array, int inizio, int fine, int pivot, int[] limiti) {
+        int minori = inizio;
+        int maggiori = fine;
+        int k = inizio;
+        
+        while (k <= maggiori) {
+            int valore = array[k];
+            if (valore < pivot) {
+                array[k++] = array[minori];
+                array[minori++] = valore;
+            } else if (valore > pivot) {
+                array[k] = array[maggiori];
+                array[maggiori--] = valore;
+            } else {
+                k++;
+            }
+        }
+        
+        // Le chiavi uguali al pivot sono già al loro posto: la parte centrale è vuota
+        limiti[0] = minori - 1;
+        limiti[1] = minori;
+        limiti[2] = minori - 1;
+        limiti[3] = maggiori + 1;
+    }
+    
+    /**
+     * Ordina i cinque campioni usati per scegliere i pivot
+     */
+    private static void ordinaCampioni(int[] array, int e1, int e2, int e3, int e4, int e5) {
+        int[] indici = {e1, e2, e3, e4, e5};
+        for (int i = 1; i < indici.length; i++) {
+            for (int j = i; j > 0 && array[indici[j - 1]] > array[indici[j]]; j--) {
+                scambia(array, indici[j - 1], indici[j]);
+            }
+        }
+    }
+    
+    /**
+     * InsertionSort sull'intervallo [inizio, fine], usato per gli intervalli piccoli
+     */
+    static void insertionSort(int[] array, int inizio, int fine) {
+        for (int i = inizio + 1; i <= fine; i++) {
+            int valore = array[i];
+            int j = i - 1;
+            while (j >= inizio && array[j] > valore) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = valore;
+        }
+    }
+    
+    /**
+     * HeapSort sull'intervallo [inizio, fine], usato quando l'introsort supera il limite di profondità
+     */
+    static void heapSort(int[] array, int inizio, int fine) {
+        int n = fine - inizio + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            setacciaGiu(array, inizio, i, n);
+        }
+        for (int ultimo = n - 1; ultimo > 0; ultimo--) {
+            scambia(array, inizio, inizio + ultimo);
+            setacciaGiu(array, inizio, 0, ultimo);
+        }
+    }
+    
+    /**
+     * Ripristina la proprietà di max-heap a partire dal nodo indicato (indici relativi a base)
+     */
+    private static void setacciaGiu(int[] array, int base, int nodo, int dimensione) {
+        int valore = array[base + nodo];
+        int figlio;
+        while ((figlio = 2 * nodo + 1) < dimensione) {
+            if (figlio + 1 < dimensione && array[base + figlio + 1] > array[base + figlio]) {
+                figlio++;
+            }
+            if (array[base + figlio] <= valore) {
+                break;
+            }
+            array[base + nodo] = array[base + figlio];
+            nodo = figlio;
+        }
+        array[base + nodo] = valore;
     }
     
     /**
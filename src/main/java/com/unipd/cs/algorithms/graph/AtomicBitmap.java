@@ -0,0 +1,104 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Insieme di interi in [0, dimensione) rappresentato come bitmap di parole long.
+ *
+ * L'inserimento usa un compareAndSet sulla parola che contiene il bit, quindi più thread
+ * possono marcare vertici contemporaneamente senza lock: uno solo di essi vede {@code true}.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class AtomicBitmap {
+    private final int dimensione;
+    private final AtomicLongArray parole;
+    
+    /**
+     * Costruttore per creare una bitmap vuota di dimensione specificata.
+     */
+    public AtomicBitmap(int dimensione) {
+        if (dimensione < 0) {
+            throw new IllegalArgumentException("La dimensione non può essere negativa");
+        }
+        this.dimensione = dimensione;
+        this.parole = new AtomicLongArray((dimensione + 63) >>> 6);
+    }
+    
+    /**
+     * Restituisce true se l'elemento appartiene all'insieme.
+     */
+    public boolean get(int indice) {
+        return (parole.get(indice >>> 6) & (1L << indice)) != 0;
+    }
+    
+    /**
+     * Inserisce l'elemento. Restituisce true solo se non era già presente.
+     */
+    public boolean set(int indice) {
+        int parola = indice >>> 6;
+        long bit = 1L << indice;
+        long valore = parole.get(parola);
+        while ((valore & bit) == 0) {
+            if (parole.compareAndSet(parola, valore, valore | bit)) {
+                return true;
+            }
+            valore = parole.get(parola);
+        }
+        return false;
+    }
+    
+    /**
+     * Svuota in parallelo la bitmap.
+     */
+    public void clear() {
+        ParallelSortingAlgorithms.cicloParallelo(parole.length(), (inizio, fine) -> {
+            for (int p = inizio; p < fine; p++) {
+                parole.set(p, 0L);
+            }
+        });
+    }
+    
+    /**
+     * Restituisce il numero di elementi nell'insieme.
+     */
+    public int cardinality() {
+        int totale = 0;
+        for (int p = 0; p < parole.length(); p++) {
+            totale += Long.bitCount(parole.get(p));
+        }
+        return totale;
+    }
+    
+    /**
+     * Restituisce la dimensione dell'universo [0, dimensione).
+     */
+    public int size() {
+        return dimensione;
+    }
+    
+    /**
+     * Restituisce il numero di parole long della bitmap.
+     */
+    public int getWordCount() {
+        return parole.length();
+    }
+    
+    /**
+     * Restituisce la parola con gli elementi [64 * parola, 64 * parola + 63].
+     */
+    public long getWord(int parola) {
+        return parole.get(parola);
+    }
+    
+    /**
+     * Sovrascrive una parola: è sicuro solo se nessun altro thread scrive la stessa parola.
+     */
+    public void setWord(int parola, long valore) {
+        parole.set(parola, valore);
+    }
+}
\ No newline at end of file
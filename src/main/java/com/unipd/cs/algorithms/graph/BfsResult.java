@@ -0,0 +1,79 @@
+package com.unipd.cs.algorithms.graph;
+
+/**
+ * Risultato di una ricerca in ampiezza: distanza in archi e padre nell'albero BFS di ogni vertice.
+ *
+ * I vertici non raggiunti hanno distanza e padre pari a -1; il vertice iniziale è padre di sé stesso.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class BfsResult {
+    private final int verticeIniziale;
+    private final int[] distanza;
+    private final int[] padre;
+    
+    BfsResult(int verticeIniziale, int[] distanza, int[] padre) {
+        this.verticeIniziale = verticeIniziale;
+        this.distanza = distanza;
+        this.padre = padre;
+    }
+    
+    /**
+     * Restituisce il vertice da cui è partita la ricerca.
+     */
+    public int getSource() {
+        return verticeIniziale;
+    }
+    
+    /**
+     * Restituisce l'array delle distanze, senza copia.
+     */
+    public int[] getDistance() {
+        return distanza;
+    }
+    
+    /**
+     * Restituisce l'array dei padri, senza copia.
+     */
+    public int[] getParent() {
+        return padre;
+    }
+    
+    /**
+     * Restituisce true se il vertice è stato raggiunto.
+     */
+    public boolean isReached(int vertice) {
+        return distanza[vertice] >= 0;
+    }
+    
+    /**
+     * Restituisce il numero di vertici raggiunti.
+     */
+    public int getReachedCount() {
+        int totale = 0;
+        for (int d : distanza) {
+            if (d >= 0) {
+                totale++;
+            }
+        }
+        return totale;
+    }
+    
+    /**
+     * Restituisce il cammino minimo dal vertice iniziale al vertice dato, vuoto se non è raggiungibile.
+     */
+    public int[] getPath(int vertice) {
+        if (distanza[vertice] < 0) {
+            return new int[0];
+        }
+        
+        int[] cammino = new int[distanza[vertice] + 1];
+        for (int i = cammino.length - 1; i >= 0; i--) {
+            cammino[i] = vertice;
+            vertice = padre[vertice];
+        }
+        return cammino;
+    }
+}
\ No newline at end of file
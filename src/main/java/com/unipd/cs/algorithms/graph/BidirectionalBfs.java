@@ -0,0 +1,216 @@
+package com.unipd.cs.algorithms.graph;
+
+import java.util.Arrays;
+
+/**
+ * Ricerca in ampiezza bidirezionale per interrogazioni da un vertice a un altro.
+ *
+ * Una visita parte dalla sorgente sugli archi del grafo, l'altra dalla destinazione sugli
+ * archi del trasposto; a ogni passo viene espanso un intero livello della frontiera più
+ * piccola e la ricerca termina alla fine del primo livello in cui le due visite si incontrano.
+ * Nei grafi small-world le due visite si incontrano dopo pochi livelli, quindi vengono toccati
+ * molti meno vertici che con una visita completa.
+ *
+ * Le aree di lavoro hanno la dimensione del grafo ma non vengono azzerate tra un'interrogazione
+ * e l'altra: ogni vertice è marcato con il numero dell'interrogazione che lo ha visitato.
+ * Ogni thread ha la propria area di lavoro, quindi le interrogazioni possono essere concorrenti.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class BidirectionalBfs {
+    private final CsrGraph grafo;
+    private final CsrGraph trasposto;
+    private final ThreadLocal<AreaDiLavoro> aree;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto per la visita dalla destinazione.
+     */
+    public BidirectionalBfs(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto.
+     */
+    public BidirectionalBfs(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.grafo = grafo;
+        this.trasposto = trasposto;
+        this.aree = ThreadLocal.withInitial(() -> new AreaDiLavoro(grafo.getVerticesCount()));
+    }
+    
+    /**
+     * Restituisce true se la destinazione è raggiungibile dalla sorgente.
+     */
+    public boolean isReachable(int sorgente, int destinazione) {
+        return distance(sorgente, destinazione) >= 0;
+    }
+    
+    /**
+     * Restituisce il numero minimo di archi da sorgente a destinazione, -1 se non è raggiungibile.
+     */
+    public int distance(int sorgente, int destinazione) {
+        AreaDiLavoro area = aree.get();
+        int incontro = cerca(area, sorgente, destinazione);
+        return incontro < 0 ? -1 : area.avanti.distanza[incontro] + area.indietro.distanza[incontro];
+    }
+    
+    /**
+     * Restituisce un cammino minimo da sorgente a destinazione, estremi compresi, vuoto se la
+     * destinazione non è raggiungibile.
+     */
+    public int[] path(int sorgente, int destinazione) {
+        AreaDiLavoro area = aree.get();
+        int incontro = cerca(area, sorgente, destinazione);
+        if (incontro < 0) {
+            return new int[0];
+        }
+        
+        int daSorgente = area.avanti.distanza[incontro];
+        int[] cammino = new int[daSorgente + area.indietro.distanza[incontro] + 1];
+        int v = incontro;
+        for (int i = daSorgente; i >= 0; i--) {
+            cammino[i] = v;
+            v = area.avanti.padre[v];
+        }
+        v = incontro;
+        for (int i = daSorgente + 1; i < cammino.length; i++) {
+            v = area.indietro.padre[v];
+            cammino[i] = v;
+        }
+        return cammino;
+    }
+    
+    /**
+     * Esegue la ricerca e restituisce il vertice di incontro su un cammino minimo, -1 se la
+     * destinazione non è raggiungibile.
+     */
+    private int cerca(AreaDiLavoro area, int sorgente, int destinazione) {
+        int vertici = grafo.getVerticesCount();
+        if (sorgente < 0 || sorgente >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + sorgente);
+        }
+        if (destinazione < 0 || destinazione >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + destinazione);
+        }
+        
+        area.nuovaInterrogazione();
+        Visita avanti = area.avanti;
+        Visita indietro = area.indietro;
+        avanti.inizia(sorgente, area.epoca);
+        indietro.inizia(destinazione, area.epoca);
+        if (sorgente == destinazione) {
+            return sorgente;
+        }
+        
+        while (avanti.dimensioneFrontiera() > 0 && indietro.dimensioneFrontiera() > 0) {
+            int incontro = avanti.dimensioneFrontiera() <= indietro.dimensioneFrontiera()
+                    ? avanti.espandi(grafo, indietro, area.epoca)
+                    : indietro.espandi(trasposto, avanti, area.epoca);
+            if (incontro >= 0) {
+                return incontro;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Aree di lavoro di un thread per le due visite
+     */
+    private static class AreaDiLavoro {
+        final Visita avanti;
+        final Visita indietro;
+        int epoca;
+        
+        AreaDiLavoro(int vertici) {
+            this.avanti = new Visita(vertici);
+            this.indietro = new Visita(vertici);
+        }
+        
+        void nuovaInterrogazione() {
+            if (epoca == Integer.MAX_VALUE) {
+                avanti.azzera();
+                indietro.azzera();
+                epoca = 0;
+            }
+            epoca++;
+        }
+    }
+    
+    /**
+     * Stato di una delle due visite. La coda contiene i vertici visitati in ordine di
+     * scoperta; la frontiera è la parte [inizioFrontiera, fineCoda).
+     */
+    private static class Visita {
+        final int[] marca;
+        final int[] distanza;
+        final int[] padre;
+        final int[] coda;
+        int inizioFrontiera;
+        int fineCoda;
+        
+        Visita(int vertici) {
+            this.marca = new int[vertici];
+            this.distanza = new int[vertici];
+            this.padre = new int[vertici];
+            this.coda = new int[vertici];
+        }
+        
+        void azzera() {
+            Arrays.fill(marca, 0);
+        }
+        
+        boolean visitato(int vertice, int epoca) {
+            return marca[vertice] == epoca;
+        }
+        
+        int dimensioneFrontiera() {
+            return fineCoda - inizioFrontiera;
+        }
+        
+        void inizia(int vertice, int epoca) {
+            marca[vertice] = epoca;
+            distanza[vertice] = 0;
+            padre[vertice] = vertice;
+            coda[0] = vertice;
+            inizioFrontiera = 0;
+            fineCoda = 1;
+        }
+        
+        /**
+         * Espande un livello. Restituisce, tra i vertici scoperti già visitati dall'altra
+         * visita, quello con la distanza totale minima, o -1 se le visite non si incontrano.
+         */
+        int espandi(CsrGraph grafo, Visita altra, int epoca) {
+            int fineFrontiera = fineCoda;
+            int incontro = -1;
+            int distanzaMigliore = Integer.MAX_VALUE;
+            
+            for (int i = inizioFrontiera; i < fineFrontiera; i++) {
+                int v = coda[i];
+                for (int j = grafo.getNeighborsStart(v), fine = grafo.getNeighborsEnd(v); j < fine; j++) {
+                    int w = grafo.getTarget(j);
+                    if (marca[w] == epoca) {
+                        continue;
+                    }
+                    marca[w] = epoca;
+                    distanza[w] = distanza[v] + 1;
+                    padre[w] = v;
+                    coda[fineCoda++] = w;
+                    if (altra.visitato(w, epoca) && distanza[w] + altra.distanza[w] < distanzaMigliore) {
+                        incontro = w;
+                        distanzaMigliore = distanza[w] + altra.distanza[w];
+                    }
+                }
+            }
+            
+            inizioFrontiera = fineFrontiera;
+            return incontro;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Componenti connesse e fortemente connesse di un grafo diretto, calcolate in parallelo.
+ *
+ * Le componenti connesse (ignorando la direzione degli archi) usano l'algoritmo Afforest
+ * (Sutton, Ben-Nun, Barak): un union-find concorrente in cui ogni unione è un compareAndSet
+ * sul padre della radice maggiore, che viene collegata alla minore. Prima vengono uniti solo i
+ * primi vicini di ogni vertice; la componente più frequente in un campione di vertici è quasi
+ * sempre la componente gigante, e i vertici che già le appartengono non esaminano gli archi
+ * rimanenti. Gli archi entranti servono solo ai vertici fuori dalla componente gigante.
+ *
+ * Le componenti fortemente connesse eliminano prima in parallelo i vertici senza archi
+ * entranti o uscenti (trim), poi trovano la componente del vertice di grado massimo come
+ * intersezione di una visita in avanti e di una all'indietro (FW-BW), e infine applicano
+ * l'algoritmo di Tarjan, sequenziale, al sottografo rimanente.
+ *
+ * In entrambi i casi l'etichetta di un vertice è il vertice minimo della sua componente,
+ * quindi il risultato non dipende dal numero di thread.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class ConnectedComponents {
+    
+    // Vicini per vertice uniti prima del campionamento
+    private static final int ROUND_VICINI = 2;
+    
+    // Vertici campionati per stimare la componente gigante
+    private static final int DIMENSIONE_CAMPIONE = 1024;
+    
+    // Round massimi di trim prima della visita FW-BW
+    private static final int ROUND_TRIM = 8;
+    
+    private final CsrGraph grafo;
+    private final CsrGraph trasposto;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto, necessario per seguire gli archi entranti.
+     */
+    public ConnectedComponents(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto. Per un grafo simmetrico si
+     * può passare il grafo stesso: gli archi entranti non vengono allora esaminati due volte.
+     */
+    public ConnectedComponents(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.grafo = grafo;
+        this.trasposto = trasposto;
+    }
+    
+    /**
+     * Restituisce il numero di componenti distinte in un array di etichette.
+     */
+    public static int countComponents(int[] etichette) {
+        AtomicInteger conteggio = new AtomicInteger();
+        ParallelSortingAlgorithms.cicloParallelo(etichette.length, (inizio, fine) -> {
+            int locale = 0;
+            for (int v = inizio; v < fine; v++) {
+                if (etichette[v] == v) {
+                    locale++;
+                }
+            }
+            conteggio.addAndGet(locale);
+        });
+        return conteggio.get();
+    }
+    
+    /**
+     * Calcola le componenti connesse ignorando la direzione degli archi.
+     * Restituisce per ogni vertice il vertice minimo della sua componente.
+     */
+    public int[] connectedComponents() {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        AtomicIntegerArray padre = new AtomicIntegerArray(vertici);
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                padre.lazySet(v, v);
+            }
+        });
+        
+        // Unione dei primi vicini: con pochi archi per vertice si formano già le componenti grandi
+        for (int round = 0; round < ROUND_VICINI; round++) {
+            int r = round;
+            ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+                for (int v = inizio; v < fine; v++) {
+                    if (offsets[v] + r < offsets[v + 1]) {
+                        unisci(padre, v, targets[offsets[v] + r]);
+                    }
+                }
+            });
+            comprimi(padre);
+        }
+        
+        int gigante = componenteFrequente(padre);
+        
+        // Solo i vertici fuori dalla componente gigante esaminano i propri archi rimanenti
+        int[] offsetsEntranti = trasposto.getOffsets();
+        int[] targetsEntranti = trasposto.getTargets();
+        boolean simmetrico = trasposto == grafo;
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                if (padre.get(v) == gigante) {
+                    continue;
+                }
+                for (int i = offsets[v] + ROUND_VICINI; i < offsets[v + 1]; i++) {
+                    unisci(padre, v, targets[i]);
+                }
+                // Un arco dalla componente gigante a v viene esaminato solo da v
+                if (!simmetrico) {
+                    for (int i = offsetsEntranti[v]; i < offsetsEntranti[v + 1]; i++) {
+                        unisci(padre, v, targetsEntranti[i]);
+                    }
+                }
+            }
+        });
+        comprimi(padre);
+        
+        int[] etichette = new int[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                etichette[v] = padre.get(v);
+            }
+        });
+        return etichette;
+    }
+    
+    /**
+     * Unisce le componenti di u e v collegando la radice maggiore alla minore con un
+     * compareAndSet; se il padre della radice è cambiato nel frattempo, riprova.
+     */
+    private static void unisci(AtomicIntegerArray padre, int u, int v) {
+        int p1 = padre.get(u);
+        int p2 = padre.get(v);
+        while (p1 != p2) {
+            int alta = Math.max(p1, p2);
+            int bassa = p1 + p2 - alta;
+            int padreAlta = padre.get(alta);
+            if (padreAlta == bassa || (padreAlta == alta && padre.compareAndSet(alta, alta, bassa))) {
+                return;
+            }
+            p1 = padre.get(padre.get(alta));
+            p2 = padre.get(bassa);
+        }
+    }
+    
+    /**
+     * Porta il padre di ogni vertice alla radice del suo albero. Le radici sono sempre il
+     * vertice minimo dell'albero, perché ogni unione collega una radice a una minore.
+     */
+    private static void comprimi(AtomicIntegerArray padre) {
+        ParallelSortingAlgorithms.cicloParallelo(padre.length(), (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int p = padre.get(v);
+                while (p != padre.get(p)) {
+                    p = padre.get(p);
+                }
+                padre.set(v, p);
+            }
+        });
+    }
+    
+    /**
+     * Restituisce la radice più frequente in un campione casuale di vertici
+     */
+    private static int componenteFrequente(AtomicIntegerArray padre) {
+        int vertici = padre.length();
+        if (vertici == 0) {
+            return -1;
+        }
+        SplittableRandom random = new SplittableRandom(vertici);
+        int[] campione = new int[DIMENSIONE_CAMPIONE];
+        for (int i = 0; i < campione.length; i++) {
+            campione[i] = padre.get(random.nextInt(vertici));
+        }
+        Arrays.sort(campione);
+        
+        int migliore = campione[0];
+        int frequenzaMigliore = 0;
+        int i = 0;
+        while (i < campione.length) {
+            int j = i + 1;
+            while (j < campione.length && campione[j] == campione[i]) {
+                j++;
+            }
+            if (j - i > frequenzaMigliore) {
+                migliore = campione[i];
+                frequenzaMigliore = j - i;
+            }
+            i = j;
+        }
+        return migliore;
+    }
+    
+    /**
+     * Calcola le componenti fortemente connesse.
+     * Restituisce per ogni vertice il vertice minimo della sua componente.
+     */
+    public int[] stronglyConnectedComponents() {
+        int vertici = grafo.getVerticesCount();
+        int[] componente = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        
+        trim(componente);
+        int pivot = verticeGradoMassimo(componente);
+        if (pivot >= 0) {
+            fwBw(pivot, componente);
+        }
+        tarjan(componente);
+        
+        // Ogni componente è etichettata con un suo vertice: la rietichetta con il minimo
+        AtomicIntegerArray minimo = new AtomicIntegerArray(vertici);
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                minimo.lazySet(v, Integer.MAX_VALUE);
+            }
+        });
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                minimo.accumulateAndGet(componente[v], v, Math::min);
+            }
+        });
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                componente[v] = minimo.get(componente[v]);
+            }
+        });
+        return componente;
+    }
+    
+    /**
+     * Assegna a una componente propria ogni vertice senza archi entranti o uscenti verso
+     * vertici non ancora assegnati, ripetendo finché qualche vertice viene eliminato.
+     *
+     * Un vertice può vedere già eliminato un vicino eliminato nello stesso round: poiché
+     * eliminare una componente singola non cambia le altre, il risultato resta corretto.
+     */
+    private void trim(int[] componente) {
+        int vertici = grafo.getVerticesCount();
+        for (int round = 0; round < ROUND_TRIM; round++) {
+            AtomicInteger eliminati = new AtomicInteger();
+            ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+                int locali = 0;
+                for (int v = inizio; v < fine; v++) {
+                    if (componente[v] == -1
+                            && (!haVicinoAttivo(grafo, v, componente) || !haVicinoAttivo(trasposto, v, componente))) {
+                        componente[v] = v;
+                        locali++;
+                    }
+                }
+                eliminati.addAndGet(locali);
+            });
+            if (eliminati.get() == 0) {
+                return;
+            }
+        }
+    }
+    
+    private static boolean haVicinoAttivo(CsrGraph grafo, int vertice, int[] componente) {
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        for (int i = offsets[vertice]; i < offsets[vertice + 1]; i++) {
+            int vicino = targets[i];
+            if (vicino != vertice && componente[vicino] == -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Restituisce il vertice non assegnato con il massimo prodotto tra grado entrante e
+     * uscente, o -1 se tutti i vertici sono assegnati
+     */
+    private int verticeGradoMassimo(int[] componente) {
+        int pivot = -1;
+        long migliore = -1;
+        for (int v = 0; v < componente.length; v++) {
+            if (componente[v] == -1) {
+                long prodotto = (long) grafo.getDegree(v) * trasposto.getDegree(v);
+                if (prodotto > migliore) {
+                    pivot = v;
+                    migliore = prodotto;
+                }
+            }
+        }
+        return pivot;
+    }
+    
+    /**
+     * Assegna al pivot la sua componente: i vertici raggiunti sia dalla visita in avanti sia
+     * da quella all'indietro. Le visite usano {@link LevelSynchronousBfs#passoTopDown} con i
+     * vertici già assegnati marcati come visitati, così non vengono attraversati.
+     */
+    private void fwBw(int pivot, int[] componente) {
+        int vertici = grafo.getVerticesCount();
+        int[] distanza = new int[vertici];
+        int[] padre = new int[vertici];
+        
+        AtomicBitmap avanti = bitmapAssegnati(componente);
+        visita(grafo, pivot, avanti, distanza, padre);
+        
+        AtomicBitmap indietro = bitmapAssegnati(componente);
+        int[][] livelli = visita(trasposto, pivot, indietro, distanza, padre);
+        
+        for (int[] livello : livelli) {
+            ParallelSortingAlgorithms.cicloParallelo(livello.length, (inizio, fine) -> {
+                for (int i = inizio; i < fine; i++) {
+                    // I vertici raggiunti all'indietro non erano assegnati, quindi se sono
+                    // marcati nella visita in avanti sono stati raggiunti anche da questa
+                    if (avanti.get(livello[i])) {
+                        componente[livello[i]] = pivot;
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Visita in ampiezza dal pivot e restituisce i livelli scoperti, pivot compreso
+     */
+    private static int[][] visita(CsrGraph grafo, int pivot, AtomicBitmap visitati, int[] distanza, int[] padre) {
+        visitati.set(pivot);
+        int[][] livelli = new int[16][];
+        int numLivelli = 0;
+        int[] frontiera = {pivot};
+        for (int livello = 1; frontiera.length > 0; livello++) {
+            if (numLivelli == livelli.length) {
+                livelli = Arrays.copyOf(livelli, 2 * numLivelli);
+            }
+            livelli[numLivelli++] = frontiera;
+            frontiera = LevelSynchronousBfs.passoTopDown(grafo, frontiera, visitati, distanza, padre, livello, null);
+        }
+        return Arrays.copyOf(livelli, numLivelli);
+    }
+    
+    private static AtomicBitmap bitmapAssegnati(int[] componente) {
+        AtomicBitmap bitmap = new AtomicBitmap(componente.length);
+        ParallelSortingAlgorithms.cicloParallelo(bitmap.getWordCount(), (inizio, fine) -> {
+            for (int parola = inizio; parola < fine; parola++) {
+                long valore = 0;
+                int fineParola = Math.min(componente.length, (parola + 1) * Long.SIZE);
+                for (int v = parola * Long.SIZE; v < fineParola; v++) {
+                    if (componente[v] != -1) {
+                        valore |= 1L << v;
+                    }
+                }
+                bitmap.setWord(parola, valore);
+            }
+        });
+        return bitmap;
+    }
+    
+    /**
+     * Algoritmo di Tarjan iterativo sui vertici non ancora assegnati, ignorando gli archi
+     * verso vertici già assegnati. Ogni componente viene etichettata con la sua radice.
+     */
+    private void tarjan(int[] componente) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        
+        // indice[v] == -1 per i vertici non ancora scoperti
+        int[] indice = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        int[] minimo = new int[vertici];
+        int[] pila = new int[vertici];
+        int dimensionePila = 0;
+        boolean[] inPila = new boolean[vertici];
+        
+        // Pila delle chiamate: vertice e prossimo arco da esaminare
+        int[] chiamate = new int[vertici];
+        int[] prossimoArco = new int[vertici];
+        int contatore = 0;
+        
+        for (int radice = 0; radice < vertici; radice++) {
+            if (componente[radice] != -1 || indice[radice] != -1) {
+                continue;
+            }
+            
+            int profondita = 0;
+            chiamate[0] = radice;
+            prossimoArco[0] = offsets[radice];
+            indice[radice] = minimo[radice] = contatore++;
+            pila[dimensionePila++] = radice;
+            inPila[radice] = true;
+            
+            while (profondita >= 0) {
+                int v = chiamate[profondita];
+                if (prossimoArco[profondita] < offsets[v + 1]) {
+                    int w = targets[prossimoArco[profondita]++];
+                    if (componente[w] != -1) {
+                        continue;
+                    }
+                    if (indice[w] == -1) {
+                        indice[w] = minimo[w] = contatore++;
+                        pila[dimensionePila++] = w;
+                        inPila[w] = true;
+                        profondita++;
+                        chiamate[profondita] = w;
+                        prossimoArco[profondita] = offsets[w];
+                    } else if (inPila[w]) {
+                        minimo[v] = Math.min(minimo[v], indice[w]);
+                    }
+                } else {
+                    // Tutti gli archi di v sono stati esaminati: v è radice di una componente?
+                    if (minimo[v] == indice[v]) {
+                        int w;
+                        do {
+                            w = pila[--dimensionePila];
+                            inPila[w] = false;
+                            componente[w] = v;
+                        } while (w != v);
+                    }
+                    profondita--;
+                    if (profondita >= 0) {
+                        int u = chiamate[profondita];
+                        minimo[u] = Math.min(minimo[u], minimo[v]);
+                    }
+                }
+            }
+        }
+    }
+}
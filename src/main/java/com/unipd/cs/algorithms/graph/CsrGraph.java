@@ -0,0 +1,330 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Rappresentazione immutabile di un grafo diretto in formato CSR (Compressed Sparse Row).
+ *
+ * I vicini del vertice v sono targets[offsets[v]] ... targets[offsets[v + 1] - 1]: ogni arco
+ * occupa un solo int e i vicini di un vertice sono contigui in memoria, mentre in Graph ogni
+ * arco è un Integer raggiungibile tramite un riferimento in una ArrayList.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class CsrGraph {
+    private final int vertici;
+    private final int[] offsets;
+    private final int[] targets;
+    
+    /**
+     * Costruttore a partire da array già validi, che vengono usati senza copia.
+     */
+    CsrGraph(int[] offsets, int[] targets) {
+        this.vertici = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+    
+    /**
+     * Converte un grafo a liste di adiacenza, mantenendo l'ordine dei vicini.
+     */
+    public static CsrGraph fromGraph(Graph grafo) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = new int[vertici + 1];
+        
+        // Conteggio parallelo dei gradi, poi somma prefissa
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsets[v + 1] = grafo.getNeighbors(v).size();
+            }
+        });
+        int numArchi = sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int posizione = offsets[v];
+                for (int vicino : grafo.getNeighbors(v)) {
+                    targets[posizione++] = vicino;
+                }
+            }
+        });
+        
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Costruisce il grafo dagli archi sorgenti[i] -> destinazioni[i].
+     * I vicini di ogni vertice risultano in ordine crescente.
+     */
+    public static CsrGraph fromEdgeList(int vertici, int[] sorgenti, int[] destinazioni) {
+        if (vertici < 0) {
+            throw new IllegalArgumentException("Il numero di vertici non può essere negativo");
+        }
+        if (sorgenti.length != destinazioni.length) {
+            throw new IllegalArgumentException("Sorgenti e destinazioni devono avere la stessa lunghezza");
+        }
+        
+        int numArchi = sorgenti.length;
+        AtomicIntegerArray contatori = new AtomicIntegerArray(vertici);
+        
+        // Conteggio parallelo dei gradi uscenti
+        ParallelSortingAlgorithms.cicloParallelo(numArchi, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                verificaVertice(sorgenti[i], vertici);
+                verificaVertice(destinazioni[i], vertici);
+                contatori.getAndIncrement(sorgenti[i]);
+            }
+        });
+        
+        int[] offsets = new int[vertici + 1];
+        for (int v = 0; v < vertici; v++) {
+            offsets[v + 1] = contatori.get(v);
+        }
+        sommaPrefissa(offsets);
+        
+        // Distribuzione parallela: i contatori diventano la prossima posizione libera di ogni vertice
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                contatori.set(v, offsets[v]);
+            }
+        });
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numArchi, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                targets[contatori.getAndIncrement(sorgenti[i])] = destinazioni[i];
+            }
+        });
+        
+        // L'ordine della distribuzione dipende dai thread: ordinando i vicini il risultato è deterministico
+        ordinaVicini(offsets, targets);
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Costruisce il grafo trasposto, con gli archi invertiti.
+     * I vicini di ogni vertice, cioè i suoi predecessori nel grafo originale, sono in ordine crescente.
+     */
+    public CsrGraph transpose() {
+        AtomicIntegerArray contatori = new AtomicIntegerArray(vertici);
+        
+        // Conteggio parallelo dei gradi entranti
+        ParallelSortingAlgorithms.cicloParallelo(targets.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                contatori.getAndIncrement(targets[i]);
+            }
+        });
+        
+        int[] offsetsTrasposto = new int[vertici + 1];
+        for (int v = 0; v < vertici; v++) {
+            offsetsTrasposto[v + 1] = contatori.get(v);
+        }
+        sommaPrefissa(offsetsTrasposto);
+        
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                contatori.set(v, offsetsTrasposto[v]);
+            }
+        });
+        int[] targetsTrasposto = new int[targets.length];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int u = inizio; u < fine; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    targetsTrasposto[contatori.getAndIncrement(targets[i])] = u;
+                }
+            }
+        });
+        
+        ordinaVicini(offsetsTrasposto, targetsTrasposto);
+        return new CsrGraph(offsetsTrasposto, targetsTrasposto);
+    }
+    
+    /**
+     * Ordina in parallelo la lista dei vicini di ogni vertice
+     */
+    static void ordinaVicini(int[] offsets, int[] targets) {
+        ParallelSortingAlgorithms.cicloParallelo(offsets.length - 1, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                Arrays.sort(targets, offsets[v], offsets[v + 1]);
+            }
+        });
+    }
+    
+    /**
+     * Trasforma i gradi in offsets[1..n] negli offset di inizio e restituisce il numero di archi
+     */
+    static int sommaPrefissa(int[] offsets) {
+        long somma = 0;
+        for (int v = 1; v < offsets.length; v++) {
+            somma += offsets[v];
+            if (somma > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Il grafo ha troppi archi per la rappresentazione CSR");
+            }
+            offsets[v] = (int) somma;
+        }
+        return (int) somma;
+    }
+    
+    private static void verificaVertice(int vertice, int vertici) {
+        if (vertice < 0 || vertice >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + vertice);
+        }
+    }
+    
+    /**
+     * Restituisce il numero di vertici nel grafo.
+     */
+    public int getVerticesCount() {
+        return vertici;
+    }
+    
+    /**
+     * Restituisce il numero di archi nel grafo.
+     */
+    public int getEdgesCount() {
+        return targets.length;
+    }
+    
+    /**
+     * Restituisce il grado uscente di un vertice.
+     */
+    public int getDegree(int vertice) {
+        return offsets[vertice + 1] - offsets[vertice];
+    }
+    
+    /**
+     * Indice in targets del primo vicino del vertice.
+     */
+    public int getNeighborsStart(int vertice) {
+        return offsets[vertice];
+    }
+    
+    /**
+     * Indice in targets successivo all'ultimo vicino del vertice.
+     */
+    public int getNeighborsEnd(int vertice) {
+        return offsets[vertice + 1];
+    }
+    
+    /**
+     * Restituisce la destinazione dell'arco di indice dato.
+     */
+    public int getTarget(int arco) {
+        return targets[arco];
+    }
+    
+    /**
+     * Restituisce una copia dei vicini di un vertice.
+     */
+    public int[] getNeighbors(int vertice) {
+        return Arrays.copyOfRange(targets, offsets[vertice], offsets[vertice + 1]);
+    }
+    
+    /**
+     * Esegue l'azione su ogni vicino del vertice, senza boxing.
+     */
+    public void forEachNeighbor(int vertice, IntConsumer azione) {
+        for (int i = offsets[vertice], fine = offsets[vertice + 1]; i < fine; i++) {
+            azione.accept(targets[i]);
+        }
+    }
+    
+    /**
+     * Array degli offset, condiviso con gli algoritmi del package: non deve essere modificato.
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+    
+    /**
+     * Array delle destinazioni, condiviso con gli algoritmi del package: non deve essere modificato.
+     */
+    int[] getTargets() {
+        return targets;
+    }
+    
+    /**
+     * Converte il grafo nella rappresentazione a liste di adiacenza.
+     */
+    public Graph toGraph() {
+        Graph grafo = new Graph(vertici);
+        for (int v = 0; v < vertici; v++) {
+            List<Integer> vicini = grafo.getNeighbors(v);
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                vicini.add(targets[i]);
+            }
+        }
+        return grafo;
+    }
+    
+    /**
+     * Implementazione sequenziale della ricerca in ampiezza (BFS).
+     * Restituisce i vertici raggiunti nell'ordine di visita.
+     */
+    public int[] bfs(int verticeIniziale) {
+        boolean[] visitati = new boolean[vertici];
+        int[] coda = new int[vertici];
+        int testa = 0;
+        int fondo = 0;
+        
+        visitati[verticeIniziale] = true;
+        coda[fondo++] = verticeIniziale;
+        
+        while (testa < fondo) {
+            int vertice = coda[testa++];
+            
+            for (int i = offsets[vertice], fine = offsets[vertice + 1]; i < fine; i++) {
+                int vicino = targets[i];
+                if (!visitati[vicino]) {
+                    visitati[vicino] = true;
+                    coda[fondo++] = vicino;
+                }
+            }
+        }
+        
+        return Arrays.copyOf(coda, fondo);
+    }
+    
+    /**
+     * Implementazione sequenziale della ricerca in profondità (DFS), con lo stesso ordine
+     * di visita di {@link Graph#dfs}. Restituisce i vertici raggiunti nell'ordine di visita.
+     */
+    public int[] dfs(int verticeIniziale) {
+        boolean[] visitati = new boolean[vertici];
+        int[] ordine = new int[vertici];
+        int numVisitati = 0;
+        int[] pila = new int[16];
+        int cima = 0;
+        
+        pila[cima++] = verticeIniziale;
+        
+        while (cima > 0) {
+            int vertice = pila[--cima];
+            
+            if (!visitati[vertice]) {
+                visitati[vertice] = true;
+                ordine[numVisitati++] = vertice;
+                
+                // Aggiunge vicini in ordine inverso per garantire lo stesso attraversamento del DFS ricorsivo
+                for (int i = offsets[vertice + 1] - 1; i >= offsets[vertice]; i--) {
+                    int vicino = targets[i];
+                    if (!visitati[vicino]) {
+                        if (cima == pila.length) {
+                            pila = Arrays.copyOf(pila, 2 * cima);
+                        }
+                        pila[cima++] = vicino;
+                    }
+                }
+            }
+        }
+        
+        return Arrays.copyOf(ordine, numVisitati);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.unipd.cs.algorithms.graph;
+
+/**
+ * Risultato di una ricerca in profondità parallela: vertici visitati e, se richiesti,
+ * ordine di scoperta e padre nell'albero di visita.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class DfsResult {
+    private final int verticeIniziale;
+    private final AtomicBitmap visitati;
+    private final int[] ordineScoperta;
+    private final int[] padre;
+    
+    DfsResult(int verticeIniziale, AtomicBitmap visitati, int[] ordineScoperta, int[] padre) {
+        this.verticeIniziale = verticeIniziale;
+        this.visitati = visitati;
+        this.ordineScoperta = ordineScoperta;
+        this.padre = padre;
+    }
+    
+    /**
+     * Restituisce il vertice da cui è partita la ricerca.
+     */
+    public int getSource() {
+        return verticeIniziale;
+    }
+    
+    /**
+     * Restituisce true se il vertice è stato visitato.
+     */
+    public boolean isVisited(int vertice) {
+        return visitati.get(vertice);
+    }
+    
+    /**
+     * Restituisce il numero di vertici visitati.
+     */
+    public int getVisitedCount() {
+        return visitati.cardinality();
+    }
+    
+    /**
+     * Restituisce i vertici visitati nell'ordine di scoperta, o null se non è stato registrato.
+     *
+     * Ogni thread visita in profondità la parte di grafo che ha ricevuto: l'array contiene
+     * gli ordini di scoperta dei singoli thread uno dopo l'altro.
+     */
+    public int[] getDiscoveryOrder() {
+        return ordineScoperta;
+    }
+    
+    /**
+     * Restituisce il padre di ogni vertice nell'albero di visita, o null se non è stato registrato.
+     * Il vertice iniziale è padre di sé stesso, i vertici non visitati hanno padre -1.
+     */
+    public int[] getParent() {
+        return padre;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ricerca in ampiezza parallela a ottimizzazione di direzione (Beamer, Asanović, Patterson).
+ *
+ * Nel passo top-down ogni vertice della frontiera esamina i propri vicini; nel passo bottom-up
+ * ogni vertice non ancora visitato cerca tra i propri predecessori un vertice della frontiera
+ * e si ferma al primo trovato. Quando la frontiera tocca una parte consistente degli archi non
+ * ancora esplorati il passo bottom-up esamina molti meno archi, quindi la ricerca passa dall'uno
+ * all'altro in base a due soglie:
+ * <ul>
+ *   <li>top-down → bottom-up quando gli archi della frontiera superano 1/ALFA degli archi inesplorati;</li>
+ *   <li>bottom-up → top-down quando la frontiera si riduce sotto 1/BETA dei vertici.</li>
+ * </ul>
+ * Nel passo top-down la frontiera è una coda di vertici, espansa come in {@link LevelSynchronousBfs},
+ * nel passo bottom-up una bitmap.
+ * Il grafo trasposto, necessario al passo bottom-up, viene costruito una volta sola
+ * e riutilizzato da tutte le ricerche.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class DirectionOptimizingBfs {
+    private static final int ALFA = 15;
+    private static final int BETA = 18;
+    
+    // Parole della bitmap (64 vertici ciascuna) per blocco nel passo bottom-up
+    private static final int GRANA_PAROLE = 64;
+    
+    private final CsrGraph grafo;
+    private final CsrGraph trasposto;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto per il passo bottom-up.
+     */
+    public DirectionOptimizingBfs(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto, ad esempio un grafo simmetrico
+     * che è il trasposto di sé stesso.
+     */
+    public DirectionOptimizingBfs(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.grafo = grafo;
+        this.trasposto = trasposto;
+    }
+    
+    /**
+     * Restituisce il grafo trasposto usato dal passo bottom-up.
+     */
+    public CsrGraph getTranspose() {
+        return trasposto;
+    }
+    
+    /**
+     * Esegue la ricerca in ampiezza dal vertice iniziale.
+     */
+    public BfsResult bfs(int verticeIniziale) {
+        int vertici = grafo.getVerticesCount();
+        if (verticeIniziale < 0 || verticeIniziale >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + verticeIniziale);
+        }
+        
+        int[] distanza = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        int[] padre = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        
+        AtomicBitmap visitati = new AtomicBitmap(vertici);
+        visitati.set(verticeIniziale);
+        distanza[verticeIniziale] = 0;
+        padre[verticeIniziale] = verticeIniziale;
+        
+        int[] coda = {verticeIniziale};
+        AtomicBitmap frontiera = null;
+        AtomicBitmap prossima = null;
+        int dimensioneFrontiera = 1;
+        long archiFrontiera = grafo.getDegree(verticeIniziale);
+        long archiInesplorati = grafo.getEdgesCount() - archiFrontiera;
+        boolean bottomUp = false;
+        boolean inCrescita = true;
+        LongAdder archiScoperti = new LongAdder();
+        
+        for (int livello = 0; dimensioneFrontiera > 0; livello++) {
+            int dimensionePrecedente = dimensioneFrontiera;
+            
+            if (!bottomUp && archiFrontiera > archiInesplorati / ALFA) {
+                if (frontiera == null) {
+                    frontiera = new AtomicBitmap(vertici);
+                    prossima = new AtomicBitmap(vertici);
+                } else {
+                    frontiera.clear();
+                }
+                codaInBitmap(coda, frontiera);
+                bottomUp = true;
+            } else if (bottomUp && !inCrescita && dimensioneFrontiera < vertici / BETA) {
+                coda = bitmapInCoda(frontiera);
+                bottomUp = false;
+            }
+            
+            archiScoperti.reset();
+            if (bottomUp) {
+                prossima.clear();
+                dimensioneFrontiera = passoBottomUp(frontiera, prossima, visitati, distanza, padre,
+                        livello + 1, archiScoperti);
+                AtomicBitmap temp = frontiera;
+                frontiera = prossima;
+                prossima = temp;
+            } else {
+                coda = LevelSynchronousBfs.passoTopDown(grafo, coda, visitati, distanza, padre,
+                        livello + 1, archiScoperti);
+                dimensioneFrontiera = coda.length;
+            }
+            
+            archiFrontiera = archiScoperti.sum();
+            archiInesplorati -= archiFrontiera;
+            
+            // Si torna al top-down solo quando la frontiera ha iniziato a ridursi
+            inCrescita = dimensioneFrontiera >= dimensionePrecedente;
+        }
+        
+        return new BfsResult(verticeIniziale, distanza, padre);
+    }
+    
+    /**
+     * Passo bottom-up: ogni blocco di parole della bitmap è assegnato a un solo task, che può
+     * quindi scrivere le parole di prossima e di visitati senza compareAndSet.
+     * Restituisce il numero di vertici scoperti.
+     */
+    private int passoBottomUp(AtomicBitmap frontiera, AtomicBitmap prossima, AtomicBitmap visitati,
+            int[] distanza, int[] padre, int livello, LongAdder archiScoperti) {
+        int[] offsetsEntranti = trasposto.getOffsets();
+        int[] predecessori = trasposto.getTargets();
+        int[] offsets = grafo.getOffsets();
+        int vertici = grafo.getVerticesCount();
+        LongAdder numScoperti = new LongAdder();
+        
+        ParallelSortingAlgorithms.cicloParallelo(visitati.getWordCount(), GRANA_PAROLE, (primaParola, ultimaParola) -> {
+            int scopertiLocali = 0;
+            long archiLocali = 0;
+            for (int p = primaParola; p < ultimaParola; p++) {
+                long visitatiParola = visitati.getWord(p);
+                if (visitatiParola == -1L) {
+                    continue;
+                }
+                
+                long nuovi = 0;
+                int fine = Math.min(vertici, (p + 1) << 6);
+                for (int v = p << 6; v < fine; v++) {
+                    if ((visitatiParola & (1L << v)) != 0) {
+                        continue;
+                    }
+                    for (int j = offsetsEntranti[v]; j < offsetsEntranti[v + 1]; j++) {
+                        int predecessore = predecessori[j];
+                        if (frontiera.get(predecessore)) {
+                            distanza[v] = livello;
+                            padre[v] = predecessore;
+                            nuovi |= 1L << v;
+                            scopertiLocali++;
+                            archiLocali += offsets[v + 1] - offsets[v];
+                            break;
+                        }
+                    }
+                }
+                
+                if (nuovi != 0) {
+                    prossima.setWord(p, nuovi);
+                    visitati.setWord(p, visitatiParola | nuovi);
+                }
+            }
+            numScoperti.add(scopertiLocali);
+            archiScoperti.add(archiLocali);
+        });
+        
+        return numScoperti.intValue();
+    }
+    
+    /**
+     * Converte la frontiera da coda a bitmap.
+     */
+    private static void codaInBitmap(int[] coda, AtomicBitmap bitmap) {
+        ParallelSortingAlgorithms.cicloParallelo(coda.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                bitmap.set(coda[i]);
+            }
+        });
+    }
+    
+    /**
+     * Converte la frontiera da bitmap a coda, in ordine crescente di vertice.
+     */
+    private static int[] bitmapInCoda(AtomicBitmap bitmap) {
+        int numParole = bitmap.getWordCount();
+        int numBlocchi = Math.max(1, Math.min(numParole, ForkJoinPool.getCommonPoolParallelism() * 4));
+        int[] conteggi = new int[numBlocchi + 1];
+        
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                int conteggio = 0;
+                for (int p = inizioBlocco(b, numBlocchi, numParole); p < inizioBlocco(b + 1, numBlocchi, numParole); p++) {
+                    conteggio += Long.bitCount(bitmap.getWord(p));
+                }
+                conteggi[b + 1] = conteggio;
+            }
+        });
+        for (int b = 0; b < numBlocchi; b++) {
+            conteggi[b + 1] += conteggi[b];
+        }
+        
+        int[] coda = new int[conteggi[numBlocchi]];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                int posizione = conteggi[b];
+                for (int p = inizioBlocco(b, numBlocchi, numParole); p < inizioBlocco(b + 1, numBlocchi, numParole); p++) {
+                    long parola = bitmap.getWord(p);
+                    while (parola != 0) {
+                        coda[posizione++] = (p << 6) + Long.numberOfTrailingZeros(parola);
+                        parola &= parola - 1;
+                    }
+                }
+            }
+        });
+        return coda;
+    }
+    
+    private static int inizioBlocco(int blocco, int numBlocchi, int numParole) {
+        return (int) ((long) blocco * numParole / numBlocchi);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,512 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grafo diretto modificabile con letture concorrenti su istantanee consistenti.
+ *
+ * Il grafo è composto da una base CSR immutabile e, per ogni vertice modificato, da una catena
+ * di delta immutabili: ogni delta contiene gli archi aggiunti e quelli rimossi rispetto alla
+ * base ed è marcato con la versione dell'aggiornamento che lo ha creato. Gli scrittori sono
+ * serializzati da un lock, mentre i lettori non si bloccano mai: un'istantanea ricorda la
+ * versione corrente e per ogni vertice usa l'ultimo delta non successivo a quella versione.
+ *
+ * Quando i delta crescono una compattazione, eseguita in background sul pool comune, costruisce
+ * in parallelo una nuova base dall'istantanea corrente e la installa, ricalcolando i delta dei
+ * soli vertici modificati nel frattempo. Le istantanee già prese continuano a usare la vecchia
+ * base, che resta valida.
+ *
+ * Tra due compattazioni la memoria di un vertice molto aggiornato resta limitata in due modi.
+ * Quando il suo delta supera la radice del grado, il delta successivo riparte vuoto da una
+ * riga propria con la lista completa dei vicini. Inoltre le istantanee vive sono registrate
+ * con riferimenti deboli, e a ogni aggiornamento la catena del vertice viene tagliata dopo il
+ * primo delta che serve all'istantanea viva più vecchia.
+ *
+ * Il numero di vertici è fissato alla costruzione e gli archi formano un insieme: gli archi
+ * multipli della base vengono uniti.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class DynamicGraph {
+    
+    // Aggiornamenti minimi prima di una compattazione automatica
+    private static final int AGGIORNAMENTI_MINIMI_COMPATTAZIONE = 1 << 12;
+    
+    // Frazione degli archi della base oltre la quale i delta vengono compattati
+    private static final int FRAZIONE_COMPATTAZIONE = 16;
+    
+    // Archi minimi nel delta di un vertice prima di ripartire da una riga propria
+    private static final int DELTA_MINIMO_PER_VERTICE = 32;
+    
+    private final int vertici;
+    private final ReentrantLock lockScrittura = new ReentrantLock();
+    private final AtomicBoolean compattazioneInCorso = new AtomicBoolean();
+    private volatile Stato stato;
+    
+    // Vertice modificato da ogni versione successiva alla base corrente, protetto da lockScrittura
+    private int[] registro = new int[64];
+    private int numRegistrati;
+    
+    // Istantanee vive, ordinate per versione; quelle raccolte dal GC arrivano nella coda
+    private final ConcurrentSkipListSet<Registrazione> istantaneeVive = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong((Registrazione r) -> r.versione).thenComparingLong(r -> r.numero));
+    private final ReferenceQueue<GraphSnapshot> istantaneeRaccolte = new ReferenceQueue<>();
+    private final AtomicLong numeroRegistrazioni = new AtomicLong();
+    
+    // Versione fino alla quale le catene di delta possono essere tagliate
+    private volatile long limitePotatura;
+    
+    /**
+     * Costruttore di un grafo senza archi.
+     */
+    public DynamicGraph(int vertici) {
+        this(CsrGraph.fromEdgeList(vertici, new int[0], new int[0]));
+    }
+    
+    /**
+     * Costruttore a partire da un grafo CSR, che non viene modificato.
+     */
+    public DynamicGraph(CsrGraph base) {
+        this.vertici = base.getVerticesCount();
+        this.stato = new Stato(senzaDuplicati(base), 0, 0, new AtomicReferenceArray<>(vertici));
+    }
+    
+    /**
+     * Metodo principale per dimostrare letture e aggiornamenti concorrenti
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Grafo Dinamico con Istantanee");
+        System.out.println("=============================");
+        
+        CsrGraph base = GraphGenerators.rmat(18, 16, 42);
+        DynamicGraph grafo = new DynamicGraph(base);
+        int numBfs = 20;
+        
+        long tempoInizio = System.currentTimeMillis();
+        for (int i = 0; i < numBfs; i++) {
+            new LevelSynchronousBfs(base).bfs(i);
+        }
+        long tempoFine = System.currentTimeMillis();
+        System.out.printf("Tempo %d BFS sul grafo statico: %d ms%n", numBfs, (tempoFine - tempoInizio));
+        
+        // Uno scrittore inserisce e rimuove archi casuali a blocchi mentre le BFS leggono le istantanee
+        Thread scrittore = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(7);
+            try {
+                while (true) {
+                    for (int i = 0; i < 100; i++) {
+                        int sorgente = random.nextInt(grafo.getVerticesCount());
+                        int destinazione = random.nextInt(grafo.getVerticesCount());
+                        if (random.nextBoolean()) {
+                            grafo.addEdge(sorgente, destinazione);
+                        } else {
+                            grafo.removeEdge(sorgente, destinazione);
+                        }
+                    }
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                // Fine degli aggiornamenti
+            }
+        });
+        scrittore.start();
+        
+        tempoInizio = System.currentTimeMillis();
+        long versioneIniziale = grafo.snapshot().getVersion();
+        for (int i = 0; i < numBfs; i++) {
+            grafo.snapshot().bfs(i);
+        }
+        tempoFine = System.currentTimeMillis();
+        long aggiornamenti = grafo.snapshot().getVersion() - versioneIniziale;
+        scrittore.interrupt();
+        scrittore.join();
+        System.out.printf("Tempo %d BFS su istantanee durante gli aggiornamenti: %d ms, Aggiornamenti: %d%n",
+                numBfs, (tempoFine - tempoInizio), aggiornamenti);
+        
+        tempoInizio = System.currentTimeMillis();
+        grafo.compact();
+        tempoFine = System.currentTimeMillis();
+        System.out.printf("Tempo compattazione: %d ms, Archi: %d%n",
+                (tempoFine - tempoInizio), grafo.snapshot().getEdgesCount());
+    }
+    
+    /**
+     * Restituisce il numero di vertici nel grafo.
+     */
+    public int getVerticesCount() {
+        return vertici;
+    }
+    
+    /**
+     * Restituisce un'istantanea del grafo, che non cambia con gli aggiornamenti successivi.
+     * Non blocca e non copia il grafo.
+     */
+    public GraphSnapshot snapshot() {
+        // Anche senza scrittori le registrazioni delle istantanee raccolte non si accumulano
+        scartaRaccolte();
+        while (true) {
+            Stato corrente = stato;
+            long versione = corrente.versione;
+            GraphSnapshot istantanea = new GraphSnapshot(corrente, versione);
+            Registrazione registrazione = new Registrazione(istantanea, versione,
+                    numeroRegistrazioni.getAndIncrement(), istantaneeRaccolte);
+            istantaneeVive.add(registrazione);
+            
+            // Uno scrittore che non ha visto la registrazione può aver tagliato oltre questa versione
+            if (versione >= limitePotatura) {
+                return istantanea;
+            }
+            istantaneeVive.remove(registrazione);
+        }
+    }
+    
+    /**
+     * Aggiunge l'arco. Restituisce false se l'arco era già presente.
+     */
+    public boolean addEdge(int sorgente, int destinazione) {
+        return aggiorna(sorgente, destinazione, true);
+    }
+    
+    /**
+     * Rimuove l'arco. Restituisce false se l'arco non era presente.
+     */
+    public boolean removeEdge(int sorgente, int destinazione) {
+        return aggiorna(sorgente, destinazione, false);
+    }
+    
+    private boolean aggiorna(int sorgente, int destinazione, boolean inserimento) {
+        verificaVertice(sorgente);
+        verificaVertice(destinazione);
+        
+        boolean compatta;
+        lockScrittura.lock();
+        try {
+            Stato corrente = stato;
+            Delta precedente = corrente.delte.get(sorgente);
+            int[] riga = precedente == null ? null : precedente.riga;
+            int[] aggiunti = precedente == null ? Delta.VUOTO : precedente.aggiunti;
+            int[] rimossi = precedente == null ? Delta.VUOTO : precedente.rimossi;
+            boolean inRiferimento = corrente.contieneInRiferimento(sorgente, precedente, destinazione);
+            boolean presente = inRiferimento ? Arrays.binarySearch(rimossi, destinazione) < 0
+                    : Arrays.binarySearch(aggiunti, destinazione) >= 0;
+            if (presente == inserimento) {
+                return false;
+            }
+            
+            // Un arco del riferimento viene rimosso o ripristinato, gli altri aggiunti o tolti dagli aggiunti
+            if (inRiferimento) {
+                rimossi = inserimento ? senza(rimossi, destinazione) : con(rimossi, destinazione);
+            } else {
+                aggiunti = inserimento ? con(aggiunti, destinazione) : senza(aggiunti, destinazione);
+            }
+            
+            long versione = corrente.versione + 1;
+            Delta delta = new Delta(versione, riga, aggiunti, rimossi, null);
+            if (aggiunti.length + rimossi.length > limiteDelta(corrente.gradoRiferimento(sorgente, delta))) {
+                // Delta troppo grande: riparte vuoto da una riga propria con tutti i vicini
+                int[] vicini = GraphSnapshot.vicini(corrente, sorgente, delta);
+                delta = new Delta(versione, vicini, Delta.VUOTO, Delta.VUOTO, null);
+            }
+            delta.precedente = pota(precedente, versioneMinimaInUso(corrente.versione));
+            corrente.delte.set(sorgente, delta);
+            registra(sorgente);
+            // La scrittura volatile della versione pubblica il delta ai lettori
+            corrente.versione = versione;
+            compatta = numRegistrati >= Math.max(AGGIORNAMENTI_MINIMI_COMPATTAZIONE,
+                    corrente.base.getEdgesCount() / FRAZIONE_COMPATTAZIONE);
+        } finally {
+            lockScrittura.unlock();
+        }
+        
+        if (compatta && compattazioneInCorso.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    compatta();
+                } finally {
+                    compattazioneInCorso.set(false);
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Compatta i delta nella base, attendendo l'eventuale compattazione in background.
+     */
+    public void compact() {
+        while (!compattazioneInCorso.compareAndSet(false, true)) {
+            Thread.yield();
+        }
+        try {
+            compatta();
+        } finally {
+            compattazioneInCorso.set(false);
+        }
+    }
+    
+    /**
+     * Costruisce la nuova base senza bloccare gli scrittori, poi la installa con il lock,
+     * ricalcolando rispetto alla nuova base i delta dei vertici modificati nel frattempo.
+     */
+    private void compatta() {
+        GraphSnapshot istantanea = snapshot();
+        Stato vecchio = istantanea.stato;
+        CsrGraph nuovaBase = istantanea.toCsrGraph();
+        
+        lockScrittura.lock();
+        try {
+            long versioneBase = istantanea.getVersion();
+            Stato nuovo = new Stato(nuovaBase, versioneBase, vecchio.versione, new AtomicReferenceArray<>(vertici));
+            int primoSuccessivo = (int) (versioneBase - vecchio.versioneBase);
+            for (int i = primoSuccessivo; i < numRegistrati; i++) {
+                int v = registro[i];
+                if (nuovo.delte.get(v) == null) {
+                    Delta ultimo = vecchio.delte.get(v);
+                    int[] attuali = GraphSnapshot.vicini(vecchio, v, ultimo);
+                    int[] inBase = nuovaBase.getNeighbors(v);
+                    int[] aggiunti = differenza(attuali, inBase);
+                    int[] rimossi = differenza(inBase, attuali);
+                    nuovo.delte.set(v, aggiunti.length + rimossi.length > limiteDelta(inBase.length)
+                            ? new Delta(ultimo.versione, attuali, Delta.VUOTO, Delta.VUOTO, null)
+                            : new Delta(ultimo.versione, null, aggiunti, rimossi, null));
+                }
+            }
+            // Il registro resta allineato alle versioni successive alla nuova base
+            System.arraycopy(registro, primoSuccessivo, registro, 0, numRegistrati - primoSuccessivo);
+            numRegistrati -= primoSuccessivo;
+            stato = nuovo;
+        } finally {
+            lockScrittura.unlock();
+        }
+    }
+    
+    /**
+     * Restituisce la versione dell'istantanea viva più vecchia, o la versione corrente se non
+     * ce ne sono, e la pubblica come limite di potatura. Il limite provvisorio pari alla versione
+     * corrente fa ripetere la registrazione a chi legge una versione più vecchia mentre l'insieme
+     * delle istantanee viene esaminato.
+     */
+    private long versioneMinimaInUso(long versioneCorrente) {
+        scartaRaccolte();
+        limitePotatura = versioneCorrente;
+        long minima = versioneCorrente;
+        for (Registrazione prima : istantaneeVive) {
+            minima = Math.min(minima, prima.versione);
+            break;
+        }
+        limitePotatura = minima;
+        return minima;
+    }
+    
+    /**
+     * Toglie dall'insieme le registrazioni delle istantanee già raccolte dal GC
+     */
+    private void scartaRaccolte() {
+        Object raccolta;
+        while ((raccolta = istantaneeRaccolte.poll()) != null) {
+            istantaneeVive.remove(raccolta);
+        }
+    }
+    
+    /**
+     * Taglia la catena dopo il primo delta non successivo alla versione, l'ultimo che un'istantanea
+     * viva può leggere, e restituisce il delta di partenza
+     */
+    private static Delta pota(Delta delta, long versioneMinima) {
+        Delta corrente = delta;
+        while (corrente != null && corrente.versione > versioneMinima) {
+            corrente = corrente.precedente;
+        }
+        if (corrente != null) {
+            corrente.precedente = null;
+        }
+        return delta;
+    }
+    
+    /**
+     * Archi massimi nel delta di un vertice con il grado di riferimento dato. Con la radice del
+     * grado il costo di copiare il delta a ogni aggiornamento e quello di ricostruire la riga
+     * quando il delta è pieno si bilanciano.
+     */
+    private static int limiteDelta(int gradoRiferimento) {
+        return Math.max(DELTA_MINIMO_PER_VERTICE, (int) Math.sqrt(gradoRiferimento));
+    }
+    
+    private void registra(int vertice) {
+        if (numRegistrati == registro.length) {
+            registro = Arrays.copyOf(registro, 2 * numRegistrati);
+        }
+        registro[numRegistrati++] = vertice;
+    }
+    
+    private void verificaVertice(int vertice) {
+        if (vertice < 0 || vertice >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + vertice);
+        }
+    }
+    
+    /**
+     * Copia ordinata di un array ordinato con il valore in più
+     */
+    private static int[] con(int[] array, int valore) {
+        int posizione = -Arrays.binarySearch(array, valore) - 1;
+        int[] risultato = new int[array.length + 1];
+        System.arraycopy(array, 0, risultato, 0, posizione);
+        risultato[posizione] = valore;
+        System.arraycopy(array, posizione, risultato, posizione + 1, array.length - posizione);
+        return risultato;
+    }
+    
+    /**
+     * Copia ordinata di un array ordinato senza il valore
+     */
+    private static int[] senza(int[] array, int valore) {
+        int posizione = Arrays.binarySearch(array, valore);
+        int[] risultato = new int[array.length - 1];
+        System.arraycopy(array, 0, risultato, 0, posizione);
+        System.arraycopy(array, posizione + 1, risultato, posizione, array.length - posizione - 1);
+        return risultato;
+    }
+    
+    /**
+     * Elementi del primo array ordinato che non compaiono nel secondo
+     */
+    private static int[] differenza(int[] a, int[] b) {
+        int[] risultato = new int[a.length];
+        int n = 0;
+        int j = 0;
+        for (int valore : a) {
+            while (j < b.length && b[j] < valore) {
+                j++;
+            }
+            if (j == b.length || b[j] != valore) {
+                risultato[n++] = valore;
+            }
+        }
+        return Arrays.copyOf(risultato, n);
+    }
+    
+    /**
+     * Copia del grafo con i vicini ordinati e senza archi multipli
+     */
+    private static CsrGraph senzaDuplicati(CsrGraph grafo) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsetsOriginali = grafo.getOffsets();
+        int[] ordinati = Arrays.copyOf(grafo.getTargets(), grafo.getEdgesCount());
+        CsrGraph.ordinaVicini(offsetsOriginali, ordinati);
+        
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int distinti = 0;
+                for (int i = offsetsOriginali[v]; i < offsetsOriginali[v + 1]; i++) {
+                    if (i == offsetsOriginali[v] || ordinati[i] != ordinati[i - 1]) {
+                        distinti++;
+                    }
+                }
+                offsets[v + 1] = distinti;
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int posizione = offsets[v];
+                for (int i = offsetsOriginali[v]; i < offsetsOriginali[v + 1]; i++) {
+                    if (i == offsetsOriginali[v] || ordinati[i] != ordinati[i - 1]) {
+                        targets[posizione++] = ordinati[i];
+                    }
+                }
+            }
+        });
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Base e delta su cui lavorano gli scrittori; una compattazione ne installa uno nuovo.
+     * La base contiene il grafo alla versioneBase, i delta gli aggiornamenti successivi.
+     */
+    static class Stato {
+        final CsrGraph base;
+        final long versioneBase;
+        final AtomicReferenceArray<Delta> delte;
+        volatile long versione;
+        
+        Stato(CsrGraph base, long versioneBase, long versione, AtomicReferenceArray<Delta> delte) {
+            this.base = base;
+            this.versioneBase = versioneBase;
+            this.delte = delte;
+            this.versione = versione;
+        }
+        
+        /**
+         * Restituisce true se l'arco è nella riga di riferimento del delta, cioè nella riga propria
+         * o, se non c'è, nella base
+         */
+        boolean contieneInRiferimento(int sorgente, Delta delta, int destinazione) {
+            if (delta != null && delta.riga != null) {
+                return Arrays.binarySearch(delta.riga, destinazione) >= 0;
+            }
+            return Arrays.binarySearch(base.getTargets(), base.getNeighborsStart(sorgente),
+                    base.getNeighborsEnd(sorgente), destinazione) >= 0;
+        }
+        
+        int gradoRiferimento(int sorgente, Delta delta) {
+            return delta != null && delta.riga != null ? delta.riga.length : base.getDegree(sorgente);
+        }
+    }
+    
+    /**
+     * Archi aggiunti e rimossi di un vertice, dalla versione data in poi, rispetto alla riga di
+     * riferimento: la riga propria con la lista ordinata dei vicini se c'è, altrimenti la riga
+     * della base. Il delta precedente serve alle istantanee più vecchie.
+     */
+    static class Delta {
+        static final int[] VUOTO = new int[0];
+        
+        final long versione;
+        final int[] riga;
+        final int[] aggiunti;
+        final int[] rimossi;
+        
+        // Scritto solo dalla potatura, quando nessuna istantanea viva può più seguirlo
+        Delta precedente;
+        
+        Delta(long versione, int[] riga, int[] aggiunti, int[] rimossi, Delta precedente) {
+            this.versione = versione;
+            this.riga = riga;
+            this.aggiunti = aggiunti;
+            this.rimossi = rimossi;
+            this.precedente = precedente;
+        }
+    }
+    
+    /**
+     * Riferimento debole a un'istantanea con la sua versione
+     */
+    private static class Registrazione extends WeakReference<GraphSnapshot> {
+        final long versione;
+        final long numero;
+        
+        Registrazione(GraphSnapshot istantanea, long versione, long numero, ReferenceQueue<GraphSnapshot> coda) {
+            super(istantanea, coda);
+            this.versione = versione;
+            this.numero = numero;
+        }
+    }
+}
\ No newline at end of file
@@ -118,11 +118,21 @@ public class Graph {
             grafo.addEdge(i, i + 1);
         }
         
-        // Aggiunge archi casuali
-        for (int i = 0; i < vertici; i++) {
-            for (int j = 0; j < vertici; j++) {
-                if (i != j && random.nextDouble() < probabilitaArco) {
-                    grafo.addEdge(i, j);
+        // Aggiunge archi casuali: la distanza tra un arco e il successivo della stessa riga
+        // segue la distribuzione geometrica, quindi si estrae un numero per arco e non per coppia
+        if (probabilitaArco > 0) {
+            double logNonArco = Math.log1p(-probabilitaArco);
+            for (int i = 0; i < vertici; i++) {
+                long j = -1;
+                while (true) {
+                    double salto = Math.floor(Math.log(1.0 - random.nextDouble()) / logNonArco);
+                    if (salto >= vertici - j - 1) {
+                        break;
+                    }
+                    j += 1 + (long) salto;
+                    if (j != i) {
+                        grafo.addEdge(i, (int) j);
+                    }
                 }
             }
         }
@@ -0,0 +1,277 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Generatori paralleli di grafi casuali in formato CSR.
+ *
+ * Il lavoro è diviso in blocchi di dimensione fissa, ognuno con un proprio flusso
+ * SplittableRandom derivato dal seme: il grafo generato dipende quindi solo dal seme e non dal
+ * numero di thread. Ogni generatore esegue due passate con gli stessi flussi, la prima per
+ * contare i gradi e la seconda per scrivere gli archi direttamente negli array CSR, senza
+ * passare da una lista di archi intermedia.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class GraphGenerators {
+    
+    // Righe per blocco nel modello di Erdős–Rényi
+    private static final int RIGHE_PER_BLOCCO = 1024;
+    
+    // Archi per blocco nel modello R-MAT
+    private static final int ARCHI_PER_BLOCCO = 1 << 16;
+    
+    // Probabilità dei quadranti usate dal benchmark Graph500
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+    
+    public static void main(String[] args) {
+        System.out.println("Generatori Paralleli di Grafi");
+        System.out.println("=============================");
+        
+        int[] dimensioni = {10_000, 100_000, 1_000_000};
+        for (int vertici : dimensioni) {
+            double probabilita = 16.0 / vertici;
+            long tempoInizio = System.currentTimeMillis();
+            CsrGraph grafo = erdosRenyi(vertici, probabilita, 42);
+            long tempoFine = System.currentTimeMillis();
+            System.out.printf("Erdős–Rényi G(%d, %.2e): %d ms, Archi: %d%n",
+                    vertici, probabilita, (tempoFine - tempoInizio), grafo.getEdgesCount());
+        }
+        
+        for (int scala = 16; scala <= 20; scala += 2) {
+            long tempoInizio = System.currentTimeMillis();
+            CsrGraph grafo = rmat(scala, 16, 42);
+            long tempoFine = System.currentTimeMillis();
+            int gradoMassimo = 0;
+            for (int v = 0; v < grafo.getVerticesCount(); v++) {
+                gradoMassimo = Math.max(gradoMassimo, grafo.getDegree(v));
+            }
+            System.out.printf("R-MAT scala %d: %d ms, Archi: %d, Grado massimo: %d%n",
+                    scala, (tempoFine - tempoInizio), grafo.getEdgesCount(), gradoMassimo);
+        }
+    }
+    
+    /**
+     * Genera un grafo diretto G(n, p) senza cappi: ogni arco (i, j) con i != j è presente
+     * indipendentemente con probabilità p.
+     *
+     * Invece di estrarre un numero per ogni coppia, la distanza tra un arco e il successivo
+     * della stessa riga viene estratta dalla distribuzione geometrica: il costo è O(V + E).
+     */
+    public static CsrGraph erdosRenyi(int vertici, double probabilitaArco, long seme) {
+        if (vertici < 0) {
+            throw new IllegalArgumentException("Il numero di vertici non può essere negativo");
+        }
+        if (probabilitaArco < 0 || probabilitaArco > 1) {
+            throw new IllegalArgumentException("La probabilità dell'arco deve essere tra 0 e 1");
+        }
+        
+        int numBlocchi = (vertici + RIGHE_PER_BLOCCO - 1) / RIGHE_PER_BLOCCO;
+        long[] semi = semiBlocchi(seme, numBlocchi);
+        int[] offsets = new int[vertici + 1];
+        
+        // Prima passata: grado di ogni riga
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                SplittableRandom random = new SplittableRandom(semi[b]);
+                int fine = Math.min(vertici, (b + 1) * RIGHE_PER_BLOCCO);
+                for (int riga = b * RIGHE_PER_BLOCCO; riga < fine; riga++) {
+                    offsets[riga + 1] = campionaRiga(random, riga, vertici, probabilitaArco, null, 0);
+                }
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        // Seconda passata: stessi flussi, gli archi vengono scritti nella loro posizione finale
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                SplittableRandom random = new SplittableRandom(semi[b]);
+                int fine = Math.min(vertici, (b + 1) * RIGHE_PER_BLOCCO);
+                for (int riga = b * RIGHE_PER_BLOCCO; riga < fine; riga++) {
+                    campionaRiga(random, riga, vertici, probabilitaArco, targets, offsets[riga]);
+                }
+            }
+        });
+        
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Estrae gli archi di una riga saltando tra un arco e l'altro un numero geometrico di
+     * colonne. Se targets non è null scrive le destinazioni da posizione in poi.
+     * Restituisce il numero di archi della riga.
+     */
+    private static int campionaRiga(SplittableRandom random, int riga, int vertici, double probabilita,
+            int[] targets, int posizione) {
+        if (probabilita == 0 || vertici < 2) {
+            return 0;
+        }
+        
+        // Le colonne candidate sono le vertici - 1 diverse dalla riga
+        long candidati = vertici - 1;
+        double logNonArco = Math.log1p(-probabilita);
+        int numArchi = 0;
+        long indice = -1;
+        
+        while (true) {
+            double salto = Math.floor(Math.log(1.0 - random.nextDouble()) / logNonArco);
+            if (salto >= candidati - indice - 1) {
+                return numArchi;
+            }
+            indice += 1 + (long) salto;
+            if (targets != null) {
+                targets[posizione + numArchi] = indice < riga ? (int) indice : (int) indice + 1;
+            }
+            numArchi++;
+        }
+    }
+    
+    /**
+     * Genera un grafo R-MAT con i parametri del benchmark Graph500.
+     */
+    public static CsrGraph rmat(int scala, int fattoreArchi, long seme) {
+        return rmat(scala, fattoreArchi, RMAT_A, RMAT_B, RMAT_C, seme);
+    }
+    
+    /**
+     * Genera un grafo diretto R-MAT con 2^scala vertici e fattoreArchi * 2^scala archi.
+     *
+     * Ogni arco sceglie, un bit alla volta, uno dei quattro quadranti della matrice di
+     * adiacenza con probabilità a, b, c e 1 - a - b - c: la distribuzione dei gradi risultante
+     * segue una legge di potenza. Il grafo può contenere cappi e archi multipli; i vicini di
+     * ogni vertice sono in ordine crescente.
+     */
+    public static CsrGraph rmat(int scala, int fattoreArchi, double a, double b, double c, long seme) {
+        if (scala < 0 || scala > 30) {
+            throw new IllegalArgumentException("La scala deve essere tra 0 e 30");
+        }
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("Le probabilità dei quadranti devono essere non negative e con somma al più 1");
+        }
+        long archiRichiesti = (long) fattoreArchi << scala;
+        if (fattoreArchi < 0 || archiRichiesti > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Il numero di archi deve essere tra 0 e " + (Integer.MAX_VALUE - 8));
+        }
+        
+        int vertici = 1 << scala;
+        int numArchi = (int) archiRichiesti;
+        int numBlocchi = (int) ((numArchi + (long) ARCHI_PER_BLOCCO - 1) / ARCHI_PER_BLOCCO);
+        long[] semi = semiBlocchi(seme, numBlocchi);
+        AtomicIntegerArray contatori = new AtomicIntegerArray(vertici);
+        long[] soglie = {sogliaIntera(a), sogliaIntera(a + b), sogliaIntera(a + b + c)};
+        
+        // Prima passata: grado uscente di ogni vertice
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int blocco = primo; blocco < ultimo; blocco++) {
+                SplittableRandom random = new SplittableRandom(semi[blocco]);
+                int fine = (int) Math.min(numArchi, (blocco + 1L) * ARCHI_PER_BLOCCO);
+                for (int i = blocco * ARCHI_PER_BLOCCO; i < fine; i++) {
+                    long arco = arcoRmat(random, scala, soglie);
+                    contatori.getAndIncrement((int) (arco >>> 32));
+                }
+            }
+        });
+        
+        int[] offsets = new int[vertici + 1];
+        for (int v = 0; v < vertici; v++) {
+            offsets[v + 1] = contatori.get(v);
+            contatori.set(v, 0);
+        }
+        CsrGraph.sommaPrefissa(offsets);
+        
+        // Seconda passata: stessi flussi, ogni arco occupa la prossima posizione libera della sua sorgente
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int blocco = primo; blocco < ultimo; blocco++) {
+                SplittableRandom random = new SplittableRandom(semi[blocco]);
+                int fine = (int) Math.min(numArchi, (blocco + 1L) * ARCHI_PER_BLOCCO);
+                for (int i = blocco * ARCHI_PER_BLOCCO; i < fine; i++) {
+                    long arco = arcoRmat(random, scala, soglie);
+                    int sorgente = (int) (arco >>> 32);
+                    targets[offsets[sorgente] + contatori.getAndIncrement(sorgente)] = (int) arco;
+                }
+            }
+        });
+        
+        // L'ordine degli archi di un vertice dipende dai thread: ordinandoli il risultato è deterministico
+        CsrGraph.ordinaVicini(offsets, targets);
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Assegna a ogni arco del grafo un peso intero uniforme in [1, pesoMassimo].
+     * Come per i generatori, i pesi dipendono solo dal seme e non dal numero di thread.
+     */
+    public static WeightedCsrGraph randomWeights(CsrGraph grafo, int pesoMassimo, long seme) {
+        if (pesoMassimo < 1) {
+            throw new IllegalArgumentException("Il peso massimo deve essere almeno 1");
+        }
+        
+        int numArchi = grafo.getEdgesCount();
+        int numBlocchi = (int) ((numArchi + (long) ARCHI_PER_BLOCCO - 1) / ARCHI_PER_BLOCCO);
+        long[] semi = semiBlocchi(seme, numBlocchi);
+        int[] pesi = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int blocco = primo; blocco < ultimo; blocco++) {
+                SplittableRandom random = new SplittableRandom(semi[blocco]);
+                int fine = (int) Math.min(numArchi, (blocco + 1L) * ARCHI_PER_BLOCCO);
+                for (int i = blocco * ARCHI_PER_BLOCCO; i < fine; i++) {
+                    pesi[i] = 1 + random.nextInt(pesoMassimo);
+                }
+            }
+        });
+        return new WeightedCsrGraph(grafo, pesi);
+    }
+    
+    /**
+     * Estrae un arco R-MAT; restituisce la sorgente nei 32 bit alti e la destinazione in quelli bassi.
+     *
+     * Le soglie cumulative dei quadranti sono espresse su 32 bit, così ogni nextLong fornisce
+     * le estrazioni di due livelli.
+     */
+    private static long arcoRmat(SplittableRandom random, int scala, long[] soglie) {
+        int sorgente = 0;
+        int destinazione = 0;
+        long casuale = 0;
+        
+        for (int bit = scala - 1; bit >= 0; bit--) {
+            if (((scala - 1 - bit) & 1) == 0) {
+                casuale = random.nextLong();
+            } else {
+                casuale <<= 32;
+            }
+            long r = casuale >>> 32;
+            if (r >= soglie[1]) {
+                sorgente |= 1 << bit;
+            }
+            if ((r >= soglie[0] && r < soglie[1]) || r >= soglie[2]) {
+                destinazione |= 1 << bit;
+            }
+        }
+        return ((long) sorgente << 32) | (destinazione & 0xFFFFFFFFL);
+    }
+    
+    private static long sogliaIntera(double probabilita) {
+        return Math.min(1L << 32, Math.round(probabilita * (1L << 32)));
+    }
+    
+    /**
+     * Semi dei flussi dei blocchi, derivati in sequenza dal seme principale
+     */
+    private static long[] semiBlocchi(long seme, int numBlocchi) {
+        SplittableRandom radice = new SplittableRandom(seme);
+        long[] semi = new long[numBlocchi];
+        for (int b = 0; b < numBlocchi; b++) {
+            semi[b] = radice.split().nextLong();
+        }
+        return semi;
+    }
+}
\ No newline at end of file
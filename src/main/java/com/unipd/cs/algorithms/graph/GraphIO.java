@@ -0,0 +1,435 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Importazione ed esportazione di grafi su file.
+ *
+ * Le liste di archi possono essere testuali (una coppia "sorgente destinazione" per riga,
+ * con righe di commento che iniziano con # o %) o binarie (coppie di interi a 32 bit).
+ * L'importazione divide il file in blocchi analizzati in parallelo attraverso mappature
+ * FileChannel, e lo analizza più volte invece di accumulare gli archi in memoria: la prima
+ * passata conta i gradi, la seconda scrive le destinazioni direttamente negli array CSR.
+ *
+ * Il formato CSR binario, letto senza copie da {@link MappedGraph}, è composto da:
+ * <ul>
+ *   <li>intestazione di 32 byte: MAGIA, VERSIONE, numero di vertici (long), numero di archi (long), 8 byte riservati;</li>
+ *   <li>sezione degli offset: vertici + 1 valori long;</li>
+ *   <li>sezione dei target: archi valori int.</li>
+ * </ul>
+ * Tutti i valori sono in ordine big-endian, come nei file di {@link com.unipd.cs.algorithms.ExternalSort}.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class GraphIO {
+    
+    // Identificativo del formato CSR binario ("CSRG")
+    static final int MAGIA = 0x43535247;
+    
+    // Versione del formato CSR binario
+    static final int VERSIONE = 1;
+    
+    // Dimensione dell'intestazione del formato CSR binario, in byte
+    static final int DIMENSIONE_INTESTAZIONE = 32;
+    
+    // Limite di una singola mappatura, che è indicizzata con int
+    static final int BYTE_MASSIMI_PER_MAPPATURA = 1 << 30;
+    
+    // Lunghezza massima di una riga che attraversa il confine di un blocco
+    private static final int MARGINE_RIGA = 1 << 16;
+    
+    // Dimensione minima di un blocco analizzato da un singolo task, in byte
+    private static final int BYTE_MINIMI_PER_BLOCCO = 1 << 20;
+    
+    /**
+     * Metodo principale per dimostrare importazione e mappatura dei grafi
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println("Importazione e Mappatura di Grafi");
+        System.out.println("=================================");
+        
+        CsrGraph grafo = GraphGenerators.rmat(18, 16, 42);
+        System.out.printf("Grafo R-MAT: %d vertici, %d archi%n", grafo.getVerticesCount(), grafo.getEdgesCount());
+        
+        Path testo = Files.createTempFile("archi-", ".txt");
+        Path binario = Files.createTempFile("archi-", ".bin");
+        Path csr = Files.createTempFile("grafo-", ".csr");
+        try {
+            writeEdgeListText(grafo, testo);
+            writeEdgeListBinary(grafo, binario);
+            writeCsr(grafo, csr);
+            System.out.printf("File: testo %d MB, binario %d MB, CSR %d MB%n",
+                    Files.size(testo) >> 20, Files.size(binario) >> 20, Files.size(csr) >> 20);
+            
+            long tempoInizio = System.currentTimeMillis();
+            CsrGraph daTesto = readEdgeListText(testo);
+            long tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo importazione testo: %d ms, Archi: %d%n",
+                    (tempoFine - tempoInizio), daTesto.getEdgesCount());
+            
+            tempoInizio = System.currentTimeMillis();
+            CsrGraph daBinario = readEdgeListBinary(binario);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo importazione binaria: %d ms, Archi: %d%n",
+                    (tempoFine - tempoInizio), daBinario.getEdgesCount());
+            
+            tempoInizio = System.currentTimeMillis();
+            MappedGraph mappato = MappedGraph.map(csr);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo mappatura CSR: %d ms, Archi: %d%n",
+                    (tempoFine - tempoInizio), mappato.getEdgesCount());
+            
+            tempoInizio = System.currentTimeMillis();
+            BfsResult risultato = mappato.bfs(0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("Tempo BFS su grafo mappato: %d ms, Visitati: %d vertici%n",
+                    (tempoFine - tempoInizio), risultato.getReachedCount());
+        } finally {
+            Files.deleteIfExists(testo);
+            Files.deleteIfExists(binario);
+            Files.deleteIfExists(csr);
+        }
+    }
+    
+    /**
+     * Importa una lista di archi testuale; il numero di vertici è il massimo identificativo più uno.
+     */
+    public static CsrGraph readEdgeListText(Path file) throws IOException {
+        return readEdgeListText(file, -1);
+    }
+    
+    /**
+     * Importa una lista di archi testuale con il numero di vertici dato.
+     * I vicini di ogni vertice risultano in ordine crescente.
+     */
+    public static CsrGraph readEdgeListText(Path file, int vertici) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dimensione = canale.size();
+            int parallelismo = ForkJoinPool.getCommonPoolParallelism();
+            long dimensioneBlocco = Math.min(BYTE_MASSIMI_PER_MAPPATURA - MARGINE_RIGA - 1,
+                    Math.max(BYTE_MINIMI_PER_BLOCCO, (dimensione + 4L * parallelismo - 1) / (4L * parallelismo)));
+            int numBlocchi = (int) Math.max(1, (dimensione + dimensioneBlocco - 1) / dimensioneBlocco);
+            
+            // Ogni blocco possiede le righe che iniziano nel suo intervallo: la finestra include il
+            // byte precedente, per sapere se il blocco inizia a capo, e un margine per l'ultima riga
+            MappedByteBuffer[] finestre = new MappedByteBuffer[numBlocchi];
+            int[] inizi = new int[numBlocchi];
+            int[] fini = new int[numBlocchi];
+            boolean[] fineFile = new boolean[numBlocchi];
+            for (int b = 0; b < numBlocchi; b++) {
+                long inizio = b * dimensioneBlocco;
+                long fine = Math.min(dimensione, inizio + dimensioneBlocco);
+                long inizioFinestra = Math.max(0, inizio - 1);
+                long fineFinestra = Math.min(dimensione, fine + MARGINE_RIGA);
+                finestre[b] = canale.map(FileChannel.MapMode.READ_ONLY, inizioFinestra, fineFinestra - inizioFinestra);
+                inizi[b] = (int) (inizio - inizioFinestra);
+                fini[b] = (int) (fine - inizioFinestra);
+                fineFile[b] = fineFinestra == dimensione;
+            }
+            
+            BloccoArchi blocchi = (b, visitatore) -> analizzaTesto(finestre[b], inizi[b], fini[b], fineFile[b], visitatore);
+            return costruisci(vertici, numBlocchi, blocchi);
+        }
+    }
+    
+    /**
+     * Importa una lista di archi binaria; il numero di vertici è il massimo identificativo più uno.
+     */
+    public static CsrGraph readEdgeListBinary(Path file) throws IOException {
+        return readEdgeListBinary(file, -1);
+    }
+    
+    /**
+     * Importa una lista di archi binaria, composta da coppie di interi a 32 bit big-endian
+     * (sorgente, destinazione), con il numero di vertici dato.
+     * I vicini di ogni vertice risultano in ordine crescente.
+     */
+    public static CsrGraph readEdgeListBinary(Path file, int vertici) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dimensione = canale.size();
+            if (dimensione % (2 * Integer.BYTES) != 0) {
+                throw new IllegalArgumentException("La dimensione del file deve essere un multiplo di "
+                        + 2 * Integer.BYTES + " byte");
+            }
+            
+            long numArchi = dimensione / (2 * Integer.BYTES);
+            int parallelismo = ForkJoinPool.getCommonPoolParallelism();
+            long archiPerBlocco = Math.min(BYTE_MASSIMI_PER_MAPPATURA / (2 * Integer.BYTES),
+                    Math.max(BYTE_MINIMI_PER_BLOCCO / (2 * Integer.BYTES), (numArchi + 4L * parallelismo - 1) / (4L * parallelismo)));
+            int numBlocchi = (int) Math.max(1, (numArchi + archiPerBlocco - 1) / archiPerBlocco);
+            
+            IntBuffer[] finestre = new IntBuffer[numBlocchi];
+            for (int b = 0; b < numBlocchi; b++) {
+                long inizio = b * archiPerBlocco;
+                long fine = Math.min(numArchi, inizio + archiPerBlocco);
+                finestre[b] = canale.map(FileChannel.MapMode.READ_ONLY, inizio * 2 * Integer.BYTES,
+                        (fine - inizio) * 2 * Integer.BYTES).asIntBuffer();
+            }
+            
+            BloccoArchi blocchi = (b, visitatore) -> {
+                IntBuffer finestra = finestre[b];
+                for (int i = 0; i < finestra.limit(); i += 2) {
+                    visitatore.arco(finestra.get(i), finestra.get(i + 1));
+                }
+            };
+            return costruisci(vertici, numBlocchi, blocchi);
+        }
+    }
+    
+    /**
+     * Scrive il grafo come lista di archi testuale.
+     */
+    public static void writeEdgeListText(CsrGraph grafo, Path file) throws IOException {
+        try (BufferedWriter scrittore = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            for (int v = 0; v < grafo.getVerticesCount(); v++) {
+                for (int i = grafo.getNeighborsStart(v); i < grafo.getNeighborsEnd(v); i++) {
+                    scrittore.write(Integer.toString(v));
+                    scrittore.write(' ');
+                    scrittore.write(Integer.toString(grafo.getTarget(i)));
+                    scrittore.write('\n');
+                }
+            }
+        }
+    }
+    
+    /**
+     * Scrive il grafo come lista di archi binaria.
+     */
+    public static void writeEdgeListBinary(CsrGraph grafo, Path file) throws IOException {
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        long archiPerFinestra = BYTE_MASSIMI_PER_MAPPATURA / (2 * Integer.BYTES);
+        
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int v = 0;
+            for (long inizio = 0; inizio < targets.length; inizio += archiPerFinestra) {
+                int fine = (int) Math.min(targets.length, inizio + archiPerFinestra);
+                IntBuffer finestra = canale.map(FileChannel.MapMode.READ_WRITE, inizio * 2 * Integer.BYTES,
+                        (fine - inizio) * 2 * Integer.BYTES).asIntBuffer();
+                for (int i = (int) inizio; i < fine; i++) {
+                    while (offsets[v + 1] <= i) {
+                        v++;
+                    }
+                    finestra.put(v);
+                    finestra.put(targets[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Scrive il grafo nel formato CSR binario.
+     */
+    public static void writeCsr(CsrGraph grafo, Path file) throws IOException {
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        long inizioTargets = DIMENSIONE_INTESTAZIONE + (long) offsets.length * Long.BYTES;
+        
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer intestazione = ByteBuffer.allocate(DIMENSIONE_INTESTAZIONE);
+            intestazione.putInt(MAGIA).putInt(VERSIONE)
+                    .putLong(grafo.getVerticesCount()).putLong(targets.length).putLong(0L);
+            intestazione.flip();
+            while (intestazione.hasRemaining()) {
+                canale.write(intestazione, intestazione.position());
+            }
+            
+            int longPerFinestra = BYTE_MASSIMI_PER_MAPPATURA / Long.BYTES;
+            for (int inizio = 0; inizio < offsets.length; inizio += longPerFinestra) {
+                int lunghezza = Math.min(longPerFinestra, offsets.length - inizio);
+                LongBuffer finestra = canale.map(FileChannel.MapMode.READ_WRITE,
+                        DIMENSIONE_INTESTAZIONE + (long) inizio * Long.BYTES, (long) lunghezza * Long.BYTES).asLongBuffer();
+                for (int i = inizio; i < inizio + lunghezza; i++) {
+                    finestra.put(offsets[i]);
+                }
+            }
+            
+            int interiPerFinestra = BYTE_MASSIMI_PER_MAPPATURA / Integer.BYTES;
+            for (int inizio = 0; inizio < targets.length; inizio += interiPerFinestra) {
+                int lunghezza = Math.min(interiPerFinestra, targets.length - inizio);
+                IntBuffer finestra = canale.map(FileChannel.MapMode.READ_WRITE,
+                        inizioTargets + (long) inizio * Integer.BYTES, (long) lunghezza * Integer.BYTES).asIntBuffer();
+                finestra.put(targets, inizio, lunghezza);
+            }
+        }
+    }
+    
+    /**
+     * Legge un file nel formato CSR binario copiandolo in memoria.
+     */
+    public static CsrGraph readCsr(Path file) throws IOException {
+        return MappedGraph.map(file).toCsrGraph();
+    }
+    
+    /**
+     * Riceve gli archi letti da un blocco del file
+     */
+    private interface VisitatoreArchi {
+        void arco(int sorgente, int destinazione);
+    }
+    
+    /**
+     * Blocco del file che può essere analizzato più volte, anche in parallelo con gli altri
+     */
+    private interface BloccoArchi {
+        void visita(int blocco, VisitatoreArchi visitatore);
+    }
+    
+    /**
+     * Costruisce il grafo CSR analizzando i blocchi in parallelo: una passata per il massimo
+     * identificativo (solo se vertici è negativo), una per i gradi e una per le destinazioni.
+     */
+    private static CsrGraph costruisci(int vertici, int numBlocchi, BloccoArchi blocchi) {
+        if (vertici < 0) {
+            int[] massimi = new int[numBlocchi];
+            ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+                for (int b = primo; b < ultimo; b++) {
+                    int[] massimo = {-1};
+                    blocchi.visita(b, (sorgente, destinazione) -> {
+                        verificaVertice(sorgente, Integer.MAX_VALUE);
+                        verificaVertice(destinazione, Integer.MAX_VALUE);
+                        massimo[0] = Math.max(massimo[0], Math.max(sorgente, destinazione));
+                    });
+                    massimi[b] = massimo[0];
+                }
+            });
+            for (int massimo : massimi) {
+                vertici = Math.max(vertici, massimo);
+            }
+            vertici++;
+        }
+        
+        int numVertici = vertici;
+        AtomicIntegerArray contatori = new AtomicIntegerArray(numVertici);
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                blocchi.visita(b, (sorgente, destinazione) -> {
+                    verificaVertice(sorgente, numVertici);
+                    verificaVertice(destinazione, numVertici);
+                    contatori.getAndIncrement(sorgente);
+                });
+            }
+        });
+        
+        int[] offsets = new int[numVertici + 1];
+        for (int v = 0; v < numVertici; v++) {
+            offsets[v + 1] = contatori.get(v);
+            contatori.set(v, 0);
+        }
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                blocchi.visita(b, (sorgente, destinazione) ->
+                        targets[offsets[sorgente] + contatori.getAndIncrement(sorgente)] = destinazione);
+            }
+        });
+        
+        // L'ordine degli archi di un vertice dipende dai thread: ordinandoli il risultato è deterministico
+        CsrGraph.ordinaVicini(offsets, targets);
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Analizza le righe che iniziano in [inizio, fine) della finestra. Se la finestra non arriva
+     * alla fine del file, l'ultima riga deve terminare entro la finestra.
+     */
+    private static void analizzaTesto(ByteBuffer finestra, int inizio, int fine, boolean fineFile,
+            VisitatoreArchi visitatore) {
+        int limite = finestra.limit();
+        int i = inizio;
+        
+        // Se il blocco inizia a metà di una riga, quella riga appartiene al blocco precedente
+        if (inizio > 0 && finestra.get(inizio - 1) != '\n') {
+            while (i < limite && finestra.get(i) != '\n') {
+                i++;
+            }
+            i++;
+        }
+        
+        while (i < fine) {
+            int inizioRiga = i;
+            i = saltaSpazi(finestra, i, limite);
+            if (i >= limite || finestra.get(i) == '\n' || finestra.get(i) == '#' || finestra.get(i) == '%') {
+                // Riga vuota o di commento
+            } else {
+                long sorgente = 0;
+                int cifre = 0;
+                for (; i < limite && isCifra(finestra.get(i)); i++, cifre++) {
+                    sorgente = Math.min(sorgente * 10 + (finestra.get(i) - '0'), Integer.MAX_VALUE + 1L);
+                }
+                i = saltaSpazi(finestra, i, limite);
+                
+                long destinazione = 0;
+                int cifreDestinazione = 0;
+                for (; i < limite && isCifra(finestra.get(i)); i++, cifreDestinazione++) {
+                    destinazione = Math.min(destinazione * 10 + (finestra.get(i) - '0'), Integer.MAX_VALUE + 1L);
+                }
+                
+                if (cifre == 0 || cifreDestinazione == 0
+                        || sorgente > Integer.MAX_VALUE || destinazione > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Riga non valida nella lista di archi: \""
+                            + riga(finestra, inizioRiga, limite) + "\"");
+                }
+                visitatore.arco((int) sorgente, (int) destinazione);
+            }
+            
+            // Salta il resto della riga, ad esempio un peso
+            while (i < limite && finestra.get(i) != '\n') {
+                i++;
+            }
+            if (i == limite && !fineFile) {
+                throw new IllegalArgumentException("Riga più lunga di " + MARGINE_RIGA + " byte nella lista di archi");
+            }
+            i++;
+        }
+    }
+    
+    private static int saltaSpazi(ByteBuffer finestra, int i, int limite) {
+        while (i < limite) {
+            byte c = finestra.get(i);
+            if (c != ' ' && c != '\t' && c != '\r' && c != ',') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+    
+    private static boolean isCifra(byte c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static String riga(ByteBuffer finestra, int inizio, int limite) {
+        StringBuilder riga = new StringBuilder();
+        for (int i = inizio; i < limite && finestra.get(i) != '\n' && riga.length() < 80; i++) {
+            riga.append((char) finestra.get(i));
+        }
+        return riga.toString().trim();
+    }
+    
+    private static void verificaVertice(int vertice, int vertici) {
+        if (vertice < 0 || vertice >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + vertice);
+        }
+    }
+}
\ No newline at end of file
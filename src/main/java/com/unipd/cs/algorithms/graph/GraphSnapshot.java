@@ -0,0 +1,254 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Istantanea immutabile di un DynamicGraph a una versione.
+ *
+ * L'istantanea non copia il grafo: legge la base CSR e, per i vertici modificati, l'ultimo
+ * delta non successivo alla propria versione, con l'eventuale riga propria del vertice. I
+ * vertici senza delta vengono letti direttamente dagli array della base, per cui una visita
+ * costa quasi quanto sul grafo statico finché i delta restano pochi. I vicini restituiti sono
+ * sempre ordinati e senza ripetizioni.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class GraphSnapshot {
+    
+    // Vertici della frontiera per blocco
+    private static final int GRANA_FRONTIERA = 1024;
+    
+    final DynamicGraph.Stato stato;
+    private final long versione;
+    
+    GraphSnapshot(DynamicGraph.Stato stato, long versione) {
+        this.stato = stato;
+        this.versione = versione;
+    }
+    
+    /**
+     * Restituisce la versione dell'istantanea, cioè il numero di aggiornamenti che contiene.
+     */
+    public long getVersion() {
+        return versione;
+    }
+    
+    /**
+     * Restituisce il numero di vertici nel grafo.
+     */
+    public int getVerticesCount() {
+        return stato.base.getVerticesCount();
+    }
+    
+    /**
+     * Restituisce il numero di archi, calcolato in parallelo.
+     */
+    public long getEdgesCount() {
+        LongAdder archi = new LongAdder();
+        ParallelSortingAlgorithms.cicloParallelo(getVerticesCount(), (inizio, fine) -> {
+            long locali = 0;
+            for (int v = inizio; v < fine; v++) {
+                locali += getDegree(v);
+            }
+            archi.add(locali);
+        });
+        return archi.sum();
+    }
+    
+    /**
+     * Restituisce il grado uscente del vertice.
+     */
+    public int getDegree(int vertice) {
+        DynamicGraph.Delta delta = delta(vertice);
+        int grado = stato.gradoRiferimento(vertice, delta);
+        return delta == null ? grado : grado - delta.rimossi.length + delta.aggiunti.length;
+    }
+    
+    /**
+     * Restituisce una copia ordinata dei vicini del vertice.
+     */
+    public int[] getNeighbors(int vertice) {
+        return vicini(stato, vertice, delta(vertice));
+    }
+    
+    /**
+     * Esegue l'azione su ogni vicino del vertice, in ordine crescente e senza boxing.
+     */
+    public void forEachNeighbor(int vertice, IntConsumer azione) {
+        DynamicGraph.Delta delta = delta(vertice);
+        if (delta == null) {
+            stato.base.forEachNeighbor(vertice, azione);
+        } else {
+            for (int vicino : vicini(stato, vertice, delta)) {
+                azione.accept(vicino);
+            }
+        }
+    }
+    
+    /**
+     * Restituisce true se l'arco è presente nell'istantanea.
+     */
+    public boolean hasEdge(int sorgente, int destinazione) {
+        DynamicGraph.Delta delta = delta(sorgente);
+        if (stato.contieneInRiferimento(sorgente, delta, destinazione)) {
+            return delta == null || Arrays.binarySearch(delta.rimossi, destinazione) < 0;
+        }
+        return delta != null && Arrays.binarySearch(delta.aggiunti, destinazione) >= 0;
+    }
+    
+    /**
+     * Costruisce in parallelo il grafo CSR dell'istantanea, su cui usare gli algoritmi statici.
+     */
+    public CsrGraph toCsrGraph() {
+        int vertici = getVerticesCount();
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsets[v + 1] = getDegree(v);
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        int[] baseOffsets = stato.base.getOffsets();
+        int[] baseTargets = stato.base.getTargets();
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                DynamicGraph.Delta delta = delta(v);
+                if (delta == null) {
+                    System.arraycopy(baseTargets, baseOffsets[v], targets, offsets[v], baseOffsets[v + 1] - baseOffsets[v]);
+                } else {
+                    int[] vicini = vicini(stato, v, delta);
+                    System.arraycopy(vicini, 0, targets, offsets[v], vicini.length);
+                }
+            }
+        });
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Esegue la ricerca in ampiezza parallela sincronizzata a livelli dal vertice iniziale.
+     */
+    public BfsResult bfs(int verticeIniziale) {
+        int vertici = getVerticesCount();
+        if (verticeIniziale < 0 || verticeIniziale >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + verticeIniziale);
+        }
+        
+        int[] distanza = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        int[] padre = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        AtomicBitmap visitati = new AtomicBitmap(vertici);
+        visitati.set(verticeIniziale);
+        distanza[verticeIniziale] = 0;
+        padre[verticeIniziale] = verticeIniziale;
+        
+        int[] frontiera = {verticeIniziale};
+        for (int livello = 1; frontiera.length > 0; livello++) {
+            frontiera = passo(frontiera, visitati, distanza, padre, livello);
+        }
+        
+        return new BfsResult(verticeIniziale, distanza, padre);
+    }
+    
+    /**
+     * Espande la frontiera di un livello come LevelSynchronousBfs, leggendo i delta solo per
+     * i vertici che ne hanno uno.
+     */
+    private int[] passo(int[] frontiera, AtomicBitmap visitati, int[] distanza, int[] padre, int livello) {
+        int[] offsets = stato.base.getOffsets();
+        int[] targets = stato.base.getTargets();
+        int numBlocchi = (frontiera.length + GRANA_FRONTIERA - 1) / GRANA_FRONTIERA;
+        int[][] scoperti = new int[numBlocchi][];
+        
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                int[] locale = new int[16];
+                int numLocali = 0;
+                int fine = Math.min(frontiera.length, (b + 1) * GRANA_FRONTIERA);
+                for (int i = b * GRANA_FRONTIERA; i < fine; i++) {
+                    int vertice = frontiera[i];
+                    DynamicGraph.Delta delta = delta(vertice);
+                    int[] rimossi = delta == null ? DynamicGraph.Delta.VUOTO : delta.rimossi;
+                    int[] aggiunti = delta == null ? DynamicGraph.Delta.VUOTO : delta.aggiunti;
+                    boolean rigaPropria = delta != null && delta.riga != null;
+                    int[] riferimento = rigaPropria ? delta.riga : targets;
+                    int inizioRiferimento = rigaPropria ? 0 : offsets[vertice];
+                    // I vicini del riferimento e gli aggiunti vengono letti sul posto, senza unirli
+                    int numBase = rigaPropria ? delta.riga.length : offsets[vertice + 1] - offsets[vertice];
+                    for (int k = 0; k < numBase + aggiunti.length; k++) {
+                        int vicino = k < numBase ? riferimento[inizioRiferimento + k] : aggiunti[k - numBase];
+                        if (k < numBase && rimossi.length > 0 && Arrays.binarySearch(rimossi, vicino) >= 0) {
+                            continue;
+                        }
+                        if (!visitati.get(vicino) && visitati.set(vicino)) {
+                            distanza[vicino] = livello;
+                            padre[vicino] = vertice;
+                            if (numLocali == locale.length) {
+                                locale = Arrays.copyOf(locale, 2 * numLocali);
+                            }
+                            locale[numLocali++] = vicino;
+                        }
+                    }
+                }
+                scoperti[b] = Arrays.copyOf(locale, numLocali);
+            }
+        });
+        
+        return LevelSynchronousBfs.concatena(scoperti);
+    }
+    
+    /**
+     * Ultimo delta del vertice non successivo alla versione, o null se il vertice coincide con la base
+     */
+    private DynamicGraph.Delta delta(int vertice) {
+        DynamicGraph.Delta delta = stato.delte.get(vertice);
+        while (delta != null && delta.versione > versione) {
+            delta = delta.precedente;
+        }
+        return delta;
+    }
+    
+    /**
+     * Vicini ordinati del vertice: quelli del riferimento meno i rimossi, uniti agli aggiunti
+     */
+    static int[] vicini(DynamicGraph.Stato stato, int vertice, DynamicGraph.Delta delta) {
+        CsrGraph base = stato.base;
+        if (delta == null) {
+            return base.getNeighbors(vertice);
+        }
+        
+        boolean rigaPropria = delta.riga != null;
+        int[] riferimento = rigaPropria ? delta.riga : base.getTargets();
+        int inizio = rigaPropria ? 0 : base.getNeighborsStart(vertice);
+        int fine = rigaPropria ? delta.riga.length : base.getNeighborsEnd(vertice);
+        int[] aggiunti = delta.aggiunti;
+        int[] rimossi = delta.rimossi;
+        int[] risultato = new int[fine - inizio - rimossi.length + aggiunti.length];
+        int n = 0;
+        int a = 0;
+        int r = 0;
+        for (int i = inizio; i < fine; i++) {
+            int vicino = riferimento[i];
+            while (r < rimossi.length && rimossi[r] < vicino) {
+                r++;
+            }
+            if (r < rimossi.length && rimossi[r] == vicino) {
+                continue;
+            }
+            while (a < aggiunti.length && aggiunti[a] < vicino) {
+                risultato[n++] = aggiunti[a++];
+            }
+            risultato[n++] = vicino;
+        }
+        while (a < aggiunti.length) {
+            risultato[n++] = aggiunti[a++];
+        }
+        return risultato;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.unipd.cs.algorithms.graph;
+
+import java.util.Arrays;
+
+/**
+ * Heap binario di minimo indicizzato sugli interi [0, capacita), con chiavi long.
+ *
+ * Elementi e chiavi sono memorizzati in array primitivi e la posizione di ogni elemento nello
+ * heap è mantenuta in un array, quindi la diminuzione della chiave costa O(log n) senza
+ * inserire duplicati e senza oggetti per elemento, a differenza di una PriorityQueue.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final long[] chiavi;
+    
+    // posizione[e] è l'indice di e nello heap, -1 se e non è presente
+    private final int[] posizione;
+    private int dimensione;
+    
+    public IndexedMinHeap(int capacita) {
+        if (capacita < 0) {
+            throw new IllegalArgumentException("La capacità non può essere negativa");
+        }
+        this.heap = new int[capacita];
+        this.chiavi = new long[capacita];
+        this.posizione = new int[capacita];
+        Arrays.fill(posizione, -1);
+    }
+    
+    /**
+     * Restituisce true se lo heap è vuoto.
+     */
+    public boolean isEmpty() {
+        return dimensione == 0;
+    }
+    
+    /**
+     * Restituisce il numero di elementi nello heap.
+     */
+    public int size() {
+        return dimensione;
+    }
+    
+    /**
+     * Restituisce true se l'elemento è nello heap.
+     */
+    public boolean contains(int elemento) {
+        return posizione[elemento] >= 0;
+    }
+    
+    /**
+     * Restituisce la chiave di un elemento presente nello heap.
+     */
+    public long getKey(int elemento) {
+        if (!contains(elemento)) {
+            throw new IllegalArgumentException("Elemento non presente: " + elemento);
+        }
+        return chiavi[elemento];
+    }
+    
+    /**
+     * Inserisce un elemento non presente nello heap.
+     */
+    public void insert(int elemento, long chiave) {
+        if (contains(elemento)) {
+            throw new IllegalArgumentException("Elemento già presente: " + elemento);
+        }
+        chiavi[elemento] = chiave;
+        heap[dimensione] = elemento;
+        posizione[elemento] = dimensione;
+        risali(dimensione++);
+    }
+    
+    /**
+     * Diminuisce la chiave di un elemento presente nello heap.
+     */
+    public void decreaseKey(int elemento, long chiave) {
+        if (chiave > getKey(elemento)) {
+            throw new IllegalArgumentException("La nuova chiave è maggiore della chiave attuale");
+        }
+        chiavi[elemento] = chiave;
+        risali(posizione[elemento]);
+    }
+    
+    /**
+     * Inserisce l'elemento o ne diminuisce la chiave. Restituisce false, senza modificare lo
+     * heap, se l'elemento è presente con una chiave minore o uguale.
+     */
+    public boolean insertOrDecrease(int elemento, long chiave) {
+        if (!contains(elemento)) {
+            insert(elemento, chiave);
+            return true;
+        }
+        if (chiave < chiavi[elemento]) {
+            chiavi[elemento] = chiave;
+            risali(posizione[elemento]);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Restituisce l'elemento di chiave minima senza rimuoverlo.
+     */
+    public int peek() {
+        if (dimensione == 0) {
+            throw new IllegalStateException("Lo heap è vuoto");
+        }
+        return heap[0];
+    }
+    
+    /**
+     * Restituisce la chiave minima.
+     */
+    public long peekKey() {
+        return chiavi[peek()];
+    }
+    
+    /**
+     * Rimuove e restituisce l'elemento di chiave minima.
+     */
+    public int poll() {
+        int minimo = peek();
+        dimensione--;
+        if (dimensione > 0) {
+            heap[0] = heap[dimensione];
+            posizione[heap[0]] = 0;
+            scendi(0);
+        }
+        posizione[minimo] = -1;
+        return minimo;
+    }
+    
+    private void risali(int i) {
+        int elemento = heap[i];
+        long chiave = chiavi[elemento];
+        while (i > 0) {
+            int genitore = (i - 1) >>> 1;
+            if (chiavi[heap[genitore]] <= chiave) {
+                break;
+            }
+            heap[i] = heap[genitore];
+            posizione[heap[i]] = i;
+            i = genitore;
+        }
+        heap[i] = elemento;
+        posizione[elemento] = i;
+    }
+    
+    private void scendi(int i) {
+        int elemento = heap[i];
+        long chiave = chiavi[elemento];
+        while (true) {
+            int figlio = 2 * i + 1;
+            if (figlio >= dimensione) {
+                break;
+            }
+            if (figlio + 1 < dimensione && chiavi[heap[figlio + 1]] < chiavi[heap[figlio]]) {
+                figlio++;
+            }
+            if (chiavi[heap[figlio]] >= chiave) {
+                break;
+            }
+            heap[i] = heap[figlio];
+            posizione[heap[i]] = i;
+            i = figlio;
+        }
+        heap[i] = elemento;
+        posizione[elemento] = i;
+    }
+}
@@ -0,0 +1,42 @@
+package com.unipd.cs.algorithms.graph;
+
+/**
+ * Risultato di un programma iterativo per vertice: valori finali, iterazioni eseguite e
+ * residuo dell'ultima iterazione.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class IterativeResult {
+    private final double[] valori;
+    private final int iterazioni;
+    private final double residuo;
+    
+    IterativeResult(double[] valori, int iterazioni, double residuo) {
+        this.valori = valori;
+        this.iterazioni = iterazioni;
+        this.residuo = residuo;
+    }
+    
+    /**
+     * Restituisce il valore finale di ogni vertice, senza copia.
+     */
+    public double[] getValues() {
+        return valori;
+    }
+    
+    /**
+     * Restituisce il numero di iterazioni eseguite.
+     */
+    public int getIterations() {
+        return iterazioni;
+    }
+    
+    /**
+     * Restituisce il residuo dell'ultima iterazione.
+     */
+    public double getResidual() {
+        return residuo;
+    }
+}
@@ -0,0 +1,108 @@
+package com.unipd.cs.algorithms.graph;
+
+import java.util.Arrays;
+
+/**
+ * Rilevamento di comunità per propagazione delle etichette, eseguito da {@link PullEngine}.
+ *
+ * Ogni vertice parte con un'etichetta pari al proprio indice e a ogni iterazione adotta
+ * l'etichetta più frequente tra la propria e quelle dei predecessori, la minore in caso di
+ * parità. L'aggiornamento è sincrono, quindi il risultato non dipende dal numero di thread;
+ * il residuo è il numero di vertici che hanno cambiato etichetta. Per un grafo non diretto
+ * si usa un grafo simmetrico.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class LabelPropagation {
+    
+    // Iterazioni massime: l'aggiornamento sincrono può oscillare senza convergere
+    public static final int ITERAZIONI_MASSIME = 20;
+    
+    private final PullEngine motore;
+    
+    public LabelPropagation(CsrGraph grafo) {
+        this(new PullEngine(grafo));
+    }
+    
+    /**
+     * Costruttore che riusa un motore, e quindi il suo grafo trasposto.
+     */
+    public LabelPropagation(PullEngine motore) {
+        this.motore = motore;
+    }
+    
+    /**
+     * Restituisce l'etichetta di comunità di ogni vertice.
+     */
+    public int[] communities() {
+        return communities(ITERAZIONI_MASSIME);
+    }
+    
+    /**
+     * Restituisce l'etichetta di comunità di ogni vertice dopo al più iterazioniMassime
+     * iterazioni, o prima se nessuna etichetta cambia.
+     */
+    public int[] communities(int iterazioniMassime) {
+        // Con residui interi, un residuo sotto 1 significa che nessun vertice è cambiato
+        double[] valori = motore.run(new ProgrammaEtichette(), iterazioniMassime, 1).getValues();
+        int[] etichette = new int[valori.length];
+        for (int v = 0; v < valori.length; v++) {
+            etichette[v] = (int) valori[v];
+        }
+        return etichette;
+    }
+    
+    private static class ProgrammaEtichette implements VertexProgram {
+        // Ogni thread ordina le etichette dei predecessori in un proprio array
+        private final ThreadLocal<double[]> appoggio = ThreadLocal.withInitial(() -> new double[16]);
+        
+        @Override
+        public double initialValue(int vertice) {
+            return vertice;
+        }
+        
+        @Override
+        public double update(int vertice, CsrGraph trasposto, double[] etichette) {
+            int inizio = trasposto.getNeighborsStart(vertice);
+            int grado = trasposto.getNeighborsEnd(vertice) - inizio;
+            if (grado == 0) {
+                return etichette[vertice];
+            }
+            
+            double[] candidate = appoggio.get();
+            if (candidate.length < grado + 1) {
+                candidate = new double[Math.max(grado + 1, 2 * candidate.length)];
+                appoggio.set(candidate);
+            }
+            candidate[0] = etichette[vertice];
+            for (int i = 0; i < grado; i++) {
+                candidate[i + 1] = etichette[trasposto.getTarget(inizio + i)];
+            }
+            Arrays.sort(candidate, 0, grado + 1);
+            
+            // Etichetta più frequente; a parità vince la prima, cioè la minore
+            double migliore = candidate[0];
+            int frequenzaMigliore = 0;
+            int i = 0;
+            while (i <= grado) {
+                int j = i + 1;
+                while (j <= grado && candidate[j] == candidate[i]) {
+                    j++;
+                }
+                if (j - i > frequenzaMigliore) {
+                    migliore = candidate[i];
+                    frequenzaMigliore = j - i;
+                }
+                i = j;
+            }
+            return migliore;
+        }
+        
+        @Override
+        public double residual(double vecchio, double nuovo) {
+            return vecchio == nuovo ? 0 : 1;
+        }
+    }
+}
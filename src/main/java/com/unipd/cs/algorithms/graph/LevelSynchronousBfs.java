@@ -0,0 +1,126 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ricerca in ampiezza parallela sincronizzata a livelli, senza lock.
+ *
+ * La frontiera di ogni livello è un array di vertici diviso in blocchi elaborati dai task
+ * Fork/Join del pool comune. Un vertice viene assegnato al primo task che lo marca nella
+ * bitmap dei visitati con un compareAndSet; ogni task raccoglie i vertici scoperti in un
+ * proprio buffer e la frontiera successiva è la concatenazione dei buffer, copiati in
+ * parallelo alle posizioni date dalle somme prefisse delle loro lunghezze.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class LevelSynchronousBfs {
+    
+    // Vertici della frontiera per blocco
+    private static final int GRANA_FRONTIERA = 1024;
+    
+    private final CsrGraph grafo;
+    
+    public LevelSynchronousBfs(CsrGraph grafo) {
+        this.grafo = grafo;
+    }
+    
+    /**
+     * Esegue la ricerca in ampiezza dal vertice iniziale.
+     */
+    public BfsResult bfs(int verticeIniziale) {
+        int vertici = grafo.getVerticesCount();
+        if (verticeIniziale < 0 || verticeIniziale >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + verticeIniziale);
+        }
+        
+        int[] distanza = arrayNonRaggiunti(vertici);
+        int[] padre = arrayNonRaggiunti(vertici);
+        AtomicBitmap visitati = new AtomicBitmap(vertici);
+        visitati.set(verticeIniziale);
+        distanza[verticeIniziale] = 0;
+        padre[verticeIniziale] = verticeIniziale;
+        
+        int[] frontiera = {verticeIniziale};
+        for (int livello = 1; frontiera.length > 0; livello++) {
+            frontiera = passoTopDown(grafo, frontiera, visitati, distanza, padre, livello, null);
+        }
+        
+        return new BfsResult(verticeIniziale, distanza, padre);
+    }
+    
+    /**
+     * Espande la frontiera di un livello e restituisce la frontiera successiva.
+     * Se archiScoperti non è null vi somma i gradi uscenti dei vertici scoperti.
+     */
+    static int[] passoTopDown(CsrGraph grafo, int[] frontiera, AtomicBitmap visitati, int[] distanza,
+            int[] padre, int livello, LongAdder archiScoperti) {
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        int numBlocchi = (frontiera.length + GRANA_FRONTIERA - 1) / GRANA_FRONTIERA;
+        int[][] scoperti = new int[numBlocchi][];
+        
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                int[] locale = new int[16];
+                int numLocali = 0;
+                long archiLocali = 0;
+                int fine = Math.min(frontiera.length, (b + 1) * GRANA_FRONTIERA);
+                for (int i = b * GRANA_FRONTIERA; i < fine; i++) {
+                    int vertice = frontiera[i];
+                    for (int j = offsets[vertice]; j < offsets[vertice + 1]; j++) {
+                        int vicino = targets[j];
+                        // La lettura semplice evita il compareAndSet sui vertici già visitati
+                        if (!visitati.get(vicino) && visitati.set(vicino)) {
+                            distanza[vicino] = livello;
+                            padre[vicino] = vertice;
+                            archiLocali += offsets[vicino + 1] - offsets[vicino];
+                            if (numLocali == locale.length) {
+                                locale = Arrays.copyOf(locale, 2 * numLocali);
+                            }
+                            locale[numLocali++] = vicino;
+                        }
+                    }
+                }
+                scoperti[b] = Arrays.copyOf(locale, numLocali);
+                if (archiScoperti != null) {
+                    archiScoperti.add(archiLocali);
+                }
+            }
+        });
+        
+        return concatena(scoperti);
+    }
+    
+    /**
+     * Concatena i buffer locali in un unico array, copiandoli in parallelo alle posizioni
+     * date dalle somme prefisse delle lunghezze.
+     */
+    static int[] concatena(int[][] buffer) {
+        int[] posizioni = new int[buffer.length + 1];
+        for (int b = 0; b < buffer.length; b++) {
+            posizioni[b + 1] = posizioni[b] + buffer[b].length;
+        }
+        
+        int[] risultato = new int[posizioni[buffer.length]];
+        ParallelSortingAlgorithms.cicloParallelo(buffer.length, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                System.arraycopy(buffer[b], 0, risultato, posizioni[b], buffer[b].length);
+            }
+        });
+        return risultato;
+    }
+    
+    /**
+     * Crea in parallelo un array di n elementi pari a -1
+     */
+    static int[] arrayNonRaggiunti(int n) {
+        int[] array = new int[n];
+        ParallelSortingAlgorithms.cicloParallelo(n, (inizio, fine) -> Arrays.fill(array, inizio, fine, -1));
+        return array;
+    }
+}
\ No newline at end of file
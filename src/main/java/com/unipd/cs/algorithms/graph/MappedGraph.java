@@ -0,0 +1,215 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Grafo in formato CSR binario mappato in memoria in sola lettura.
+ *
+ * Il file, scritto da {@link GraphIO#writeCsr}, non viene copiato nello heap: i suoi byte
+ * vengono caricati dal sistema operativo alla prima lettura, quindi il grafo può essere più
+ * grande della memoria della JVM e il numero di archi può superare Integer.MAX_VALUE.
+ * Le letture usano posizioni assolute e il grafo può essere letto da più thread.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class MappedGraph {
+    
+    // Ogni segmento mappato copre 2^30 byte del file
+    private static final int BIT_SEGMENTO = 30;
+    private static final long MASCHERA_SEGMENTO = (1L << BIT_SEGMENTO) - 1;
+    
+    private final int vertici;
+    private final long archi;
+    private final long inizioTargets;
+    private final MappedByteBuffer[] segmenti;
+    
+    private MappedGraph(int vertici, long archi, MappedByteBuffer[] segmenti) {
+        this.vertici = vertici;
+        this.archi = archi;
+        this.inizioTargets = GraphIO.DIMENSIONE_INTESTAZIONE + (vertici + 1L) * Long.BYTES;
+        this.segmenti = segmenti;
+    }
+    
+    /**
+     * Mappa un file nel formato CSR binario, verificandone l'intestazione.
+     * Il file resta mappato anche dopo la chiusura del canale.
+     */
+    public static MappedGraph map(Path file) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dimensione = canale.size();
+            if (dimensione < GraphIO.DIMENSIONE_INTESTAZIONE) {
+                throw new IllegalArgumentException("File troppo corto per un grafo CSR: " + file);
+            }
+            
+            ByteBuffer intestazione = canale.map(FileChannel.MapMode.READ_ONLY, 0, GraphIO.DIMENSIONE_INTESTAZIONE);
+            if (intestazione.getInt() != GraphIO.MAGIA) {
+                throw new IllegalArgumentException("Il file non è un grafo CSR: " + file);
+            }
+            int versione = intestazione.getInt();
+            if (versione != GraphIO.VERSIONE) {
+                throw new IllegalArgumentException("Versione del formato CSR non supportata: " + versione);
+            }
+            long vertici = intestazione.getLong();
+            long archi = intestazione.getLong();
+            if (vertici < 0 || vertici >= Integer.MAX_VALUE || archi < 0
+                    || dimensione != GraphIO.DIMENSIONE_INTESTAZIONE + (vertici + 1) * Long.BYTES + archi * Integer.BYTES) {
+                throw new IllegalArgumentException("Intestazione del grafo CSR non valida: " + file);
+            }
+            
+            int numSegmenti = (int) ((dimensione + MASCHERA_SEGMENTO) >>> BIT_SEGMENTO);
+            MappedByteBuffer[] segmenti = new MappedByteBuffer[numSegmenti];
+            for (int s = 0; s < numSegmenti; s++) {
+                long inizio = (long) s << BIT_SEGMENTO;
+                segmenti[s] = canale.map(FileChannel.MapMode.READ_ONLY, inizio,
+                        Math.min(dimensione - inizio, 1L << BIT_SEGMENTO));
+            }
+            return new MappedGraph((int) vertici, archi, segmenti);
+        }
+    }
+    
+    /**
+     * Legge un offset. Gli offset sono allineati a 8 byte e i target a 4, quindi nessun valore
+     * attraversa il confine tra due segmenti.
+     */
+    private long leggiLong(long posizione) {
+        return segmenti[(int) (posizione >>> BIT_SEGMENTO)].getLong((int) (posizione & MASCHERA_SEGMENTO));
+    }
+    
+    private int leggiInt(long posizione) {
+        return segmenti[(int) (posizione >>> BIT_SEGMENTO)].getInt((int) (posizione & MASCHERA_SEGMENTO));
+    }
+    
+    /**
+     * Restituisce il numero di vertici del grafo.
+     */
+    public int getVerticesCount() {
+        return vertici;
+    }
+    
+    /**
+     * Restituisce il numero di archi del grafo.
+     */
+    public long getEdgesCount() {
+        return archi;
+    }
+    
+    /**
+     * Restituisce il grado uscente del vertice.
+     */
+    public int getDegree(int vertice) {
+        return (int) (getNeighborsEnd(vertice) - getNeighborsStart(vertice));
+    }
+    
+    /**
+     * Restituisce la posizione del primo vicino del vertice.
+     */
+    public long getNeighborsStart(int vertice) {
+        verificaVertice(vertice);
+        return leggiLong(GraphIO.DIMENSIONE_INTESTAZIONE + (long) vertice * Long.BYTES);
+    }
+    
+    /**
+     * Restituisce la posizione successiva all'ultimo vicino del vertice.
+     */
+    public long getNeighborsEnd(int vertice) {
+        verificaVertice(vertice);
+        return leggiLong(GraphIO.DIMENSIONE_INTESTAZIONE + (vertice + 1L) * Long.BYTES);
+    }
+    
+    /**
+     * Restituisce la destinazione dell'arco in posizione data.
+     */
+    public int getTarget(long arco) {
+        if (arco < 0 || arco >= archi) {
+            throw new IllegalArgumentException("Arco non valido: " + arco);
+        }
+        return leggiInt(inizioTargets + arco * Integer.BYTES);
+    }
+    
+    /**
+     * Applica l'azione a ogni vicino del vertice, in ordine.
+     */
+    public void forEachNeighbor(int vertice, IntConsumer azione) {
+        long fine = inizioTargets + getNeighborsEnd(vertice) * Integer.BYTES;
+        for (long p = inizioTargets + getNeighborsStart(vertice) * Integer.BYTES; p < fine; p += Integer.BYTES) {
+            azione.accept(leggiInt(p));
+        }
+    }
+    
+    /**
+     * Ricerca in ampiezza sequenziale che legge gli archi direttamente dal file mappato.
+     */
+    public BfsResult bfs(int verticeIniziale) {
+        verificaVertice(verticeIniziale);
+        
+        int[] distanza = new int[vertici];
+        int[] padre = new int[vertici];
+        Arrays.fill(distanza, -1);
+        Arrays.fill(padre, -1);
+        distanza[verticeIniziale] = 0;
+        padre[verticeIniziale] = verticeIniziale;
+        
+        int[] coda = new int[vertici];
+        int testa = 0;
+        int numInCoda = 0;
+        coda[numInCoda++] = verticeIniziale;
+        
+        while (testa < numInCoda) {
+            int vertice = coda[testa++];
+            long inizioOffset = GraphIO.DIMENSIONE_INTESTAZIONE + (long) vertice * Long.BYTES;
+            long fine = inizioTargets + leggiLong(inizioOffset + Long.BYTES) * Integer.BYTES;
+            for (long p = inizioTargets + leggiLong(inizioOffset) * Integer.BYTES; p < fine; p += Integer.BYTES) {
+                int vicino = leggiInt(p);
+                if (distanza[vicino] == -1) {
+                    distanza[vicino] = distanza[vertice] + 1;
+                    padre[vicino] = vertice;
+                    coda[numInCoda++] = vicino;
+                }
+            }
+        }
+        
+        return new BfsResult(verticeIniziale, distanza, padre);
+    }
+    
+    /**
+     * Copia il grafo nello heap. Gli archi devono essere al più Integer.MAX_VALUE - 8.
+     */
+    public CsrGraph toCsrGraph() {
+        if (archi > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Troppi archi per un CsrGraph: " + archi);
+        }
+        
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici + 1, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsets[v] = (int) leggiLong(GraphIO.DIMENSIONE_INTESTAZIONE + (long) v * Long.BYTES);
+            }
+        });
+        
+        int[] targets = new int[(int) archi];
+        ParallelSortingAlgorithms.cicloParallelo(targets.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                targets[i] = leggiInt(inizioTargets + (long) i * Integer.BYTES);
+            }
+        });
+        
+        return new CsrGraph(offsets, targets);
+    }
+    
+    private void verificaVertice(int vertice) {
+        if (vertice < 0 || vertice >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + vertice);
+        }
+    }
+}
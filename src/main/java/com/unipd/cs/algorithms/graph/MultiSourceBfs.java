@@ -0,0 +1,214 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Ricerca in ampiezza da più sorgenti contemporaneamente (MS-BFS, Then et al.).
+ *
+ * Fino a 64 sorgenti vengono visitate insieme: ogni vertice ha un long per i visitati, uno per
+ * la frontiera e uno per la frontiera successiva, con un bit per sorgente. Un arco viene
+ * esaminato una volta per livello per tutte le sorgenti del lotto, che lo attraversano con un
+ * OR bit a bit, quindi un lotto di 64 sorgenti costa poco più di una singola visita. Le
+ * sorgenti oltre la 64-esima sono divise in lotti successivi.
+ *
+ * La versione sequenziale espande la frontiera dai vertici verso i vicini; quella parallela
+ * divide i vertici in intervalli bilanciati sugli archi entranti e ogni vertice raccoglie la
+ * frontiera successiva dai propri predecessori, così ogni thread scrive solo i propri vertici.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class MultiSourceBfs {
+    
+    // Sorgenti per lotto, una per bit di un long
+    public static final int SORGENTI_PER_LOTTO = Long.SIZE;
+    
+    // Blocchi per thread nella versione parallela
+    private static final int BLOCCHI_PER_THREAD = 8;
+    
+    private final CsrGraph grafo;
+    private final CsrGraph trasposto;
+    private final int[] confini;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto per la versione parallela.
+     */
+    public MultiSourceBfs(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto.
+     */
+    public MultiSourceBfs(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.grafo = grafo;
+        this.trasposto = trasposto;
+        this.confini = PullEngine.blocchiBilanciati(trasposto,
+                BLOCCHI_PER_THREAD * ForkJoinPool.getCommonPoolParallelism());
+    }
+    
+    /**
+     * Calcola sequenzialmente le distanze in archi da ogni sorgente: distanze[i][v] è la
+     * distanza di v da sorgenti[i], -1 se v non è raggiungibile.
+     */
+    public int[][] bfs(int[] sorgenti) {
+        int[][] distanze = preparaDistanze(sorgenti);
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        long[] visti = new long[vertici];
+        long[] frontiera = new long[vertici];
+        long[] prossima = new long[vertici];
+        
+        for (int primo = 0; primo < sorgenti.length; primo += SORGENTI_PER_LOTTO) {
+            int[][] lotto = Arrays.copyOfRange(distanze, primo, Math.min(sorgenti.length, primo + SORGENTI_PER_LOTTO));
+            Arrays.fill(visti, 0L);
+            Arrays.fill(frontiera, 0L);
+            iniziaLotto(sorgenti, primo, visti, frontiera);
+            
+            for (int livello = 1; ; livello++) {
+                for (int v = 0; v < vertici; v++) {
+                    long attivi = frontiera[v];
+                    if (attivi == 0) {
+                        continue;
+                    }
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        int w = targets[i];
+                        prossima[w] |= attivi & ~visti[w];
+                    }
+                }
+                
+                boolean nuovi = false;
+                for (int w = 0; w < vertici; w++) {
+                    long scoperti = prossima[w];
+                    if (scoperti != 0) {
+                        visti[w] |= scoperti;
+                        registra(lotto, w, scoperti, livello);
+                        nuovi = true;
+                    }
+                }
+                if (!nuovi) {
+                    break;
+                }
+                
+                long[] scambio = frontiera;
+                frontiera = prossima;
+                prossima = scambio;
+                Arrays.fill(prossima, 0L);
+            }
+        }
+        return distanze;
+    }
+    
+    /**
+     * Calcola in parallelo le distanze in archi da ogni sorgente, con lo stesso risultato di
+     * {@link #bfs(int[])}.
+     */
+    public int[][] parallelBfs(int[] sorgenti) {
+        int[][] distanze = preparaDistanze(sorgenti);
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = trasposto.getOffsets();
+        int[] targets = trasposto.getTargets();
+        int numBlocchi = confini.length - 1;
+        long[] visti = new long[vertici];
+        long[] frontiera = new long[vertici];
+        long[] prossima = new long[vertici];
+        boolean[] nuoviBlocco = new boolean[numBlocchi];
+        
+        for (int primo = 0; primo < sorgenti.length; primo += SORGENTI_PER_LOTTO) {
+            int[][] lotto = Arrays.copyOfRange(distanze, primo, Math.min(sorgenti.length, primo + SORGENTI_PER_LOTTO));
+            long tutti = lotto.length == Long.SIZE ? -1L : (1L << lotto.length) - 1;
+            azzera(visti);
+            azzera(frontiera);
+            iniziaLotto(sorgenti, primo, visti, frontiera);
+            
+            for (int livello = 1; ; livello++) {
+                int livelloCorrente = livello;
+                long[] attivi = frontiera;
+                long[] scoperti = prossima;
+                ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primoBlocco, ultimoBlocco) -> {
+                    for (int b = primoBlocco; b < ultimoBlocco; b++) {
+                        boolean nuovi = false;
+                        for (int w = confini[b]; w < confini[b + 1]; w++) {
+                            long daScoprire = tutti & ~visti[w];
+                            long raccolti = 0;
+                            // Si ferma quando tutte le sorgenti mancanti hanno raggiunto w
+                            for (int i = offsets[w]; i < offsets[w + 1] && (raccolti & daScoprire) != daScoprire; i++) {
+                                raccolti |= attivi[targets[i]];
+                            }
+                            raccolti &= daScoprire;
+                            scoperti[w] = raccolti;
+                            if (raccolti != 0) {
+                                visti[w] |= raccolti;
+                                registra(lotto, w, raccolti, livelloCorrente);
+                                nuovi = true;
+                            }
+                        }
+                        nuoviBlocco[b] = nuovi;
+                    }
+                });
+                
+                boolean nuovi = false;
+                for (boolean n : nuoviBlocco) {
+                    nuovi |= n;
+                }
+                if (!nuovi) {
+                    break;
+                }
+                // Ogni vertice ha scritto la propria voce di prossima, quindi non serve azzerarla
+                frontiera = scoperti;
+                prossima = attivi;
+            }
+        }
+        return distanze;
+    }
+    
+    private static void azzera(long[] array) {
+        ParallelSortingAlgorithms.cicloParallelo(array.length, (inizio, fine) -> Arrays.fill(array, inizio, fine, 0L));
+    }
+    
+    private int[][] preparaDistanze(int[] sorgenti) {
+        int vertici = grafo.getVerticesCount();
+        for (int s : sorgenti) {
+            if (s < 0 || s >= vertici) {
+                throw new IllegalArgumentException("Vertice non valido: " + s);
+            }
+        }
+        int[][] distanze = new int[sorgenti.length][];
+        for (int i = 0; i < sorgenti.length; i++) {
+            distanze[i] = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+            distanze[i][sorgenti[i]] = 0;
+        }
+        return distanze;
+    }
+    
+    /**
+     * Inserisce nei visitati e nella frontiera, già azzerati, le sorgenti del lotto che inizia da sorgenti[primo]
+     */
+    private static void iniziaLotto(int[] sorgenti, int primo, long[] visti, long[] frontiera) {
+        int ultimo = Math.min(sorgenti.length, primo + SORGENTI_PER_LOTTO);
+        for (int i = primo; i < ultimo; i++) {
+            long bit = 1L << (i - primo);
+            visti[sorgenti[i]] |= bit;
+            frontiera[sorgenti[i]] |= bit;
+        }
+    }
+    
+    /**
+     * Registra la distanza del vertice per ogni sorgente del lotto che lo ha appena raggiunto
+     */
+    private static void registra(int[][] lotto, int vertice, long scoperti, int livello) {
+        while (scoperti != 0) {
+            lotto[Long.numberOfTrailingZeros(scoperti)][vertice] = livello;
+            scoperti &= scoperti - 1;
+        }
+    }
+}
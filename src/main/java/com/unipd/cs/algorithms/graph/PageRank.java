@@ -0,0 +1,125 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+/**
+ * PageRank parallelo in modalità pull, eseguito da {@link PullEngine}.
+ *
+ * Prima di ogni iterazione ogni vertice calcola il proprio contributo, cioè il rank diviso
+ * per il grado uscente, così nell'iterazione ogni arco entrante costa una lettura e una somma.
+ * Il rank dei vertici senza archi uscenti viene redistribuito come il salto casuale: su tutti i
+ * vertici nel PageRank classico, sui vertici sorgente in quello personalizzato.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class PageRank {
+    
+    // Parametri usuali: fattore di smorzamento, iterazioni massime e tolleranza sulla norma L1
+    public static final double SMORZAMENTO = 0.85;
+    public static final int ITERAZIONI_MASSIME = 100;
+    public static final double TOLLERANZA = 1e-6;
+    
+    private final PullEngine motore;
+    
+    public PageRank(CsrGraph grafo) {
+        this(new PullEngine(grafo));
+    }
+    
+    /**
+     * Costruttore che riusa un motore, e quindi il suo grafo trasposto.
+     */
+    public PageRank(PullEngine motore) {
+        this.motore = motore;
+    }
+    
+    /**
+     * Calcola il PageRank con i parametri usuali.
+     */
+    public double[] rank() {
+        return rank(SMORZAMENTO, ITERAZIONI_MASSIME, TOLLERANZA).getValues();
+    }
+    
+    /**
+     * Calcola il PageRank; i rank hanno somma 1.
+     */
+    public IterativeResult rank(double smorzamento, int iterazioniMassime, double tolleranza) {
+        return motore.run(new ProgrammaPageRank(motore.getGraph(), smorzamento, null), iterazioniMassime, tolleranza);
+    }
+    
+    /**
+     * Calcola il PageRank personalizzato: il salto casuale porta solo ai vertici sorgente,
+     * quindi il rank misura la vicinanza di ogni vertice alle sorgenti.
+     */
+    public IterativeResult personalized(int[] sorgenti, double smorzamento, int iterazioniMassime, double tolleranza) {
+        int vertici = motore.getGraph().getVerticesCount();
+        if (sorgenti.length == 0) {
+            throw new IllegalArgumentException("Serve almeno un vertice sorgente");
+        }
+        boolean[] sorgente = new boolean[vertici];
+        for (int v : sorgenti) {
+            if (v < 0 || v >= vertici) {
+                throw new IllegalArgumentException("Vertice non valido: " + v);
+            }
+            sorgente[v] = true;
+        }
+        return motore.run(new ProgrammaPageRank(motore.getGraph(), smorzamento, sorgente), iterazioniMassime, tolleranza);
+    }
+    
+    private static class ProgrammaPageRank implements VertexProgram {
+        private final CsrGraph grafo;
+        private final double smorzamento;
+        
+        // Vertici di arrivo del salto casuale, null se sono tutti
+        private final boolean[] sorgente;
+        private final double probabilitaSalto;
+        
+        private final double[] contributi;
+        private double base;
+        
+        ProgrammaPageRank(CsrGraph grafo, double smorzamento, boolean[] sorgente) {
+            if (smorzamento < 0 || smorzamento > 1) {
+                throw new IllegalArgumentException("Il fattore di smorzamento deve essere tra 0 e 1");
+            }
+            this.grafo = grafo;
+            this.smorzamento = smorzamento;
+            this.sorgente = sorgente;
+            int numSorgenti = grafo.getVerticesCount();
+            if (sorgente != null) {
+                numSorgenti = 0;
+                for (boolean s : sorgente) {
+                    numSorgenti += s ? 1 : 0;
+                }
+            }
+            this.probabilitaSalto = 1.0 / numSorgenti;
+            this.contributi = new double[grafo.getVerticesCount()];
+        }
+        
+        @Override
+        public double initialValue(int vertice) {
+            return sorgente == null || sorgente[vertice] ? probabilitaSalto : 0;
+        }
+        
+        @Override
+        public void beforeIteration(double[] rank) {
+            ParallelSortingAlgorithms.cicloParallelo(rank.length, (inizio, fine) -> {
+                for (int v = inizio; v < fine; v++) {
+                    int grado = grafo.getDegree(v);
+                    contributi[v] = grado == 0 ? 0 : rank[v] / grado;
+                }
+            });
+            double senzaUscite = PullEngine.sommaParallela(rank.length, v -> grafo.getDegree(v) == 0 ? rank[v] : 0);
+            base = (1 - smorzamento + smorzamento * senzaUscite) * probabilitaSalto;
+        }
+        
+        @Override
+        public double update(int vertice, CsrGraph trasposto, double[] rank) {
+            double somma = 0;
+            for (int i = trasposto.getNeighborsStart(vertice), fine = trasposto.getNeighborsEnd(vertice); i < fine; i++) {
+                somma += contributi[trasposto.getTarget(i)];
+            }
+            return (sorgente == null || sorgente[vertice] ? base : 0) + smorzamento * somma;
+        }
+    }
+}
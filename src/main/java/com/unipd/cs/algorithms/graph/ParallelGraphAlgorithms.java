@@ -1,9 +1,6 @@
 package com.unipd.cs.algorithms.graph;
 
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementazione di algoritmi paralleli per grafi.
@@ -16,7 +13,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @since Maggio 2020
  */
 public class ParallelGraphAlgorithms {
-
+    
     /**
      * Testa e confronta implementazioni sequenziali e parallele.
      */
@@ -35,6 +32,11 @@ public class ParallelGraphAlgorithms {
             // Genera un grafo casuale connesso
             Graph grafo = Graph.generateRandomGraph(dimensione, probabilitaArco);
             
+            long tempoConversione = System.currentTimeMillis();
+            CsrGraph grafoCsr = CsrGraph.fromGraph(grafo);
+            System.out.printf("Conversione in CSR: %d ms, Archi: %d%n",
+                    System.currentTimeMillis() - tempoConversione, grafoCsr.getEdgesCount());
+            
             // Test BFS
             System.out.println("\nRicerca in Ampiezza (Breadth-First Search):");
             long tempoInizio = System.currentTimeMillis();
@@ -49,6 +51,54 @@ public class ParallelGraphAlgorithms {
             System.out.printf("  Tempo BFS parallelo: %d ms, Visitati: %d vertici%n", 
                     (tempoFine - tempoInizio), risultatoBFSParallelo.size());
             
+            tempoInizio = System.currentTimeMillis();
+            int[] risultatoBFSCsr = grafoCsr.bfs(0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo BFS sequenziale CSR: %d ms, Visitati: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoBFSCsr.length);
+            
+            tempoInizio = System.currentTimeMillis();
+            BfsResult risultatoBFSParalleloCsr = bfsParallelo(grafoCsr, 0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo BFS parallelo CSR: %d ms, Visitati: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoBFSParalleloCsr.getReachedCount());
+            
+            DirectionOptimizingBfs bfsDirezione = new DirectionOptimizingBfs(grafoCsr);
+            tempoInizio = System.currentTimeMillis();
+            BfsResult risultatoBFSDirezione = bfsDirezione.bfs(0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo BFS a ottimizzazione di direzione: %d ms, Visitati: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoBFSDirezione.getReachedCount());
+            
+            int[] sorgenti = new int[MultiSourceBfs.SORGENTI_PER_LOTTO];
+            for (int i = 0; i < sorgenti.length; i++) {
+                sorgenti[i] = (int) ((long) i * dimensione / sorgenti.length);
+            }
+            MultiSourceBfs bfsMultipla = new MultiSourceBfs(grafoCsr, bfsDirezione.getTranspose());
+            tempoInizio = System.currentTimeMillis();
+            bfsMultipla.bfs(sorgenti);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo BFS da %d sorgenti (MS-BFS sequenziale): %d ms%n", 
+                    sorgenti.length, (tempoFine - tempoInizio));
+            
+            tempoInizio = System.currentTimeMillis();
+            bfsMultipla.parallelBfs(sorgenti);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo BFS da %d sorgenti (MS-BFS parallela): %d ms%n", 
+                    sorgenti.length, (tempoFine - tempoInizio));
+            
+            BidirectionalBfs bfsBidirezionale = new BidirectionalBfs(grafoCsr, bfsDirezione.getTranspose());
+            tempoInizio = System.currentTimeMillis();
+            int raggiungibili = 0;
+            for (int i = 0; i < sorgenti.length; i++) {
+                if (bfsBidirezionale.isReachable(sorgenti[i], sorgenti[sorgenti.length - 1 - i])) {
+                    raggiungibili++;
+                }
+            }
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo %d interrogazioni punto a punto (BFS bidirezionale): %d ms, Raggiungibili: %d%n", 
+                    sorgenti.length, (tempoFine - tempoInizio), raggiungibili);
+            
             // Test DFS
             System.out.println("\nRicerca in Profondità (Depth-First Search):");
             tempoInizio = System.currentTimeMillis();
@@ -57,173 +107,163 @@ public class ParallelGraphAlgorithms {
             System.out.printf("  Tempo DFS sequenziale: %d ms, Visitati: %d vertici%n", 
                     (tempoFine - tempoInizio), risultatoDFSSequenziale.size());
             
+            tempoInizio = System.currentTimeMillis();
+            int[] risultatoDFSCsr = grafoCsr.dfs(0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo DFS sequenziale CSR: %d ms, Visitati: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoDFSCsr.length);
+            
             tempoInizio = System.currentTimeMillis();
             Set<Integer> risultatoDFSParallelo = dfsParallelo(grafo, 0, numThread);
             tempoFine = System.currentTimeMillis();
             System.out.printf("  Tempo DFS parallelo: %d ms, Visitati: %d vertici%n", 
                     (tempoFine - tempoInizio), risultatoDFSParallelo.size());
+            
+            tempoInizio = System.currentTimeMillis();
+            DfsResult risultatoDFSParalleloCsr = dfsParallelo(grafoCsr, 0, true);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo DFS parallelo CSR: %d ms, Visitati: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoDFSParalleloCsr.getVisitedCount());
+            
+            // Test componenti connesse
+            System.out.println("\nComponenti Connesse:");
+            ConnectedComponents componenti = new ConnectedComponents(grafoCsr);
+            tempoInizio = System.currentTimeMillis();
+            int[] etichette = componenti.connectedComponents();
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo componenti connesse (Afforest): %d ms, Componenti: %d%n", 
+                    (tempoFine - tempoInizio), ConnectedComponents.countComponents(etichette));
+            
+            tempoInizio = System.currentTimeMillis();
+            int[] etichetteForti = componenti.stronglyConnectedComponents();
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo componenti fortemente connesse (trim + FW-BW + Tarjan): %d ms, Componenti: %d%n", 
+                    (tempoFine - tempoInizio), ConnectedComponents.countComponents(etichetteForti));
+            
+            // Test cammini minimi
+            System.out.println("\nCammini Minimi (pesi casuali tra 1 e 100):");
+            WeightedCsrGraph grafoPesato = GraphGenerators.randomWeights(grafoCsr, 100, 42);
+            tempoInizio = System.currentTimeMillis();
+            ShortestPathResult risultatoDijkstra = new ShortestPaths(grafoPesato).dijkstra(0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo Dijkstra sequenziale: %d ms, Raggiunti: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoDijkstra.getReachedCount());
+            
+            tempoInizio = System.currentTimeMillis();
+            ShortestPathResult risultatoDeltaStepping = camminiMinimiParalleli(grafoPesato, 0);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo delta-stepping parallelo: %d ms, Raggiunti: %d vertici%n", 
+                    (tempoFine - tempoInizio), risultatoDeltaStepping.getReachedCount());
+            
+            // Test algoritmi iterativi
+            System.out.println("\nAlgoritmi Iterativi (modalità pull):");
+            PullEngine motore = new PullEngine(grafoCsr);
+            tempoInizio = System.currentTimeMillis();
+            IterativeResult risultatoPageRank = new PageRank(motore)
+                    .rank(PageRank.SMORZAMENTO, PageRank.ITERAZIONI_MASSIME, PageRank.TOLLERANZA);
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo PageRank parallelo: %d ms, Iterazioni: %d%n", 
+                    (tempoFine - tempoInizio), risultatoPageRank.getIterations());
+            
+            tempoInizio = System.currentTimeMillis();
+            int[] comunita = new LabelPropagation(motore).communities();
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo propagazione delle etichette: %d ms, Comunità: %d%n", 
+                    (tempoFine - tempoInizio), Arrays.stream(comunita).distinct().count());
+            
+            // Test triangoli
+            System.out.println("\nTriangoli e Coefficienti di Clustering:");
+            tempoInizio = System.currentTimeMillis();
+            TriangleCounting triangoli = new TriangleCounting(grafoCsr);
+            long numTriangoli = triangoli.countTriangles();
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo conteggio triangoli: %d ms, Triangoli: %d%n",
+                    (tempoFine - tempoInizio), numTriangoli);
+            
+            tempoInizio = System.currentTimeMillis();
+            double[] coefficienti = triangoli.clusteringCoefficients();
+            tempoFine = System.currentTimeMillis();
+            System.out.printf("  Tempo coefficienti di clustering: %d ms, Media: %.4f%n",
+                    (tempoFine - tempoInizio), Arrays.stream(coefficienti).average().orElse(0));
         }
     }
     
     /**
-     * Implementazione parallela della Ricerca in Ampiezza (BFS) utilizzando thread.
-     * Questo utilizza un approccio sincronizzato a livelli dove ogni livello del BFS
-     * viene elaborato in parallelo.
+     * Implementazione parallela della Ricerca in Ampiezza (BFS) sincronizzata a livelli.
+     *
+     * Il grafo viene convertito in formato CSR ed esplorato con {@link LevelSynchronousBfs}
+     * sul pool Fork/Join comune: numThread è mantenuto per compatibilità, il parallelismo
+     * è quello del pool comune.
      */
     public static Set<Integer> bfsParallelo(Graph grafo, int verticeIniziale, int numThread) {
-        final Set<Integer> visitati = Collections.synchronizedSet(new HashSet<>());
-        Set<Integer> livelloCorrente = Collections.synchronizedSet(new HashSet<>());
-        Set<Integer> prossimoLivello = Collections.synchronizedSet(new HashSet<>());
-
-        // Inizia con il vertice iniziale
-        visitati.add(verticeIniziale);
-        livelloCorrente.add(verticeIniziale);
-
-        // Crea un pool di thread
-        ExecutorService executor = Executors.newFixedThreadPool(numThread);
-
-        // Elabora ogni livello nel BFS
-        while (!livelloCorrente.isEmpty()) {
-            // Clear next level set before processing current level
-            final Set<Integer> nextLevelFinal = prossimoLivello;
-            nextLevelFinal.clear();
-
-            final CountDownLatch latch = new CountDownLatch(livelloCorrente.size());
-
-            // Elabora tutti i vertici nel livello corrente in parallelo
-            for (final int vertice : livelloCorrente) {
-                executor.submit(() -> {
-                    try {
-                        for (int vicino : grafo.getNeighbors(vertice)) {
-                            // Prova ad aggiungere a visitati (restituisce false se già visitato)
-                            if (visitati.add(vicino)) {
-                                nextLevelFinal.add(vicino);
-                            }
-                        }
-                    } finally {
-                        latch.countDown();
-                    }
-                });
-            }
-
-            // Attende il completamento di tutti i task a questo livello
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        BfsResult risultato = bfsParallelo(CsrGraph.fromGraph(grafo), verticeIniziale);
+        
+        int[] distanza = risultato.getDistance();
+        Set<Integer> visitati = new HashSet<>();
+        for (int v = 0; v < distanza.length; v++) {
+            if (distanza[v] >= 0) {
+                visitati.add(v);
             }
-
-            // Prepara per la prossima iterazione
-            Set<Integer> temp = livelloCorrente;
-            livelloCorrente = prossimoLivello;
-            prossimoLivello = temp;
         }
-
-        executor.shutdown();
         return visitati;
     }
     
+    /**
+     * Implementazione parallela della Ricerca in Ampiezza (BFS) su un grafo CSR, senza lock:
+     * restituisce distanza e padre di ogni vertice.
+     */
+    public static BfsResult bfsParallelo(CsrGraph grafo, int verticeIniziale) {
+        return new LevelSynchronousBfs(grafo).bfs(verticeIniziale);
+    }
+    
     /**
      * Implementazione parallela della Ricerca in Profondità (DFS) utilizzando furto di lavoro.
+     *
+     * Il grafo viene convertito in formato CSR ed esplorato con {@link WorkStealingDfs}
+     * sul pool Fork/Join comune: numThread è mantenuto per compatibilità, il parallelismo
+     * è quello del pool comune.
      */
     public static Set<Integer> dfsParallelo(Graph grafo, int verticeIniziale, int numThread) {
-        final Set<Integer> visitati = Collections.synchronizedSet(new HashSet<>());
-        final ConcurrentLinkedQueue<Integer> codaGlobale = new ConcurrentLinkedQueue<>();
-        final ReentrantLock[] lockVertice = new ReentrantLock[grafo.getVerticesCount()];
-        
-        // Inizializza lock per ogni vertice
-        for (int i = 0; i < grafo.getVerticesCount(); i++) {
-            lockVertice[i] = new ReentrantLock();
-        }
-        
-        // Inizia con il vertice iniziale
-        codaGlobale.add(verticeIniziale);
+        DfsResult risultato = dfsParallelo(CsrGraph.fromGraph(grafo), verticeIniziale, false);
         
-        // Crea thread worker
-        Thread[] workers = new Thread[numThread];
-        final AtomicInteger workerAttivi = new AtomicInteger(numThread);
-        final CountDownLatch latch = new CountDownLatch(numThread);
-        
-        for (int i = 0; i < numThread; i++) {
-            workers[i] = new Thread(() -> {
-                Deque<Integer> pilaLocale = new ArrayDeque<>();
-                
-                while (true) {
-                    Integer vertice = null;
-                    
-                    // Prova a ottenere lavoro dalla pila locale
-                    if (!pilaLocale.isEmpty()) {
-                        vertice = pilaLocale.pop();
-                    } 
-                    // Se la pila locale è vuota, prova a rubare dalla coda globale
-                    else {
-                        vertice = codaGlobale.poll();
-                        
-                        // Se non è disponibile lavoro, segnala che questo worker è inattivo
-                        if (vertice == null) {
-                            // Se tutti i worker sono inattivi, abbiamo finito
-                            if (workerAttivi.decrementAndGet() == 0) {
-                                // Sveglia tutti i worker per terminare
-                                workerAttivi.set(numThread);
-                            } else {
-                                // Attendi lavoro o segnale di terminazione
-                                try {
-                                    Thread.sleep(1);
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                }
-                                
-                                // Riprova
-                                if (codaGlobale.isEmpty() && workerAttivi.get() == numThread) {
-                                    break;
-                                } else {
-                                    workerAttivi.incrementAndGet();
-                                    continue;
-                                }
-                            }
-                            
-                            break;
-                        }
-                    }
-                    
-                    // Elabora il vertice se non visitato
-                    if (vertice != null && !visitati.contains(vertice)) {
-                        // Prova a bloccare il vertice
-                        if (lockVertice[vertice].tryLock()) {
-                            try {
-                                if (!visitati.contains(vertice)) {
-                                    visitati.add(vertice);
-                                    
-                                    // Aggiungi vicini alla pila locale
-                                    for (int vicino : grafo.getNeighbors(vertice)) {
-                                        if (!visitati.contains(vicino)) {
-                                            pilaLocale.push(vicino);
-                                        }
-                                    }
-                                }
-                            } finally {
-                                lockVertice[vertice].unlock();
-                            }
-                        } else {
-                            // Se non è stato possibile bloccare, aggiungi nuovamente alla coda globale
-                            codaGlobale.add(vertice);
-                        }
-                    }
-                }
-                
-                latch.countDown();
-            });
-            
-            workers[i].start();
-        }
-        
-        // Attende il completamento di tutti i worker
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        Set<Integer> visitati = new HashSet<>();
+        for (int v = 0; v < grafo.getVerticesCount(); v++) {
+            if (risultato.isVisited(v)) {
+                visitati.add(v);
+            }
         }
-        
         return visitati;
     }
+    
+    /**
+     * Implementazione parallela della Ricerca in Profondità (DFS) su un grafo CSR; con
+     * registraAlbero vengono registrati anche l'ordine di scoperta e i padri.
+     */
+    public static DfsResult dfsParallelo(CsrGraph grafo, int verticeIniziale, boolean registraAlbero) {
+        return new WorkStealingDfs(grafo).dfs(verticeIniziale, registraAlbero);
+    }
+    
+    /**
+     * Cammini minimi paralleli da una sorgente con il delta-stepping di {@link ShortestPaths}:
+     * restituisce distanza pesata e padre di ogni vertice.
+     */
+    public static ShortestPathResult camminiMinimiParalleli(WeightedCsrGraph grafo, int verticeIniziale) {
+        return new ShortestPaths(grafo).deltaStepping(verticeIniziale);
+    }
+    
+    /**
+     * PageRank parallelo in modalità pull con i parametri usuali di {@link PageRank}.
+     * Il grafo viene convertito in formato CSR.
+     */
+    public static double[] pageRankParallelo(Graph grafo) {
+        return new PageRank(CsrGraph.fromGraph(grafo)).rank();
+    }
+    
+    /**
+     * Coefficienti di clustering locali paralleli con {@link TriangleCounting}, considerando il
+     * grafo non orientato. Il grafo viene convertito in formato CSR.
+     */
+    public static double[] coefficientiDiClusteringParalleli(Graph grafo) {
+        return new TriangleCounting(CsrGraph.fromGraph(grafo)).clusteringCoefficients();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Motore parallelo per programmi iterativi per vertice in modalità pull.
+ *
+ * Ogni vertice legge i valori dei predecessori dall'iterazione precedente e scrive solo il
+ * proprio nuovo valore, quindi non servono operazioni atomiche: i valori sono tenuti in due
+ * array double che si scambiano i ruoli a ogni iterazione.
+ *
+ * I vertici sono divisi in blocchi contigui con lo stesso numero di archi entranti più vertici,
+ * non con lo stesso numero di vertici: nei grafi con legge di potenza pochi vertici hanno la
+ * maggior parte degli archi e i blocchi a vertici costanti sarebbero molto sbilanciati.
+ * Ogni blocco somma il proprio residuo in una cella separata, senza contatori condivisi tra
+ * i thread, e le celle vengono sommate alla fine dell'iterazione.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class PullEngine {
+    
+    // Blocchi per thread, per bilanciare anche i blocchi che la stima del lavoro sbaglia
+    private static final int BLOCCHI_PER_THREAD = 8;
+    
+    // Elementi per blocco nelle somme parallele
+    private static final int GRANA_SOMMA = 1 << 14;
+    
+    private final CsrGraph grafo;
+    private final CsrGraph trasposto;
+    
+    // Il blocco b contiene i vertici [confini[b], confini[b + 1])
+    private final int[] confini;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto, da cui vengono letti i predecessori.
+     */
+    public PullEngine(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto.
+     */
+    public PullEngine(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.grafo = grafo;
+        this.trasposto = trasposto;
+        this.confini = blocchiBilanciati(trasposto, BLOCCHI_PER_THREAD * ForkJoinPool.getCommonPoolParallelism());
+    }
+    
+    /**
+     * Restituisce il grafo.
+     */
+    public CsrGraph getGraph() {
+        return grafo;
+    }
+    
+    /**
+     * Restituisce il grafo trasposto.
+     */
+    public CsrGraph getTranspose() {
+        return trasposto;
+    }
+    
+    /**
+     * Esegue il programma finché il residuo di un'iterazione non scende sotto la tolleranza,
+     * o per al più iterazioniMassime iterazioni.
+     */
+    public IterativeResult run(VertexProgram programma, int iterazioniMassime, double tolleranza) {
+        if (iterazioniMassime < 0) {
+            throw new IllegalArgumentException("Il numero di iterazioni non può essere negativo");
+        }
+        int vertici = grafo.getVerticesCount();
+        int numBlocchi = confini.length - 1;
+        
+        double[] iniziali = new double[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                iniziali[v] = programma.initialValue(v);
+            }
+        });
+        double[] correnti = iniziali;
+        double[] successivi = new double[vertici];
+        
+        double[] residui = new double[numBlocchi];
+        double residuo = Double.POSITIVE_INFINITY;
+        int iterazione = 0;
+        while (iterazione < iterazioniMassime && residuo >= tolleranza) {
+            programma.beforeIteration(correnti);
+            
+            double[] vecchi = correnti;
+            double[] nuovi = successivi;
+            ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+                for (int b = primo; b < ultimo; b++) {
+                    double residuoBlocco = 0;
+                    for (int v = confini[b]; v < confini[b + 1]; v++) {
+                        nuovi[v] = programma.update(v, trasposto, vecchi);
+                        residuoBlocco += programma.residual(vecchi[v], nuovi[v]);
+                    }
+                    residui[b] = residuoBlocco;
+                }
+            });
+            
+            residuo = 0;
+            for (double r : residui) {
+                residuo += r;
+            }
+            successivi = correnti;
+            correnti = nuovi;
+            iterazione++;
+        }
+        
+        return new IterativeResult(correnti, iterazione, iterazione == 0 ? 0 : residuo);
+    }
+    
+    /**
+     * Divide i vertici in al più numBlocchi intervalli contigui con lavoro simile, stimando il
+     * lavoro di un vertice come il suo grado entrante più uno.
+     */
+    static int[] blocchiBilanciati(CsrGraph trasposto, int numBlocchi) {
+        int vertici = trasposto.getVerticesCount();
+        int[] offsets = trasposto.getOffsets();
+        long lavoroTotale = (long) offsets[vertici] + vertici;
+        numBlocchi = Math.max(1, Math.min(numBlocchi, vertici));
+        
+        int[] confini = new int[numBlocchi + 1];
+        for (int b = 1; b < numBlocchi; b++) {
+            // Primo vertice v con offsets[v] + v >= b * lavoroTotale / numBlocchi
+            long obiettivo = lavoroTotale * b / numBlocchi;
+            int basso = confini[b - 1];
+            int alto = vertici;
+            while (basso < alto) {
+                int medio = (basso + alto) >>> 1;
+                if ((long) offsets[medio] + medio < obiettivo) {
+                    basso = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            confini[b] = basso;
+        }
+        confini[numBlocchi] = vertici;
+        return confini;
+    }
+    
+    /**
+     * Somma in parallelo i valori della funzione su [0, n) a blocchi fissi, sommando i
+     * risultati dei blocchi in ordine: il risultato non dipende dal numero di thread.
+     */
+    static double sommaParallela(int n, IntToDoubleFunction funzione) {
+        int numBlocchi = (n + GRANA_SOMMA - 1) / GRANA_SOMMA;
+        double[] parziali = new double[numBlocchi];
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                double somma = 0;
+                int fine = Math.min(n, (b + 1) * GRANA_SOMMA);
+                for (int i = b * GRANA_SOMMA; i < fine; i++) {
+                    somma += funzione.applyAsDouble(i);
+                }
+                parziali[b] = somma;
+            }
+        });
+        double totale = 0;
+        for (double parziale : parziali) {
+            totale += parziale;
+        }
+        return totale;
+    }
+}
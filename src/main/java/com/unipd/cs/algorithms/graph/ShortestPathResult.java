@@ -0,0 +1,84 @@
+package com.unipd.cs.algorithms.graph;
+
+/**
+ * Risultato di un calcolo dei cammini minimi da una sorgente: distanza pesata e padre
+ * nell'albero dei cammini minimi di ogni vertice.
+ *
+ * I vertici non raggiunti hanno distanza e padre pari a -1; il vertice iniziale è padre di sé stesso.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class ShortestPathResult {
+    private final int verticeIniziale;
+    private final long[] distanza;
+    private final int[] padre;
+    
+    ShortestPathResult(int verticeIniziale, long[] distanza, int[] padre) {
+        this.verticeIniziale = verticeIniziale;
+        this.distanza = distanza;
+        this.padre = padre;
+    }
+    
+    /**
+     * Restituisce il vertice da cui sono calcolati i cammini.
+     */
+    public int getSource() {
+        return verticeIniziale;
+    }
+    
+    /**
+     * Restituisce l'array delle distanze, senza copia.
+     */
+    public long[] getDistance() {
+        return distanza;
+    }
+    
+    /**
+     * Restituisce l'array dei padri, senza copia.
+     */
+    public int[] getParent() {
+        return padre;
+    }
+    
+    /**
+     * Restituisce true se il vertice è stato raggiunto.
+     */
+    public boolean isReached(int vertice) {
+        return distanza[vertice] >= 0;
+    }
+    
+    /**
+     * Restituisce il numero di vertici raggiunti.
+     */
+    public int getReachedCount() {
+        int totale = 0;
+        for (long d : distanza) {
+            if (d >= 0) {
+                totale++;
+            }
+        }
+        return totale;
+    }
+    
+    /**
+     * Restituisce il cammino minimo dal vertice iniziale al vertice dato, vuoto se non è raggiungibile.
+     */
+    public int[] getPath(int vertice) {
+        if (distanza[vertice] < 0) {
+            return new int[0];
+        }
+        
+        int lunghezza = 1;
+        for (int v = vertice; v != verticeIniziale; v = padre[v]) {
+            lunghezza++;
+        }
+        int[] cammino = new int[lunghezza];
+        for (int i = lunghezza - 1; i >= 0; i--) {
+            cammino[i] = vertice;
+            vertice = padre[vertice];
+        }
+        return cammino;
+    }
+}
@@ -0,0 +1,283 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cammini minimi da una sorgente su un grafo con pesi non negativi.
+ *
+ * L'algoritmo di Dijkstra sequenziale usa un {@link IndexedMinHeap}. La versione parallela è il
+ * delta-stepping (Meyer, Sanders): i vertici sono divisi in secchi di ampiezza delta in base
+ * alla distanza provvisoria e i vertici del secchio minimo non vuoto vengono rilassati in
+ * parallelo, come le frontiere di {@link LevelSynchronousBfs}, finché il secchio non resta vuoto.
+ * Con delta pari a 1 e pesi unitari l'algoritmo è una BFS, con delta infinito è Bellman-Ford.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class ShortestPaths {
+    
+    // Vertici del secchio per blocco
+    private static final int GRANA_SECCHIO = 1024;
+    
+    // Distanza provvisoria dei vertici non ancora raggiunti
+    private static final long INFINITO = Long.MAX_VALUE;
+    
+    private final WeightedCsrGraph grafo;
+    
+    public ShortestPaths(WeightedCsrGraph grafo) {
+        this.grafo = grafo;
+    }
+    
+    /**
+     * Algoritmo di Dijkstra sequenziale con heap binario indicizzato.
+     */
+    public ShortestPathResult dijkstra(int verticeIniziale) {
+        int vertici = grafo.getVerticesCount();
+        verificaVertice(verticeIniziale, vertici);
+        int[] offsets = grafo.getGraph().getOffsets();
+        int[] targets = grafo.getGraph().getTargets();
+        int[] pesi = grafo.getWeights();
+        
+        long[] distanza = new long[vertici];
+        int[] padre = new int[vertici];
+        Arrays.fill(distanza, -1);
+        Arrays.fill(padre, -1);
+        distanza[verticeIniziale] = 0;
+        padre[verticeIniziale] = verticeIniziale;
+        
+        IndexedMinHeap heap = new IndexedMinHeap(vertici);
+        heap.insert(verticeIniziale, 0);
+        while (!heap.isEmpty()) {
+            long distanzaVertice = heap.peekKey();
+            int vertice = heap.poll();
+            for (int i = offsets[vertice]; i < offsets[vertice + 1]; i++) {
+                int vicino = targets[i];
+                long nuova = distanzaVertice + pesi[i];
+                // distanza -1 indica un vertice mai raggiunto; quelli già estratti non migliorano
+                if (distanza[vicino] < 0 || nuova < distanza[vicino]) {
+                    distanza[vicino] = nuova;
+                    padre[vicino] = vertice;
+                    heap.insertOrDecrease(vicino, nuova);
+                }
+            }
+        }
+        
+        return new ShortestPathResult(verticeIniziale, distanza, padre);
+    }
+    
+    /**
+     * Delta-stepping parallelo con delta pari al peso massimo diviso per il grado medio,
+     * la scelta suggerita per pesi uniformi.
+     */
+    public ShortestPathResult deltaStepping(int verticeIniziale) {
+        double gradoMedio = (double) grafo.getEdgesCount() / Math.max(1, grafo.getVerticesCount());
+        long delta = Math.max(1, (long) (grafo.getMaxWeight() / Math.max(1.0, gradoMedio)));
+        return deltaStepping(verticeIniziale, delta);
+    }
+    
+    /**
+     * Delta-stepping parallelo con l'ampiezza dei secchi data.
+     *
+     * Le distanze sono aggiornate con compareAndSet, e ogni blocco del secchio raccoglie i
+     * vertici migliorati in secchi locali, pubblicati alla fine del blocco in una mappa
+     * ordinata condivisa. Un vertice può comparire più volte: le voci il cui secchio non
+     * corrisponde più alla distanza attuale vengono ignorate. I padri sono ricostruiti alla
+     * fine dalle distanze, così sono sempre coerenti con esse.
+     */
+    public ShortestPathResult deltaStepping(int verticeIniziale, long delta) {
+        int vertici = grafo.getVerticesCount();
+        verificaVertice(verticeIniziale, vertici);
+        if (delta <= 0) {
+            throw new IllegalArgumentException("L'ampiezza dei secchi deve essere positiva");
+        }
+        int[] offsets = grafo.getGraph().getOffsets();
+        int[] targets = grafo.getGraph().getTargets();
+        int[] pesi = grafo.getWeights();
+        
+        AtomicLongArray distanza = new AtomicLongArray(vertici);
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                distanza.lazySet(v, INFINITO);
+            }
+        });
+        distanza.set(verticeIniziale, 0);
+        
+        ConcurrentSkipListMap<Long, ConcurrentLinkedQueue<int[]>> secchi = new ConcurrentSkipListMap<>();
+        secchi.computeIfAbsent(0L, k -> new ConcurrentLinkedQueue<>()).add(new int[] {verticeIniziale});
+        
+        while (!secchi.isEmpty()) {
+            Map.Entry<Long, ConcurrentLinkedQueue<int[]>> prossimo = secchi.pollFirstEntry();
+            long indice = prossimo.getKey();
+            int[] secchio = LevelSynchronousBfs.concatena(prossimo.getValue().toArray(new int[0][]));
+            
+            int numBlocchi = (secchio.length + GRANA_SECCHIO - 1) / GRANA_SECCHIO;
+            ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+                Map<Long, SecchioLocale> locali = new HashMap<>();
+                for (int b = primo; b < ultimo; b++) {
+                    int fine = Math.min(secchio.length, (b + 1) * GRANA_SECCHIO);
+                    for (int i = b * GRANA_SECCHIO; i < fine; i++) {
+                        int vertice = secchio[i];
+                        long distanzaVertice = distanza.get(vertice);
+                        if (distanzaVertice / delta != indice) {
+                            // Voce superata da una distanza migliore, già rilassata in un secchio precedente
+                            continue;
+                        }
+                        for (int j = offsets[vertice]; j < offsets[vertice + 1]; j++) {
+                            int vicino = targets[j];
+                            long nuova = distanzaVertice + pesi[j];
+                            if (rilassa(distanza, vicino, nuova)) {
+                                locali.computeIfAbsent(nuova / delta, k -> new SecchioLocale()).aggiungi(vicino);
+                            }
+                        }
+                    }
+                }
+                for (Map.Entry<Long, SecchioLocale> locale : locali.entrySet()) {
+                    secchi.computeIfAbsent(locale.getKey(), k -> new ConcurrentLinkedQueue<>())
+                            .add(locale.getValue().toArray());
+                }
+            });
+        }
+        
+        long[] risultato = new long[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                long d = distanza.get(v);
+                risultato[v] = d == INFINITO ? -1 : d;
+            }
+        });
+        return new ShortestPathResult(verticeIniziale, risultato, ricostruisciPadri(verticeIniziale, risultato));
+    }
+    
+    /**
+     * Abbassa con compareAndSet la distanza del vertice a nuova, se è minore di quella attuale.
+     */
+    private static boolean rilassa(AtomicLongArray distanza, int vertice, long nuova) {
+        long attuale = distanza.get(vertice);
+        while (nuova < attuale) {
+            if (distanza.compareAndSet(vertice, attuale, nuova)) {
+                return true;
+            }
+            attuale = distanza.get(vertice);
+        }
+        return false;
+    }
+    
+    /**
+     * Sceglie come padre di ogni vertice il predecessore minimo tra quelli collegati da un
+     * arco di peso positivo che realizza la sua distanza, quindi il risultato è deterministico.
+     * I vertici raggiungibili con cammini minimi solo tramite archi di peso zero ricevono il
+     * padre con una visita in ampiezza sugli archi di peso zero tra vertici alla stessa distanza.
+     */
+    private int[] ricostruisciPadri(int verticeIniziale, long[] distanza) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getGraph().getOffsets();
+        int[] targets = grafo.getGraph().getTargets();
+        int[] pesi = grafo.getWeights();
+        
+        AtomicIntegerArray candidati = new AtomicIntegerArray(vertici);
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                candidati.lazySet(v, Integer.MAX_VALUE);
+            }
+        });
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int u = inizio; u < fine; u++) {
+                if (distanza[u] < 0) {
+                    continue;
+                }
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    if (pesi[i] > 0 && distanza[u] + pesi[i] == distanza[v] && u < candidati.get(v)) {
+                        candidati.accumulateAndGet(v, u, Math::min);
+                    }
+                }
+            }
+        });
+        
+        int[] padre = new int[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int candidato = candidati.get(v);
+                padre[v] = candidato == Integer.MAX_VALUE ? -1 : candidato;
+            }
+        });
+        padre[verticeIniziale] = verticeIniziale;
+        
+        if (grafo.getGraph().getEdgesCount() > 0 && pesoMinimo() == 0) {
+            collegaArchiNulli(distanza, padre);
+        }
+        return padre;
+    }
+    
+    /**
+     * Assegna il padre ai vertici raggiunti che ne sono privi, visitando in ordine di vertice
+     * gli archi di peso zero a partire dai vertici che hanno già un padre.
+     */
+    private void collegaArchiNulli(long[] distanza, int[] padre) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getGraph().getOffsets();
+        int[] targets = grafo.getGraph().getTargets();
+        int[] pesi = grafo.getWeights();
+        
+        int[] coda = new int[vertici];
+        int testa = 0;
+        int numInCoda = 0;
+        for (int v = 0; v < vertici; v++) {
+            if (padre[v] >= 0) {
+                coda[numInCoda++] = v;
+            }
+        }
+        while (testa < numInCoda) {
+            int u = coda[testa++];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (pesi[i] == 0 && padre[v] < 0 && distanza[v] == distanza[u]) {
+                    padre[v] = u;
+                    coda[numInCoda++] = v;
+                }
+            }
+        }
+    }
+    
+    private int pesoMinimo() {
+        int minimo = Integer.MAX_VALUE;
+        for (int peso : grafo.getWeights()) {
+            minimo = Math.min(minimo, peso);
+        }
+        return minimo;
+    }
+    
+    private static void verificaVertice(int vertice, int vertici) {
+        if (vertice < 0 || vertice >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + vertice);
+        }
+    }
+    
+    /**
+     * Vertici migliorati da un blocco che appartengono allo stesso secchio
+     */
+    private static class SecchioLocale {
+        private int[] vertici = new int[16];
+        private int dimensione;
+        
+        void aggiungi(int vertice) {
+            if (dimensione == vertici.length) {
+                vertici = Arrays.copyOf(vertici, 2 * dimensione);
+            }
+            vertici[dimensione++] = vertice;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(vertici, dimensione);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conteggio parallelo dei triangoli e coefficienti di clustering locali.
+ *
+ * Il grafo viene considerato non orientato: gli archi uscenti ed entranti vengono uniti, senza
+ * archi multipli e cappi. Ogni arco viene poi orientato dal vertice di rango minore a quello di
+ * rango maggiore, dove il rango ordina i vertici per grado e poi per identificativo: ogni
+ * triangolo viene così contato una sola volta, dal suo vertice di rango minimo, e il grado
+ * uscente di un vertice non supera la radice del doppio del numero di archi.
+ *
+ * I triangoli di u sono le intersezioni tra i vicini orientati di u e quelli di ogni suo vicino
+ * orientato v. Invece di fondere le due liste ordinate, i vicini di u vengono marcati in un
+ * array del thread e ogni intersezione scorre solo la lista di v, con costo pari al grado
+ * uscente di v invece della somma dei due gradi. I vertici sono divisi in molti blocchi di
+ * lavoro stimato simile, che il pool Fork/Join distribuisce con il furto di lavoro.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class TriangleCounting {
+    
+    // Blocchi per thread, per bilanciare anche i blocchi che la stima del lavoro sbaglia
+    private static final int BLOCCHI_PER_THREAD = 32;
+    
+    private final CsrGraph nonOrientato;
+    private final CsrGraph orientato;
+    private final int[] confini;
+    private final ThreadLocal<int[]> marche;
+    
+    /**
+     * Costruttore che prepara il grafo trasposto, necessario per seguire gli archi entranti.
+     */
+    public TriangleCounting(CsrGraph grafo) {
+        this(grafo, grafo.transpose());
+    }
+    
+    /**
+     * Costruttore per un grafo di cui si conosce già il trasposto. Per un grafo simmetrico si
+     * può passare il grafo stesso.
+     */
+    public TriangleCounting(CsrGraph grafo, CsrGraph trasposto) {
+        if (grafo.getVerticesCount() != trasposto.getVerticesCount()
+                || grafo.getEdgesCount() != trasposto.getEdgesCount()) {
+            throw new IllegalArgumentException("Il grafo trasposto non corrisponde al grafo");
+        }
+        this.nonOrientato = simmetrizza(grafo, trasposto);
+        this.orientato = orientaPerRango(nonOrientato);
+        this.confini = blocchiBilanciati(orientato, BLOCCHI_PER_THREAD * ForkJoinPool.getCommonPoolParallelism());
+        int vertici = grafo.getVerticesCount();
+        this.marche = ThreadLocal.withInitial(() -> new int[vertici]);
+    }
+    
+    /**
+     * Restituisce il grafo non orientato, con i vicini ordinati e senza archi multipli e cappi.
+     */
+    public CsrGraph getUndirectedGraph() {
+        return nonOrientato;
+    }
+    
+    /**
+     * Restituisce il numero totale di triangoli.
+     */
+    public long countTriangles() {
+        return conta(null);
+    }
+    
+    /**
+     * Restituisce per ogni vertice il numero di triangoli a cui appartiene.
+     */
+    public long[] trianglesPerVertex() {
+        int vertici = orientato.getVerticesCount();
+        AtomicLongArray conteggi = new AtomicLongArray(vertici);
+        conta(conteggi);
+        
+        long[] triangoli = new long[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                triangoli[v] = conteggi.get(v);
+            }
+        });
+        return triangoli;
+    }
+    
+    /**
+     * Restituisce il coefficiente di clustering locale di ogni vertice, cioè la frazione delle
+     * coppie di vicini che sono a loro volta adiacenti; è 0 per i vertici con meno di due vicini.
+     */
+    public double[] clusteringCoefficients() {
+        return clusteringCoefficients(trianglesPerVertex());
+    }
+    
+    /**
+     * Restituisce i coefficienti di clustering locali a partire dai triangoli per vertice.
+     */
+    public double[] clusteringCoefficients(long[] triangoli) {
+        int vertici = nonOrientato.getVerticesCount();
+        if (triangoli.length != vertici) {
+            throw new IllegalArgumentException("Il numero di conteggi non corrisponde ai vertici");
+        }
+        
+        double[] coefficienti = new double[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                long grado = nonOrientato.getDegree(v);
+                coefficienti[v] = grado < 2 ? 0 : 2.0 * triangoli[v] / (grado * (grado - 1));
+            }
+        });
+        return coefficienti;
+    }
+    
+    /**
+     * Conta i triangoli; se conteggi non è null vi somma anche i triangoli di ogni vertice.
+     *
+     * I vicini orientati di u vengono marcati con u + 1 in un array del thread, e ogni vicino
+     * orientato w di v che porta la marca chiude un triangolo. Le marche non vanno mai azzerate:
+     * una marca u + 1 rimasta da un conteggio precedente indica comunque un vicino di u.
+     */
+    private long conta(AtomicLongArray conteggi) {
+        int[] offsets = orientato.getOffsets();
+        int[] targets = orientato.getTargets();
+        LongAdder totale = new LongAdder();
+        
+        ParallelSortingAlgorithms.cicloParallelo(confini.length - 1, 1, (primo, ultimo) -> {
+            int[] marche = this.marche.get();
+            long locale = 0;
+            for (int u = confini[primo]; u < confini[ultimo]; u++) {
+                int marca = u + 1;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    marche[targets[i]] = marca;
+                }
+                
+                long triangoliU = 0;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    long comuni = 0;
+                    for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                        int w = targets[j];
+                        if (marche[w] == marca) {
+                            comuni++;
+                            if (conteggi != null) {
+                                conteggi.incrementAndGet(w);
+                            }
+                        }
+                    }
+                    if (conteggi != null && comuni > 0) {
+                        conteggi.addAndGet(v, comuni);
+                    }
+                    triangoliU += comuni;
+                }
+                if (conteggi != null && triangoliU > 0) {
+                    conteggi.addAndGet(u, triangoliU);
+                }
+                locale += triangoliU;
+            }
+            totale.add(locale);
+        });
+        return totale.sum();
+    }
+    
+    /**
+     * Unisce archi uscenti ed entranti, ordinando i vicini ed eliminando archi multipli e cappi
+     */
+    static CsrGraph simmetrizza(CsrGraph grafo, CsrGraph trasposto) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsetsG = grafo.getOffsets();
+        int[] targetsG = grafo.getTargets();
+        int[] offsetsT = trasposto.getOffsets();
+        int[] targetsT = trasposto.getTargets();
+        
+        int[] offsetsUniti = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsetsUniti[v + 1] = (offsetsG[v + 1] - offsetsG[v]) + (offsetsT[v + 1] - offsetsT[v]);
+            }
+        });
+        int numUniti = CsrGraph.sommaPrefissa(offsetsUniti);
+        int[] uniti = new int[numUniti];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int uscenti = offsetsG[v + 1] - offsetsG[v];
+                System.arraycopy(targetsG, offsetsG[v], uniti, offsetsUniti[v], uscenti);
+                System.arraycopy(targetsT, offsetsT[v], uniti, offsetsUniti[v] + uscenti, offsetsT[v + 1] - offsetsT[v]);
+            }
+        });
+        CsrGraph.ordinaVicini(offsetsUniti, uniti);
+        
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsets[v + 1] = compatta(uniti, offsetsUniti[v], offsetsUniti[v + 1], v, null, 0);
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                compatta(uniti, offsetsUniti[v], offsetsUniti[v + 1], v, targets, offsets[v]);
+            }
+        });
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Conta i vicini ordinati distinti e diversi dal vertice, copiandoli in destinazione se non è null
+     */
+    private static int compatta(int[] vicini, int inizio, int fine, int vertice, int[] destinazione, int posizione) {
+        int distinti = 0;
+        for (int i = inizio; i < fine; i++) {
+            int vicino = vicini[i];
+            if (vicino != vertice && (i == inizio || vicino != vicini[i - 1])) {
+                if (destinazione != null) {
+                    destinazione[posizione + distinti] = vicino;
+                }
+                distinti++;
+            }
+        }
+        return distinti;
+    }
+    
+    /**
+     * Mantiene ogni arco solo nella direzione dal vertice di rango minore a quello di rango maggiore
+     */
+    static CsrGraph orientaPerRango(CsrGraph nonOrientato) {
+        int vertici = nonOrientato.getVerticesCount();
+        int[] offsetsN = nonOrientato.getOffsets();
+        int[] targetsN = nonOrientato.getTargets();
+        
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int u = inizio; u < fine; u++) {
+                int uscenti = 0;
+                for (int i = offsetsN[u]; i < offsetsN[u + 1]; i++) {
+                    if (precede(offsetsN, u, targetsN[i])) {
+                        uscenti++;
+                    }
+                }
+                offsets[u + 1] = uscenti;
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int u = inizio; u < fine; u++) {
+                int posizione = offsets[u];
+                for (int i = offsetsN[u]; i < offsetsN[u + 1]; i++) {
+                    if (precede(offsetsN, u, targetsN[i])) {
+                        targets[posizione++] = targetsN[i];
+                    }
+                }
+            }
+        });
+        return new CsrGraph(offsets, targets);
+    }
+    
+    /**
+     * Restituisce true se u ha rango minore di v: grado minore, o stesso grado e identificativo minore
+     */
+    private static boolean precede(int[] offsets, int u, int v) {
+        int gradoU = offsets[u + 1] - offsets[u];
+        int gradoV = offsets[v + 1] - offsets[v];
+        return gradoU < gradoV || (gradoU == gradoV && u < v);
+    }
+    
+    /**
+     * Divide i vertici in al più numBlocchi intervalli contigui con lavoro simile, stimando il
+     * lavoro di u come il suo grado uscente più quelli dei suoi vicini orientati, più uno.
+     */
+    private static int[] blocchiBilanciati(CsrGraph orientato, int numBlocchi) {
+        int vertici = orientato.getVerticesCount();
+        int[] offsets = orientato.getOffsets();
+        int[] targets = orientato.getTargets();
+        
+        long[] lavoro = new long[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int u = inizio; u < fine; u++) {
+                long stima = 1 + offsets[u + 1] - offsets[u];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    stima += offsets[targets[i] + 1] - offsets[targets[i]];
+                }
+                lavoro[u + 1] = stima;
+            }
+        });
+        for (int u = 1; u <= vertici; u++) {
+            lavoro[u] += lavoro[u - 1];
+        }
+        
+        numBlocchi = Math.max(1, Math.min(numBlocchi, vertici));
+        int[] confini = new int[numBlocchi + 1];
+        for (int b = 1; b < numBlocchi; b++) {
+            // Primo vertice u con lavoro[u] >= b * lavoroTotale / numBlocchi
+            long obiettivo = (long) ((double) lavoro[vertici] * b / numBlocchi);
+            int basso = confini[b - 1];
+            int alto = vertici;
+            while (basso < alto) {
+                int medio = (basso + alto) >>> 1;
+                if (lavoro[medio] < obiettivo) {
+                    basso = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            confini[b] = basso;
+        }
+        confini[numBlocchi] = vertici;
+        return confini;
+    }
+}
\ No newline at end of file
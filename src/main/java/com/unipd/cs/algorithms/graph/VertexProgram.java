@@ -0,0 +1,40 @@
+package com.unipd.cs.algorithms.graph;
+
+/**
+ * Programma iterativo per vertice eseguito da {@link PullEngine}.
+ *
+ * A ogni iterazione il nuovo valore di ogni vertice è calcolato leggendo i valori
+ * dell'iterazione precedente dei suoi predecessori: update viene chiamato in parallelo su
+ * vertici diversi e non deve modificare stato condiviso.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public interface VertexProgram {
+    
+    /**
+     * Restituisce il valore iniziale del vertice.
+     */
+    double initialValue(int vertice);
+    
+    /**
+     * Chiamato prima di ogni iterazione con i valori correnti, ad esempio per calcolare
+     * quantità globali. Non è chiamato in parallelo e può usare al suo interno il pool comune.
+     */
+    default void beforeIteration(double[] valori) {
+    }
+    
+    /**
+     * Calcola il nuovo valore del vertice dai valori dell'iterazione precedente; i predecessori
+     * del vertice sono i suoi vicini nel grafo trasposto.
+     */
+    double update(int vertice, CsrGraph trasposto, double[] valori);
+    
+    /**
+     * Contributo del vertice al residuo dell'iterazione, per default la differenza assoluta.
+     */
+    default double residual(double vecchio, double nuovo) {
+        return Math.abs(nuovo - vecchio);
+    }
+}
@@ -0,0 +1,412 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Rinumerazione dei vertici per migliorare la località degli accessi in memoria.
+ *
+ * Con identificativi arbitrari i vicini di un vertice sono sparsi in tutto l'array dei valori
+ * e ogni accesso è un probabile fallimento di cache e di TLB. Le rinumerazioni disponibili
+ * assegnano identificativi vicini a vertici vicini nel grafo:
+ * <ul>
+ *   <li>Cuthill–McKee inverso: visita in ampiezza da un vertice di grado minimo, con i vertici
+ *       di ogni livello ordinati per posizione del predecessore e per grado, poi invertita;</li>
+ *   <li>ordine di visita in ampiezza: come sopra, senza il grado e senza inversione;</li>
+ *   <li>grado decrescente: i vertici più collegati, e quindi più letti, sono contigui.</li>
+ * </ul>
+ * Le visite elaborano in parallelo i livelli abbastanza grandi e l'ordine nei livelli è
+ * fissato da un ordinamento, quindi la permutazione non dipende dal numero di thread.
+ *
+ * Il grafo rinumerato si usa con gli algoritmi esistenti; i risultati si riportano agli
+ * identificativi originali con le permutazioni vecchio → nuovo e nuovo → vecchio.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class VertexReordering {
+    
+    // Vertici di un livello per blocco; i livelli di un solo blocco sono elaborati senza il pool
+    private static final int GRANA_LIVELLO = 1024;
+    
+    // Livelli fino a questa dimensione sono ordinati per inserimento
+    private static final int SOGLIA_INSERIMENTO = 32;
+    
+    private final CsrGraph grafo;
+    private final int[] vecchioNuovo;
+    private final int[] nuovoVecchio;
+    
+    private VertexReordering(CsrGraph originale, int[] nuovoVecchio) {
+        int vertici = originale.getVerticesCount();
+        this.nuovoVecchio = nuovoVecchio;
+        this.vecchioNuovo = new int[vertici];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int nuovo = inizio; nuovo < fine; nuovo++) {
+                vecchioNuovo[nuovoVecchio[nuovo]] = nuovo;
+            }
+        });
+        this.grafo = rinumera(originale, vecchioNuovo, nuovoVecchio);
+    }
+    
+    /**
+     * Metodo principale per confrontare le rinumerazioni
+     */
+    public static void main(String[] args) {
+        System.out.println("Rinumerazione dei Vertici");
+        System.out.println("=========================");
+        
+        // Grafo R-MAT con identificativi mescolati, come quelli di un grafo letto da file
+        CsrGraph rmat = GraphGenerators.rmat(20, 16, 42);
+        long[] casuali = new long[rmat.getVerticesCount()];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int v = 0; v < casuali.length; v++) {
+            casuali[v] = random.nextLong();
+        }
+        CsrGraph grafo = new VertexReordering(rmat, ParallelSortingAlgorithms.argSortParallelo(casuali)).getGraph();
+        
+        long tempoInizio = System.currentTimeMillis();
+        BfsResult risultato = new LevelSynchronousBfs(grafo).bfs(0);
+        long tempoFine = System.currentTimeMillis();
+        System.out.printf("Ordine originale: BFS %d ms, Distanza media tra vicini: %.0f%n",
+                (tempoFine - tempoInizio), distanzaMediaVicini(grafo));
+        
+        String[] nomi = {"Cuthill-McKee inverso", "Ordine BFS", "Grado decrescente"};
+        for (int i = 0; i < nomi.length; i++) {
+            tempoInizio = System.currentTimeMillis();
+            VertexReordering rinumerazione = i == 0 ? reverseCuthillMcKee(grafo)
+                    : i == 1 ? bfsOrder(grafo) : degreeDescending(grafo);
+            tempoFine = System.currentTimeMillis();
+            long tempoRinumerazione = tempoFine - tempoInizio;
+            
+            CsrGraph rinumerato = rinumerazione.getGraph();
+            tempoInizio = System.currentTimeMillis();
+            BfsResult risultatoRinumerato = new LevelSynchronousBfs(rinumerato).bfs(rinumerazione.toReordered(0));
+            tempoFine = System.currentTimeMillis();
+            boolean uguali = Arrays.equals(risultato.getDistance(),
+                    rinumerazione.toOriginal(risultatoRinumerato).getDistance());
+            System.out.printf("%s: rinumerazione %d ms, BFS %d ms, Distanza media tra vicini: %.0f, Distanze uguali: %b%n",
+                    nomi[i], tempoRinumerazione, (tempoFine - tempoInizio), distanzaMediaVicini(rinumerato), uguali);
+        }
+    }
+    
+    /**
+     * Rinumerazione Cuthill–McKee inversa, che riduce la banda della matrice di adiacenza.
+     * Ogni parte del grafo non ancora raggiunta viene visitata dal suo vertice di grado minimo.
+     */
+    public static VertexReordering reverseCuthillMcKee(CsrGraph grafo) {
+        int[] gradi = gradi(grafo);
+        int[] partenze = ParallelSortingAlgorithms.argSortParallelo(gradi);
+        int[] ordine = ordineAmpiezza(grafo, partenze, gradi);
+        
+        // Inversione dell'ordine Cuthill–McKee
+        int n = ordine.length;
+        ParallelSortingAlgorithms.cicloParallelo(n / 2, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                int scambio = ordine[i];
+                ordine[i] = ordine[n - 1 - i];
+                ordine[n - 1 - i] = scambio;
+            }
+        });
+        return new VertexReordering(grafo, ordine);
+    }
+    
+    /**
+     * Rinumerazione nell'ordine di visita in ampiezza; ogni parte del grafo non ancora
+     * raggiunta viene visitata dal suo vertice di indice minimo.
+     */
+    public static VertexReordering bfsOrder(CsrGraph grafo) {
+        int[] partenze = new int[grafo.getVerticesCount()];
+        ParallelSortingAlgorithms.cicloParallelo(partenze.length, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                partenze[v] = v;
+            }
+        });
+        return new VertexReordering(grafo, ordineAmpiezza(grafo, partenze, null));
+    }
+    
+    /**
+     * Rinumerazione per grado uscente decrescente; a parità di grado resta l'ordine originale.
+     */
+    public static VertexReordering degreeDescending(CsrGraph grafo) {
+        int[] chiavi = gradi(grafo);
+        ParallelSortingAlgorithms.cicloParallelo(chiavi.length, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                chiavi[v] = -chiavi[v];
+            }
+        });
+        return new VertexReordering(grafo, ParallelSortingAlgorithms.argSortParallelo(chiavi));
+    }
+    
+    /**
+     * Restituisce il grafo rinumerato.
+     */
+    public CsrGraph getGraph() {
+        return grafo;
+    }
+    
+    /**
+     * Restituisce la permutazione vecchio → nuovo, senza copia.
+     */
+    public int[] getOldToNew() {
+        return vecchioNuovo;
+    }
+    
+    /**
+     * Restituisce la permutazione nuovo → vecchio, senza copia.
+     */
+    public int[] getNewToOld() {
+        return nuovoVecchio;
+    }
+    
+    /**
+     * Restituisce l'identificativo nel grafo rinumerato di un vertice originale.
+     */
+    public int toReordered(int vertice) {
+        return vecchioNuovo[vertice];
+    }
+    
+    /**
+     * Restituisce l'identificativo originale di un vertice del grafo rinumerato.
+     */
+    public int toOriginal(int vertice) {
+        return nuovoVecchio[vertice];
+    }
+    
+    /**
+     * Riporta agli identificativi originali un array di valori indicizzato per vertice
+     * rinumerato, ad esempio delle distanze: il risultato è indicizzato per vertice originale.
+     */
+    public int[] valuesToOriginal(int[] valori) {
+        int[] originali = new int[valori.length];
+        ParallelSortingAlgorithms.cicloParallelo(valori.length, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                originali[v] = valori[vecchioNuovo[v]];
+            }
+        });
+        return originali;
+    }
+    
+    /**
+     * Riporta agli identificativi originali un array di vertici rinumerati, ad esempio un
+     * cammino; i valori negativi, che indicano l'assenza di un vertice, restano invariati.
+     */
+    public int[] verticesToOriginal(int[] vertici) {
+        int[] originali = new int[vertici.length];
+        ParallelSortingAlgorithms.cicloParallelo(vertici.length, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                originali[i] = vertici[i] < 0 ? vertici[i] : nuovoVecchio[vertici[i]];
+            }
+        });
+        return originali;
+    }
+    
+    /**
+     * Riporta agli identificativi originali il risultato di una BFS sul grafo rinumerato.
+     */
+    public BfsResult toOriginal(BfsResult risultato) {
+        return new BfsResult(nuovoVecchio[risultato.getSource()], valuesToOriginal(risultato.getDistance()),
+                verticesToOriginal(valuesToOriginal(risultato.getParent())));
+    }
+    
+    /**
+     * Restituisce la differenza media tra gli identificativi degli estremi degli archi,
+     * una misura della località del grafo.
+     */
+    public static double distanzaMediaVicini(CsrGraph grafo) {
+        double somma = PullEngine.sommaParallela(grafo.getVerticesCount(), v -> {
+            long totale = 0;
+            for (int i = grafo.getNeighborsStart(v); i < grafo.getNeighborsEnd(v); i++) {
+                totale += Math.abs(grafo.getTarget(i) - v);
+            }
+            return totale;
+        });
+        return grafo.getEdgesCount() == 0 ? 0 : somma / grafo.getEdgesCount();
+    }
+    
+    private static int[] gradi(CsrGraph grafo) {
+        int[] gradi = new int[grafo.getVerticesCount()];
+        ParallelSortingAlgorithms.cicloParallelo(gradi.length, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                gradi[v] = grafo.getDegree(v);
+            }
+        });
+        return gradi;
+    }
+    
+    /**
+     * Ordine di visita in ampiezza, che parte dal primo vertice di partenze non ancora
+     * visitato finché tutti i vertici non sono visitati. I vertici scoperti da un livello sono
+     * ordinati per posizione minima di un loro predecessore nel livello, poi, se gradi non è
+     * null, per grado, infine per indice.
+     */
+    private static int[] ordineAmpiezza(CsrGraph grafo, int[] partenze, int[] gradi) {
+        int vertici = grafo.getVerticesCount();
+        int[] offsets = grafo.getOffsets();
+        int[] targets = grafo.getTargets();
+        int[] ordine = new int[vertici];
+        int[] posizione = LevelSynchronousBfs.arrayNonRaggiunti(vertici);
+        AtomicBitmap visitati = new AtomicBitmap(vertici);
+        AtomicIntegerArray predecessore = new AtomicIntegerArray(vertici);
+        
+        int collocati = 0;
+        for (int partenza : partenze) {
+            if (visitati.get(partenza)) {
+                continue;
+            }
+            visitati.set(partenza);
+            ordine[collocati] = partenza;
+            posizione[partenza] = collocati;
+            int inizioLivello = collocati;
+            int fineLivello = ++collocati;
+            
+            while (inizioLivello < fineLivello) {
+                int inizio = inizioLivello;
+                int dimensione = fineLivello - inizioLivello;
+                int numBlocchi = (dimensione + GRANA_LIVELLO - 1) / GRANA_LIVELLO;
+                
+                // Scoperta dei vertici del livello successivo
+                int[][] scoperti = new int[numBlocchi][];
+                ciclo(numBlocchi, b -> {
+                    int[] locale = new int[16];
+                    int numLocali = 0;
+                    int fine = inizio + Math.min(dimensione, (b + 1) * GRANA_LIVELLO);
+                    for (int i = inizio + b * GRANA_LIVELLO; i < fine; i++) {
+                        int v = ordine[i];
+                        for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                            int w = targets[j];
+                            if (!visitati.get(w) && visitati.set(w)) {
+                                predecessore.set(w, Integer.MAX_VALUE);
+                                if (numLocali == locale.length) {
+                                    locale = Arrays.copyOf(locale, 2 * numLocali);
+                                }
+                                locale[numLocali++] = w;
+                            }
+                        }
+                    }
+                    scoperti[b] = Arrays.copyOf(locale, numLocali);
+                });
+                int[] livello = numBlocchi == 1 ? scoperti[0] : LevelSynchronousBfs.concatena(scoperti);
+                
+                // Posizione minima di un predecessore: i vertici scoperti sono visitati ma non collocati
+                ciclo(numBlocchi, b -> {
+                    int fine = inizio + Math.min(dimensione, (b + 1) * GRANA_LIVELLO);
+                    for (int i = inizio + b * GRANA_LIVELLO; i < fine; i++) {
+                        int v = ordine[i];
+                        for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                            int w = targets[j];
+                            if (posizione[w] < 0 && i < predecessore.get(w)) {
+                                predecessore.accumulateAndGet(w, i, Math::min);
+                            }
+                        }
+                    }
+                });
+                
+                ordinaLivello(livello, predecessore, gradi);
+                int primaPosizione = fineLivello;
+                ciclo((livello.length + GRANA_LIVELLO - 1) / GRANA_LIVELLO, b -> {
+                    int fine = Math.min(livello.length, (b + 1) * GRANA_LIVELLO);
+                    for (int i = b * GRANA_LIVELLO; i < fine; i++) {
+                        ordine[primaPosizione + i] = livello[i];
+                        posizione[livello[i]] = primaPosizione + i;
+                    }
+                });
+                
+                collocati += livello.length;
+                inizioLivello = fineLivello;
+                fineLivello = collocati;
+            }
+        }
+        return ordine;
+    }
+    
+    /**
+     * Ordina i vertici di un livello per (predecessore, grado, indice)
+     */
+    private static void ordinaLivello(int[] livello, AtomicIntegerArray predecessore, int[] gradi) {
+        if (livello.length < 2) {
+            return;
+        }
+        
+        // Ordinando prima per indice, l'ordinamento stabile per chiave risolve le parità per indice
+        if (livello.length <= SOGLIA_INSERIMENTO) {
+            Arrays.sort(livello);
+        } else {
+            ParallelSortingAlgorithms.mergeSortParallelo(livello);
+        }
+        long[] chiavi = new long[livello.length];
+        for (int i = 0; i < livello.length; i++) {
+            int v = livello[i];
+            chiavi[i] = ((long) predecessore.get(v) << 32) | (gradi == null ? 0 : gradi[v]);
+        }
+        
+        if (livello.length <= SOGLIA_INSERIMENTO) {
+            for (int i = 1; i < livello.length; i++) {
+                long chiave = chiavi[i];
+                int v = livello[i];
+                int j = i - 1;
+                while (j >= 0 && chiavi[j] > chiave) {
+                    chiavi[j + 1] = chiavi[j];
+                    livello[j + 1] = livello[j];
+                    j--;
+                }
+                chiavi[j + 1] = chiave;
+                livello[j + 1] = v;
+            }
+        } else {
+            ParallelSortingAlgorithms.mergeSortParallelo(chiavi, livello);
+        }
+    }
+    
+    /**
+     * Esegue il corpo sui blocchi [0, numBlocchi): in parallelo se sono più di uno, altrimenti
+     * nel thread chiamante, per non pagare il pool sui livelli piccoli.
+     */
+    private static void ciclo(int numBlocchi, IntConsumer corpo) {
+        if (numBlocchi == 1) {
+            corpo.accept(0);
+            return;
+        }
+        ParallelSortingAlgorithms.cicloParallelo(numBlocchi, 1, (primo, ultimo) -> {
+            for (int b = primo; b < ultimo; b++) {
+                corpo.accept(b);
+            }
+        });
+    }
+    
+    /**
+     * Costruisce il grafo rinumerato: i vicini del nuovo vertice v sono i vicini rinumerati
+     * di nuovoVecchio[v], in ordine crescente.
+     */
+    private static CsrGraph rinumera(CsrGraph originale, int[] vecchioNuovo, int[] nuovoVecchio) {
+        int vertici = originale.getVerticesCount();
+        int[] offsetsOriginali = originale.getOffsets();
+        int[] targetsOriginali = originale.getTargets();
+        
+        int[] offsets = new int[vertici + 1];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                offsets[v + 1] = originale.getDegree(nuovoVecchio[v]);
+            }
+        });
+        int numArchi = CsrGraph.sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(vertici, (inizio, fine) -> {
+            for (int v = inizio; v < fine; v++) {
+                int vecchio = nuovoVecchio[v];
+                int posizione = offsets[v];
+                for (int i = offsetsOriginali[vecchio]; i < offsetsOriginali[vecchio + 1]; i++) {
+                    targets[posizione++] = vecchioNuovo[targetsOriginali[i]];
+                }
+            }
+        });
+        
+        CsrGraph.ordinaVicini(offsets, targets);
+        return new CsrGraph(offsets, targets);
+    }
+}
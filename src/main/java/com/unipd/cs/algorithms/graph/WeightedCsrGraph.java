@@ -0,0 +1,182 @@
+package com.unipd.cs.algorithms.graph;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Grafo diretto pesato in formato CSR: al grafo {@link CsrGraph} si affianca un array di pesi
+ * interi non negativi, parallelo all'array delle destinazioni, per cui il peso dell'arco di
+ * indice i è pesi[i].
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class WeightedCsrGraph {
+    private final CsrGraph grafo;
+    private final int[] pesi;
+    private final int pesoMassimo;
+    
+    /**
+     * Costruttore a partire da un grafo CSR e dai pesi dei suoi archi, nell'ordine di targets.
+     * L'array dei pesi viene usato senza copia.
+     */
+    public WeightedCsrGraph(CsrGraph grafo, int[] pesi) {
+        if (pesi.length != grafo.getEdgesCount()) {
+            throw new IllegalArgumentException("Il numero di pesi deve essere uguale al numero di archi");
+        }
+        int massimo = 0;
+        for (int peso : pesi) {
+            if (peso < 0) {
+                throw new IllegalArgumentException("I pesi degli archi non possono essere negativi");
+            }
+            massimo = Math.max(massimo, peso);
+        }
+        this.grafo = grafo;
+        this.pesi = pesi;
+        this.pesoMassimo = massimo;
+    }
+    
+    /**
+     * Costruisce il grafo dagli archi sorgenti[i] -> destinazioni[i] di peso pesi[i].
+     * I vicini di ogni vertice risultano in ordine crescente.
+     */
+    public static WeightedCsrGraph fromEdgeList(int vertici, int[] sorgenti, int[] destinazioni, int[] pesi) {
+        if (vertici < 0) {
+            throw new IllegalArgumentException("Il numero di vertici non può essere negativo");
+        }
+        if (sorgenti.length != destinazioni.length || sorgenti.length != pesi.length) {
+            throw new IllegalArgumentException("Sorgenti, destinazioni e pesi devono avere la stessa lunghezza");
+        }
+        
+        int numArchi = sorgenti.length;
+        AtomicIntegerArray contatori = new AtomicIntegerArray(vertici);
+        ParallelSortingAlgorithms.cicloParallelo(numArchi, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                if (sorgenti[i] < 0 || sorgenti[i] >= vertici || destinazioni[i] < 0 || destinazioni[i] >= vertici) {
+                    throw new IllegalArgumentException("Arco non valido: " + sorgenti[i] + " -> " + destinazioni[i]);
+                }
+                contatori.getAndIncrement(sorgenti[i]);
+            }
+        });
+        
+        int[] offsets = new int[vertici + 1];
+        for (int v = 0; v < vertici; v++) {
+            offsets[v + 1] = contatori.get(v);
+            contatori.set(v, 0);
+        }
+        CsrGraph.sommaPrefissa(offsets);
+        
+        int[] targets = new int[numArchi];
+        int[] pesiArchi = new int[numArchi];
+        ParallelSortingAlgorithms.cicloParallelo(numArchi, (inizio, fine) -> {
+            for (int i = inizio; i < fine; i++) {
+                int posizione = offsets[sorgenti[i]] + contatori.getAndIncrement(sorgenti[i]);
+                targets[posizione] = destinazioni[i];
+                pesiArchi[posizione] = pesi[i];
+            }
+        });
+        
+        ordinaViciniPesati(offsets, targets, pesiArchi);
+        return new WeightedCsrGraph(new CsrGraph(offsets, targets), pesiArchi);
+    }
+    
+    /**
+     * Ordina i vicini di ogni vertice per destinazione e poi per peso, spostando i pesi insieme
+     * alle destinazioni: ogni coppia viene codificata in un long e le coppie sono ordinate come long.
+     */
+    static void ordinaViciniPesati(int[] offsets, int[] targets, int[] pesi) {
+        ParallelSortingAlgorithms.cicloParallelo(offsets.length - 1, (inizio, fine) -> {
+            long[] coppie = new long[16];
+            for (int v = inizio; v < fine; v++) {
+                int grado = offsets[v + 1] - offsets[v];
+                if (grado < 2) {
+                    continue;
+                }
+                if (coppie.length < grado) {
+                    coppie = new long[Math.max(grado, 2 * coppie.length)];
+                }
+                for (int i = 0; i < grado; i++) {
+                    coppie[i] = ((long) targets[offsets[v] + i] << 32) | pesi[offsets[v] + i];
+                }
+                Arrays.sort(coppie, 0, grado);
+                for (int i = 0; i < grado; i++) {
+                    targets[offsets[v] + i] = (int) (coppie[i] >>> 32);
+                    pesi[offsets[v] + i] = (int) coppie[i];
+                }
+            }
+        });
+    }
+    
+    /**
+     * Restituisce il grafo senza pesi, che condivide gli array di questo grafo.
+     */
+    public CsrGraph getGraph() {
+        return grafo;
+    }
+    
+    /**
+     * Restituisce il numero di vertici nel grafo.
+     */
+    public int getVerticesCount() {
+        return grafo.getVerticesCount();
+    }
+    
+    /**
+     * Restituisce il numero di archi nel grafo.
+     */
+    public int getEdgesCount() {
+        return grafo.getEdgesCount();
+    }
+    
+    /**
+     * Restituisce il grado uscente di un vertice.
+     */
+    public int getDegree(int vertice) {
+        return grafo.getDegree(vertice);
+    }
+    
+    /**
+     * Indice del primo arco uscente dal vertice.
+     */
+    public int getNeighborsStart(int vertice) {
+        return grafo.getNeighborsStart(vertice);
+    }
+    
+    /**
+     * Indice successivo all'ultimo arco uscente dal vertice.
+     */
+    public int getNeighborsEnd(int vertice) {
+        return grafo.getNeighborsEnd(vertice);
+    }
+    
+    /**
+     * Restituisce la destinazione dell'arco di indice dato.
+     */
+    public int getTarget(int arco) {
+        return grafo.getTarget(arco);
+    }
+    
+    /**
+     * Restituisce il peso dell'arco di indice dato.
+     */
+    public int getWeight(int arco) {
+        return pesi[arco];
+    }
+    
+    /**
+     * Restituisce il peso massimo degli archi, 0 se il grafo non ha archi.
+     */
+    public int getMaxWeight() {
+        return pesoMassimo;
+    }
+    
+    /**
+     * Array dei pesi, condiviso con gli algoritmi del package: non deve essere modificato.
+     */
+    int[] getWeights() {
+        return pesi;
+    }
+}
@@ -0,0 +1,326 @@
+package com.unipd.cs.algorithms.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ricerca in profondità parallela con furto di lavoro.
+ *
+ * Ogni worker visita il grafo in profondità con una propria pila di interi, senza
+ * sincronizzazione; un vertice appartiene al worker che per primo lo marca nella bitmap dei
+ * visitati con un compareAndSet. Quando ci sono worker inattivi, chi lavora sposta la metà
+ * inferiore della propria pila, cioè i vertici più vicini alla radice e quindi con i
+ * sottoalberi più grandi, in una parte condivisa da cui i worker inattivi possono rubarla.
+ *
+ * La terminazione usa il conteggio dei worker attivi: un worker diventa inattivo solo con
+ * la pila e la parte condivisa vuote, e un worker inattivo torna attivo prima di rubare.
+ * Quando il conteggio è zero non esiste quindi lavoro in nessuna pila e la visita è finita.
+ *
+ * Un worker inattivo cerca lavoro per un numero limitato di tentativi e poi si sospende con
+ * LockSupport.park, dentro ForkJoinPool.managedBlock perché il pool possa attivare un thread
+ * di riserva per gli altri task. Viene risvegliato da chi pubblica una parte della propria pila
+ * e, alla fine della visita, dall'ultimo worker attivo.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class WorkStealingDfs {
+    
+    // Ricerche di lavoro senza successo prima che un worker inattivo si sospenda
+    private static final int TENTATIVI_PRIMA_DI_ATTENDERE = 32;
+    
+    private final CsrGraph grafo;
+    
+    public WorkStealingDfs(CsrGraph grafo) {
+        this.grafo = grafo;
+    }
+    
+    /**
+     * Esegue la ricerca in profondità dal vertice iniziale registrando solo i vertici visitati.
+     */
+    public DfsResult dfs(int verticeIniziale) {
+        return dfs(verticeIniziale, false);
+    }
+    
+    /**
+     * Esegue la ricerca in profondità dal vertice iniziale; con registraAlbero vengono
+     * registrati anche l'ordine di scoperta e il padre di ogni vertice.
+     */
+    public DfsResult dfs(int verticeIniziale, boolean registraAlbero) {
+        int vertici = grafo.getVerticesCount();
+        if (verticeIniziale < 0 || verticeIniziale >= vertici) {
+            throw new IllegalArgumentException("Vertice non valido: " + verticeIniziale);
+        }
+        
+        int numWorker = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        Visita visita = new Visita(grafo, numWorker, registraAlbero);
+        visita.worker[0].spingi(verticeIniziale, verticeIniziale);
+        ForkJoinTask.invokeAll(visita.worker);
+        
+        int[] ordine = null;
+        if (registraAlbero) {
+            int[][] ordini = new int[numWorker][];
+            for (int w = 0; w < numWorker; w++) {
+                ordini[w] = Arrays.copyOf(visita.worker[w].ordine, visita.worker[w].numScoperti);
+            }
+            ordine = LevelSynchronousBfs.concatena(ordini);
+        }
+        return new DfsResult(verticeIniziale, visita.visitati, ordine, visita.padre);
+    }
+    
+    /**
+     * Stato condiviso da tutti i worker di una visita
+     */
+    private static class Visita {
+        final int[] offsets;
+        final int[] targets;
+        final AtomicBitmap visitati;
+        final int[] padre;
+        final Worker[] worker;
+        
+        // Il worker 0 parte con il vertice iniziale, gli altri partono inattivi
+        final AtomicInteger attivi = new AtomicInteger(1);
+        
+        // Worker sospesi in attesa di lavoro
+        final AtomicInteger inAttesa = new AtomicInteger();
+        
+        Visita(CsrGraph grafo, int numWorker, boolean registraAlbero) {
+            this.offsets = grafo.getOffsets();
+            this.targets = grafo.getTargets();
+            this.visitati = new AtomicBitmap(grafo.getVerticesCount());
+            this.padre = registraAlbero ? LevelSynchronousBfs.arrayNonRaggiunti(grafo.getVerticesCount()) : null;
+            this.worker = new Worker[numWorker];
+            for (int w = 0; w < numWorker; w++) {
+                worker[w] = new Worker(this, w, registraAlbero);
+            }
+        }
+    }
+    
+    /**
+     * Worker della visita, eseguito come task del pool comune.
+     *
+     * Ogni voce della pila contiene il vertice nei 32 bit alti e il padre in quelli bassi.
+     */
+    private static class Worker extends RecursiveAction implements ForkJoinPool.ManagedBlocker {
+        private final Visita visita;
+        private final int id;
+        private long[] pila = new long[64];
+        private int dimensione;
+        
+        // Parte condivisa della pila, protetta dal lock del worker
+        private long[] condivisa;
+        private volatile int dimensioneCondivisa;
+        
+        private int[] ordine;
+        private int numScoperti;
+        
+        // Thread del worker mentre è sospeso, altrimenti null
+        private volatile Thread sospeso;
+        
+        Worker(Visita visita, int id, boolean registraAlbero) {
+            this.visita = visita;
+            this.id = id;
+            this.ordine = registraAlbero ? new int[16] : null;
+        }
+        
+        @Override
+        protected void compute() {
+            boolean attivo = id == 0;
+            while (attivo || cercaLavoro()) {
+                esplora();
+                if (visita.attivi.decrementAndGet() == 0) {
+                    // Visita terminata: nessuno pubblicherà più lavoro
+                    risveglia(Integer.MAX_VALUE);
+                }
+                attivo = false;
+            }
+        }
+        
+        /**
+         * Visita in profondità finché la pila e la parte condivisa non sono entrambe vuote
+         */
+        private void esplora() {
+            int[] offsets = visita.offsets;
+            int[] targets = visita.targets;
+            AtomicBitmap visitati = visita.visitati;
+            int numWorker = visita.worker.length;
+            
+            while (true) {
+                if (dimensione == 0 && !carica(ruba())) {
+                    return;
+                }
+                
+                long voce = pila[--dimensione];
+                int vertice = (int) (voce >>> 32);
+                if (visitati.get(vertice) || !visitati.set(vertice)) {
+                    continue;
+                }
+                
+                if (ordine != null) {
+                    visita.padre[vertice] = (int) voce;
+                    registra(vertice);
+                }
+                
+                // Aggiunge vicini in ordine inverso per garantire lo stesso attraversamento del DFS ricorsivo
+                for (int i = offsets[vertice + 1] - 1; i >= offsets[vertice]; i--) {
+                    int vicino = targets[i];
+                    if (!visitati.get(vicino)) {
+                        spingi(vicino, vertice);
+                    }
+                }
+                
+                // Pubblica metà della pila solo se qualcuno può rubarla
+                if (dimensioneCondivisa == 0 && dimensione >= 2 && visita.attivi.get() < numWorker) {
+                    pubblica();
+                    if (visita.inAttesa.get() > 0) {
+                        risveglia(1);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Cerca una parte condivisa da rubare. Restituisce false quando la visita è terminata.
+         */
+        private boolean cercaLavoro() {
+            Worker[] worker = visita.worker;
+            int tentativi = 0;
+            while (true) {
+                if (visita.attivi.get() == 0) {
+                    return false;
+                }
+                
+                for (int k = 1; k < worker.length; k++) {
+                    Worker vittima = worker[(id + k) % worker.length];
+                    if (vittima.dimensioneCondivisa > 0) {
+                        // Torna attivo prima di rubare, così il lavoro rubato non è mai fuori dal conteggio
+                        visita.attivi.incrementAndGet();
+                        if (carica(vittima.ruba())) {
+                            return true;
+                        }
+                        if (visita.attivi.decrementAndGet() == 0) {
+                            // Il furto fallito può aver tenuto in attesa chi si era già svegliato
+                            risveglia(Integer.MAX_VALUE);
+                        }
+                    }
+                }
+                
+                if (++tentativi < TENTATIVI_PRIMA_DI_ATTENDERE) {
+                    Thread.yield();
+                } else {
+                    attendi();
+                    tentativi = 0;
+                }
+            }
+        }
+        
+        /**
+         * Sospende il worker finché non c'è una parte condivisa da rubare o la visita è finita.
+         * Il worker si registra prima di ricontrollare, così chi pubblica dopo il controllo lo vede.
+         */
+        private void attendi() {
+            sospeso = Thread.currentThread();
+            visita.inAttesa.incrementAndGet();
+            try {
+                ForkJoinPool.managedBlock(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                visita.inAttesa.decrementAndGet();
+                sospeso = null;
+            }
+        }
+        
+        @Override
+        public boolean block() {
+            if (!isReleasable()) {
+                LockSupport.park(this);
+            }
+            return isReleasable();
+        }
+        
+        @Override
+        public boolean isReleasable() {
+            if (visita.attivi.get() == 0) {
+                return true;
+            }
+            for (Worker vittima : visita.worker) {
+                if (vittima.dimensioneCondivisa > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Risveglia al più quanti worker sospesi
+         */
+        private void risveglia(int quanti) {
+            for (Worker altro : visita.worker) {
+                Thread thread = altro.sospeso;
+                if (quanti > 0 && thread != null) {
+                    LockSupport.unpark(thread);
+                    quanti--;
+                }
+            }
+        }
+        
+        void spingi(int vertice, int padre) {
+            if (dimensione == pila.length) {
+                pila = Arrays.copyOf(pila, 2 * dimensione);
+            }
+            pila[dimensione++] = ((long) vertice << 32) | (padre & 0xFFFFFFFFL);
+        }
+        
+        private void registra(int vertice) {
+            if (numScoperti == ordine.length) {
+                ordine = Arrays.copyOf(ordine, 2 * numScoperti);
+            }
+            ordine[numScoperti++] = vertice;
+        }
+        
+        /**
+         * Copia nella pila vuota le voci rubate. Restituisce false se non ci sono voci.
+         */
+        private boolean carica(long[] voci) {
+            if (voci == null) {
+                return false;
+            }
+            if (voci.length > pila.length) {
+                pila = new long[voci.length];
+            }
+            System.arraycopy(voci, 0, pila, 0, voci.length);
+            dimensione = voci.length;
+            return true;
+        }
+        
+        /**
+         * Sposta la metà inferiore della pila nella parte condivisa
+         */
+        private synchronized void pubblica() {
+            int meta = dimensione / 2;
+            condivisa = Arrays.copyOf(pila, meta);
+            System.arraycopy(pila, meta, pila, 0, dimensione - meta);
+            dimensione -= meta;
+            dimensioneCondivisa = meta;
+        }
+        
+        /**
+         * Prende tutta la parte condivisa; usato sia dai ladri sia dal proprietario
+         */
+        private synchronized long[] ruba() {
+            if (dimensioneCondivisa == 0) {
+                return null;
+            }
+            long[] voci = condivisa;
+            condivisa = null;
+            dimensioneCondivisa = 0;
+            return voci;
+        }
+    }
+}
\ No newline at end of file
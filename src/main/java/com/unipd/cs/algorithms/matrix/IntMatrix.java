@@ -0,0 +1,161 @@
+package com.unipd.cs.algorithms.matrix;
+
+/**
+ * Matrice di interi memorizzata per righe in un unico array contiguo.
+ *
+ * L'elemento (i, j) si trova in posizione offset + i * passo + j, dove il passo è la distanza
+ * tra l'inizio di due righe consecutive. Una matrice creata dal costruttore ha passo uguale al
+ * numero di colonne; una vista su una sottomatrice condivide l'array della matrice originale,
+ * con offset e passo propri, senza copiare gli elementi.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class IntMatrix {
+    private final int[] dati;
+    private final int offset;
+    private final int righe;
+    private final int colonne;
+    private final int passo;
+    
+    /**
+     * Costruttore di una matrice di zeri.
+     */
+    public IntMatrix(int righe, int colonne) {
+        this(new int[dimensione(righe, colonne)], 0, righe, colonne, colonne);
+    }
+    
+    IntMatrix(int[] dati, int offset, int righe, int colonne, int passo) {
+        this.dati = dati;
+        this.offset = offset;
+        this.righe = righe;
+        this.colonne = colonne;
+        this.passo = passo;
+    }
+    
+    /**
+     * Crea una matrice che usa direttamente l'array dato, letto per righe.
+     */
+    public static IntMatrix wrap(int[] dati, int righe, int colonne) {
+        if (dati.length != dimensione(righe, colonne)) {
+            throw new IllegalArgumentException("La lunghezza dell'array non corrisponde alle dimensioni");
+        }
+        return new IntMatrix(dati, 0, righe, colonne, colonne);
+    }
+    
+    /**
+     * Crea una matrice copiando un array bidimensionale con righe della stessa lunghezza.
+     */
+    public static IntMatrix fromArray(int[][] matrice) {
+        int righe = matrice.length;
+        int colonne = righe == 0 ? 0 : matrice[0].length;
+        IntMatrix risultato = new IntMatrix(righe, colonne);
+        for (int i = 0; i < righe; i++) {
+            if (matrice[i].length != colonne) {
+                throw new IllegalArgumentException("Le righe della matrice hanno lunghezze diverse");
+            }
+            System.arraycopy(matrice[i], 0, risultato.dati, i * colonne, colonne);
+        }
+        return risultato;
+    }
+    
+    /**
+     * Copia la matrice in un array bidimensionale.
+     */
+    public int[][] toArray() {
+        int[][] matrice = new int[righe][];
+        for (int i = 0; i < righe; i++) {
+            matrice[i] = new int[colonne];
+            System.arraycopy(dati, offset + i * passo, matrice[i], 0, colonne);
+        }
+        return matrice;
+    }
+    
+    /**
+     * Restituisce una copia contigua della matrice.
+     */
+    public IntMatrix copy() {
+        IntMatrix copia = new IntMatrix(righe, colonne);
+        for (int i = 0; i < righe; i++) {
+            System.arraycopy(dati, offset + i * passo, copia.dati, i * colonne, colonne);
+        }
+        return copia;
+    }
+    
+    /**
+     * Restituisce una vista sulla sottomatrice con l'angolo in alto a sinistra in (riga, colonna),
+     * che condivide gli elementi con questa matrice.
+     */
+    public IntMatrix view(int riga, int colonna, int righeVista, int colonneVista) {
+        if (riga < 0 || colonna < 0 || righeVista < 0 || colonneVista < 0
+                || riga + righeVista > righe || colonna + colonneVista > colonne) {
+            throw new IllegalArgumentException("Sottomatrice fuori dai limiti: " + righeVista + "x" + colonneVista
+                    + " in (" + riga + ", " + colonna + ")");
+        }
+        return new IntMatrix(dati, offset + riga * passo + colonna, righeVista, colonneVista, passo);
+    }
+    
+    /**
+     * Restituisce il numero di righe.
+     */
+    public int getRows() {
+        return righe;
+    }
+    
+    /**
+     * Restituisce il numero di colonne.
+     */
+    public int getColumns() {
+        return colonne;
+    }
+    
+    /**
+     * Restituisce la distanza nell'array tra l'inizio di due righe consecutive.
+     */
+    public int getStride() {
+        return passo;
+    }
+    
+    /**
+     * Restituisce la posizione nell'array dell'elemento (0, 0).
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    /**
+     * Restituisce l'elemento nella riga e colonna date.
+     */
+    public int get(int riga, int colonna) {
+        return dati[indice(riga, colonna)];
+    }
+    
+    /**
+     * Imposta l'elemento nella riga e colonna date.
+     */
+    public void set(int riga, int colonna, int valore) {
+        dati[indice(riga, colonna)] = valore;
+    }
+    
+    /**
+     * Restituisce l'array condiviso con gli elementi della matrice.
+     */
+    int[] getData() {
+        return dati;
+    }
+    
+    private int indice(int riga, int colonna) {
+        if (riga < 0 || riga >= righe || colonna < 0 || colonna >= colonne) {
+            throw new IllegalArgumentException("Elemento non valido: (" + riga + ", " + colonna + ")");
+        }
+        return offset + riga * passo + colonna;
+    }
+    
+    private static int dimensione(int righe, int colonne) {
+        if (righe < 0 || colonne < 0 || (long) righe * colonne > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Dimensioni non valide: " + righe + "x" + colonne);
+        }
+        return righe * colonne;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.unipd.cs.algorithms.matrix;
+
+import com.unipd.cs.algorithms.ParallelSortingAlgorithms;
+
+import java.util.Arrays;
+
+/**
+ * Kernel di moltiplicazione a blocchi per matrici IntMatrix.
+ *
+ * Il prodotto usa l'ordine i-k-j: ogni elemento di A moltiplica una riga di B e il risultato
+ * viene sommato a una riga di C, per cui B e C vengono lette per righe contigue. Le colonne di
+ * B sono divise in pannelli larghi BLOCCO_J e profondi BLOCCO_K, copiati in righe contigue
+ * dimensionate per restare nella cache L2 mentre tutte le righe di A li attraversano; una riga
+ * del pannello e gli accumulatori del micro-kernel restano nella cache L1.
+ *
+ * Il micro-kernel calcola insieme RIGHE_MICRO_KERNEL righe di C: ogni elemento del pannello
+ * viene letto una volta e usato per tutte le righe, mentre i corrispondenti elementi di A
+ * restano nei registri.
+ *
+ * @author Università di Padova - Corso di Algoritmi Avanzati
+ * @version 1.0
+ * @since Maggio 2020
+ */
+public class MatrixKernels {
+    
+    // Righe del pannello di B, cioè colonne di A, per blocco
+    private static final int BLOCCO_K = 128;
+    
+    // Colonne del pannello di B e di C per blocco
+    private static final int BLOCCO_J = 512;
+    
+    // Righe di C calcolate insieme dal micro-kernel
+    private static final int RIGHE_MICRO_KERNEL = 4;
+    
+    // Righe di C per task nella moltiplicazione parallela
+    private static final int RIGHE_PER_TASK = 64;
+    
+    /**
+     * Restituisce il prodotto A * B.
+     */
+    public static IntMatrix multiply(IntMatrix a, IntMatrix b) {
+        IntMatrix c = new IntMatrix(a.getRows(), b.getColumns());
+        multiplyAdd(a, b, c);
+        return c;
+    }
+    
+    /**
+     * Somma il prodotto A * B alla matrice C, che non deve condividere elementi con A e B.
+     */
+    public static void multiplyAdd(IntMatrix a, IntMatrix b, IntMatrix c) {
+        verificaDimensioni(a, b, c);
+        moltiplicaTile(a, b, c, 0, c.getRows(), 0, c.getColumns());
+    }
+    
+    /**
+     * Restituisce il prodotto A * B calcolato in parallelo.
+     */
+    public static IntMatrix parallelMultiply(IntMatrix a, IntMatrix b) {
+        IntMatrix c = new IntMatrix(a.getRows(), b.getColumns());
+        parallelMultiplyAdd(a, b, c);
+        return c;
+    }
+    
+    /**
+     * Somma in parallelo il prodotto A * B alla matrice C, che non deve condividere elementi
+     * con A e B. C viene divisa in tile di RIGHE_PER_TASK righe e BLOCCO_J colonne,
+     * distribuiti sul pool Fork/Join comune.
+     */
+    public static void parallelMultiplyAdd(IntMatrix a, IntMatrix b, IntMatrix c) {
+        verificaDimensioni(a, b, c);
+        int righe = c.getRows();
+        int colonne = c.getColumns();
+        int tileRighe = (righe + RIGHE_PER_TASK - 1) / RIGHE_PER_TASK;
+        int tileColonne = (colonne + BLOCCO_J - 1) / BLOCCO_J;
+        
+        ParallelSortingAlgorithms.cicloParallelo(tileRighe * tileColonne, 1, (primo, ultimo) -> {
+            for (int t = primo; t < ultimo; t++) {
+                int riga = (t / tileColonne) * RIGHE_PER_TASK;
+                int colonna = (t % tileColonne) * BLOCCO_J;
+                moltiplicaTile(a, b, c, riga, Math.min(righe, riga + RIGHE_PER_TASK),
+                        colonna, Math.min(colonne, colonna + BLOCCO_J));
+            }
+        });
+    }
+    
+    private static void verificaDimensioni(IntMatrix a, IntMatrix b, IntMatrix c) {
+        if (a.getColumns() != b.getRows()) {
+            throw new IllegalArgumentException("Dimensioni incompatibili: " + a.getRows() + "x" + a.getColumns()
+                    + " per " + b.getRows() + "x" + b.getColumns());
+        }
+        if (c.getRows() != a.getRows() || c.getColumns() != b.getColumns()) {
+            throw new IllegalArgumentException("La matrice risultato deve essere " + a.getRows() + "x" + b.getColumns());
+        }
+    }
+    
+    /**
+     * Somma a C[rigaInizio, rigaFine) x [colonnaInizio, colonnaFine) il prodotto delle righe
+     * corrispondenti di A per le colonne corrispondenti di B.
+     */
+    private static void moltiplicaTile(IntMatrix a, IntMatrix b, IntMatrix c, int rigaInizio, int rigaFine,
+            int colonnaInizio, int colonnaFine) {
+        int profondita = a.getColumns();
+        int[] datiA = a.getData();
+        int[] datiB = b.getData();
+        int[] datiC = c.getData();
+        int passoA = a.getStride();
+        int passoB = b.getStride();
+        int passoC = c.getStride();
+        
+        int[][] pannello = new int[Math.min(BLOCCO_K, profondita)][Math.min(BLOCCO_J, colonnaFine - colonnaInizio)];
+        int[][] accumulatori = new int[RIGHE_MICRO_KERNEL][Math.min(BLOCCO_J, colonnaFine - colonnaInizio)];
+        
+        for (int jj = colonnaInizio; jj < colonnaFine; jj += BLOCCO_J) {
+            int larghezza = Math.min(BLOCCO_J, colonnaFine - jj);
+            for (int kk = 0; kk < profondita; kk += BLOCCO_K) {
+                int altezza = Math.min(BLOCCO_K, profondita - kk);
+                
+                // Copia il pannello di B in righe contigue che partono dall'indice 0
+                for (int p = 0; p < altezza; p++) {
+                    System.arraycopy(datiB, b.getOffset() + (kk + p) * passoB + jj, pannello[p], 0, larghezza);
+                }
+                
+                int i = rigaInizio;
+                for (; i + RIGHE_MICRO_KERNEL <= rigaFine; i += RIGHE_MICRO_KERNEL) {
+                    microKernel(datiA, a.getOffset() + i * passoA + kk, passoA, pannello, altezza, larghezza,
+                            accumulatori, datiC, c.getOffset() + i * passoC + jj, passoC);
+                }
+                for (; i < rigaFine; i++) {
+                    rigaSingola(datiA, a.getOffset() + i * passoA + kk, pannello, altezza, larghezza,
+                            accumulatori[0], datiC, c.getOffset() + i * passoC + jj);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Somma a quattro righe di C il prodotto delle corrispondenti righe di A per il pannello.
+     *
+     * Gli accumulatori sono array separati indicizzati come le righe del pannello, dall'indice
+     * 0: così il compilatore JIT sa che il ciclo interno non ha dipendenze e lo vettorizza,
+     * cosa che non fa scrivendo direttamente in C a uno spostamento diverso da quello di B.
+     */
+    private static void microKernel(int[] datiA, int inizioA, int passoA, int[][] pannello, int altezza,
+            int larghezza, int[][] accumulatori, int[] datiC, int inizioC, int passoC) {
+        int[] c0 = accumulatori[0];
+        int[] c1 = accumulatori[1];
+        int[] c2 = accumulatori[2];
+        int[] c3 = accumulatori[3];
+        Arrays.fill(c0, 0, larghezza, 0);
+        Arrays.fill(c1, 0, larghezza, 0);
+        Arrays.fill(c2, 0, larghezza, 0);
+        Arrays.fill(c3, 0, larghezza, 0);
+        
+        for (int p = 0; p < altezza; p++) {
+            int a0 = datiA[inizioA + p];
+            int a1 = datiA[inizioA + passoA + p];
+            int a2 = datiA[inizioA + 2 * passoA + p];
+            int a3 = datiA[inizioA + 3 * passoA + p];
+            int[] rigaB = pannello[p];
+            for (int j = 0; j < larghezza; j++) {
+                int valoreB = rigaB[j];
+                c0[j] += a0 * valoreB;
+                c1[j] += a1 * valoreB;
+                c2[j] += a2 * valoreB;
+                c3[j] += a3 * valoreB;
+            }
+        }
+        
+        for (int r = 0; r < RIGHE_MICRO_KERNEL; r++) {
+            int[] accumulatore = accumulatori[r];
+            int inizioRiga = inizioC + r * passoC;
+            for (int j = 0; j < larghezza; j++) {
+                datiC[inizioRiga + j] += accumulatore[j];
+            }
+        }
+    }
+    
+    /**
+     * Somma a una riga di C il prodotto della corrispondente riga di A per il pannello
+     */
+    private static void rigaSingola(int[] datiA, int inizioA, int[][] pannello, int altezza, int larghezza,
+            int[] accumulatore, int[] datiC, int inizioC) {
+        Arrays.fill(accumulatore, 0, larghezza, 0);
+        for (int p = 0; p < altezza; p++) {
+            int valoreA = datiA[inizioA + p];
+            int[] rigaB = pannello[p];
+            for (int j = 0; j < larghezza; j++) {
+                accumulatore[j] += valoreA * rigaB[j];
+            }
+        }
+        for (int j = 0; j < larghezza; j++) {
+            datiC[inizioC + j] += accumulatore[j];
+        }
+    }
+}
\ No newline at end of file
@@ -1,9 +1,6 @@
 package com.unipd.cs.algorithms.matrix;
 
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Implementazione di moltiplicazione matriciale sequenziale e parallela.
@@ -34,10 +31,16 @@ public class MatrixMultiplication {
             int[][] A = generaMatriceCasuale(dimensione, dimensione);
             int[][] B = generaMatriceCasuale(dimensione, dimensione);
             
-            // Moltiplicazione sequenziale
+            // Moltiplicazione ingenua di riferimento
             long tempoInizio = System.currentTimeMillis();
-            int[][] C1 = moltiplicazioneSequenziale(A, B);
+            int[][] C0 = moltiplicazioneIngenua(A, B);
             long tempoFine = System.currentTimeMillis();
+            System.out.println("Moltiplicazione ingenua i-j-k: " + (tempoFine - tempoInizio) + "ms");
+            
+            // Moltiplicazione sequenziale
+            tempoInizio = System.currentTimeMillis();
+            int[][] C1 = moltiplicazioneSequenziale(A, B);
+            tempoFine = System.currentTimeMillis();
             System.out.println("Moltiplicazione sequenziale: " + (tempoFine - tempoInizio) + "ms");
             
             // Moltiplicazione parallela
@@ -47,7 +50,7 @@ public class MatrixMultiplication {
             System.out.println("Moltiplicazione parallela: " + (tempoFine - tempoInizio) + "ms");
             
             // Verifica risultati
-            System.out.println("Risultati corrispondenti: " + matriciUguali(C1, C2));
+            System.out.println("Risultati corrispondenti: " + (matriciUguali(C0, C1) && matriciUguali(C1, C2)));
         }
     }
     
@@ -85,8 +88,29 @@ public class MatrixMultiplication {
     
     /**
      * Moltiplicazione matriciale sequenziale.
+     *
+     * Le matrici vengono copiate in {@link IntMatrix} e moltiplicate con i kernel a blocchi di
+     * {@link MatrixKernels}.
      */
     public static int[][] moltiplicazioneSequenziale(int[][] A, int[][] B) {
+        return MatrixKernels.multiply(IntMatrix.fromArray(A), IntMatrix.fromArray(B)).toArray();
+    }
+    
+    /**
+     * Moltiplicazione matriciale parallela con i kernel a blocchi di {@link MatrixKernels}.
+     *
+     * I tile della matrice risultato vengono distribuiti sul pool Fork/Join comune: numThread
+     * è mantenuto per compatibilità, il parallelismo è quello del pool comune.
+     */
+    public static int[][] moltiplicazioneParallela(int[][] A, int[][] B, int numThread) {
+        return MatrixKernels.parallelMultiply(IntMatrix.fromArray(A), IntMatrix.fromArray(B)).toArray();
+    }
+    
+    /**
+     * Moltiplicazione matriciale sequenziale con il ciclo i-j-k sugli array bidimensionali,
+     * usata come riferimento: la lettura di B[k][j] scorre una colonna e cambia riga a ogni passo.
+     */
+    private static int[][] moltiplicazioneIngenua(int[][] A, int[][] B) {
         int righeA = A.length;
         int colonneA = A[0].length;
         int colonneB = B[0].length;
@@ -103,49 +127,4 @@ public class MatrixMultiplication {
         
         return C;
     }
-    
-    /**
-     * Moltiplicazione matriciale parallela utilizzando la classe Thread.
-     */
-    public static int[][] moltiplicazioneParallela(int[][] A, int[][] B, int numThread) {
-        int righeA = A.length;
-        int colonneA = A[0].length;
-        int colonneB = B[0].length;
-        
-        final int[][] C = new int[righeA][colonneB];
-        
-        // Crea pool di thread
-        ExecutorService executor = Executors.newFixedThreadPool(numThread);
-        
-        // Divide il lavoro tra i thread
-        int righePerThread = Math.max(1, righeA / numThread);
-        
-        for (int t = 0; t < numThread; t++) {
-            final int idThread = t;
-            
-            executor.submit(() -> {
-                // Calcola righe iniziali e finali per questo thread
-                int rigaInizio = idThread * righePerThread;
-                int rigaFine = (idThread == numThread - 1) ? righeA : Math.min(rigaInizio + righePerThread, righeA);
-                
-                // Esegue moltiplicazione per le righe assegnate
-                for (int i = rigaInizio; i < rigaFine; i++) {
-                    for (int j = 0; j < colonneB; j++) {
-                        for (int k = 0; k < colonneA; k++) {
-                            C[i][j] += A[i][k] * B[k][j];
-                        }
-                    }
-                }
-            });
-        }
-        
-        // Attende il completamento di tutti i thread
-        executor.shutdown();
-        try {
-            executor.awaitTermination(1, TimeUnit.MINUTES);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        return C;
-    }
 }
\ No newline at end of file